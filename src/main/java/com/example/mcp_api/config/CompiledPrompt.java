@@ -0,0 +1,71 @@
+package com.example.mcp_api.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A prompts/get definition with its message texts compiled into templates at startup.
+ * Without arguments the original definition is returned as-is.
+ */
+final class CompiledPrompt {
+
+    private final Map<String, Object> definition;
+    private final String name;
+    private final String description;
+    private final String[] roles;
+    private final PromptTemplate[] templates;
+
+    private CompiledPrompt(Map<String, Object> definition, String[] roles, PromptTemplate[] templates) {
+        this.definition = definition;
+        this.name = (String) definition.get("name");
+        this.description = (String) definition.get("description");
+        this.roles = roles;
+        this.templates = templates;
+    }
+
+    /**
+     * Compile a prompt definition of the form {name, description, messages: [{role, content: {type, text}}]}
+     */
+    static CompiledPrompt compile(Map<String, Object> definition) {
+        List<?> messages = (List<?>) definition.getOrDefault("messages", Collections.emptyList());
+        String[] roles = new String[messages.size()];
+        PromptTemplate[] templates = new PromptTemplate[messages.size()];
+
+        for (int i = 0; i < messages.size(); i++) {
+            Map<?, ?> message = (Map<?, ?>) messages.get(i);
+            Map<?, ?> content = (Map<?, ?>) message.get("content");
+            roles[i] = (String) message.get("role");
+            templates[i] = PromptTemplate.compile(content != null && content.get("text") != null
+                ? (String) content.get("text")
+                : "");
+        }
+        return new CompiledPrompt(Collections.unmodifiableMap(definition), roles, templates);
+    }
+
+    Map<String, Object> definition() {
+        return definition;
+    }
+
+    /**
+     * Render every message with the given arguments
+     */
+    Map<String, Object> render(Map<String, ?> arguments) {
+        List<Map<String, Object>> messages = new ArrayList<>(templates.length);
+        for (int i = 0; i < templates.length; i++) {
+            messages.add(Map.of(
+                "role", roles[i],
+                "content", Map.of(
+                    "type", "text",
+                    "text", templates[i].render(arguments)
+                )
+            ));
+        }
+        return Map.of(
+            "name", name,
+            "description", description,
+            "messages", messages
+        );
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.mcp_api.config;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming reader for JSON-RPC messages on the /mcp endpoint.
+ * Reads the envelope field by field instead of building a generic Map tree;
+ * params are buffered as tokens and only bound when the method handler needs them.
+ */
+final class JsonRpcReader {
+
+    private final ObjectMapper objectMapper;
+
+    JsonRpcReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * A POST body: one message, or a batch whose non-object entries are null
+     */
+    record Payload(List<JsonRpcRequest> messages, boolean batch) {
+    }
+
+    Payload read(InputStream body) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                return new Payload(Collections.singletonList(readMessage(parser)), false);
+            }
+            if (token == JsonToken.START_ARRAY) {
+                List<JsonRpcRequest> messages = new ArrayList<>();
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (token == JsonToken.START_OBJECT) {
+                        messages.add(readMessage(parser));
+                    } else {
+                        parser.skipChildren();
+                        messages.add(null);
+                    }
+                }
+                return new Payload(messages, true);
+            }
+            throw new JsonParseException(parser, "Invalid Request: expected a JSON-RPC object or batch");
+        }
+    }
+
+    /**
+     * Read tools/call params without materializing the arguments
+     */
+    ToolCallParams readToolCall(TokenBuffer params) throws IOException {
+        if (params == null) {
+            return new ToolCallParams(null, null, null);
+        }
+        String name = null;
+        TokenBuffer arguments = null;
+        Object progressToken = null;
+
+        try (JsonParser parser = params.asParser(objectMapper)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Invalid params: expected an object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "name":
+                        name = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                        break;
+                    case "arguments":
+                        arguments = value == JsonToken.START_OBJECT ? buffer(parser) : skip(parser);
+                        break;
+                    case "_meta":
+                        progressToken = value == JsonToken.START_OBJECT ? readProgressToken(parser) : skip(parser);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+        return new ToolCallParams(name, arguments, progressToken);
+    }
+
+    /**
+     * Bind params to a generic Map for the methods that still work on maps, null when absent
+     */
+    Map<?, ?> readParamsAsMap(TokenBuffer params) throws IOException {
+        if (params == null) {
+            return null;
+        }
+        try (JsonParser parser = params.asParser(objectMapper)) {
+            return objectMapper.readValue(parser, Map.class);
+        }
+    }
+
+    private JsonRpcRequest readMessage(JsonParser parser) throws IOException {
+        String jsonrpc = null;
+        Object id = null;
+        boolean hasId = false;
+        String method = null;
+        TokenBuffer params = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "jsonrpc":
+                    jsonrpc = parser.getValueAsString();
+                    break;
+                case "id":
+                    id = readScalar(parser, value);
+                    hasId = true;
+                    break;
+                case "method":
+                    method = parser.getValueAsString();
+                    break;
+                case "params":
+                    params = value == JsonToken.VALUE_NULL ? null : buffer(parser);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return new JsonRpcRequest(jsonrpc, id, hasId, method, params);
+    }
+
+    private Object readProgressToken(JsonParser parser) throws IOException {
+        Object progressToken = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("progressToken".equals(field)) {
+                progressToken = readScalar(parser, value);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return progressToken;
+    }
+
+    // ids and progress tokens are strings or numbers; anything else is bound generically
+    private Object readScalar(JsonParser parser, JsonToken value) throws IOException {
+        switch (value) {
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_NULL:
+                return null;
+            default:
+                return objectMapper.readValue(parser, Object.class);
+        }
+    }
+
+    private static TokenBuffer buffer(JsonParser parser) throws IOException {
+        TokenBuffer buffer = new TokenBuffer(parser);
+        buffer.copyCurrentStructure(parser);
+        return buffer;
+    }
+
+    private static <T> T skip(JsonParser parser) throws IOException {
+        parser.skipChildren();
+        return null;
+    }
+}
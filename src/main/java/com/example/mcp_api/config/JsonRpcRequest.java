@@ -0,0 +1,18 @@
+package com.example.mcp_api.config;
+
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * A parsed JSON-RPC request or notification.
+ * params are kept as buffered tokens so each method can bind them to the type it needs
+ * (tools/call binds arguments straight to the tool's parameter types).
+ */
+record JsonRpcRequest(String jsonrpc, Object id, boolean hasId, String method, TokenBuffer params) {
+
+    /**
+     * Notifications carry no id and never get a response
+     */
+    boolean isNotification() {
+        return !hasId;
+    }
+}
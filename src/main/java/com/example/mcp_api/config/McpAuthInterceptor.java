@@ -2,8 +2,9 @@ package com.example.mcp_api.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
 import com.example.mcp_api.service.ExotelService;
+import com.example.mcp_api.service.ToolInvocationContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -11,35 +12,42 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 @Component
-public class McpAuthInterceptor implements HandlerInterceptor {
+public class McpAuthInterceptor implements AsyncHandlerInterceptor {
     
     private static final Logger logger = LoggerFactory.getLogger(McpAuthInterceptor.class);
     
     @Autowired
     private ExotelService exotelService;
     
+    @Autowired
+    private McpSessionTokens sessionTokens;
+    
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
         String requestURI = request.getRequestURI();
         String authHeader = request.getHeader("Authorization");
+        String sessionId = request.getHeader(StreamableHttpConfig.MCP_SESSION_ID_HEADER);
         
         logger.info("MCP Auth Interceptor - URI: {}, Method: {}", requestURI, request.getMethod());
         
+        // Credentials sealed in the session id, so any replica can serve the session
+        String sessionAuthHeader = sessionTokens.open(sessionId);
+        if ((authHeader == null || authHeader.trim().isEmpty()) && sessionAuthHeader != null) {
+            authHeader = sessionAuthHeader;
+        }
+        
         // Capture Authorization header for SSE and MCP endpoints
         if (authHeader != null && !authHeader.trim().isEmpty()) {
-            logger.info("Capturing Authorization header for MCP session: {}", maskAuthHeader(authHeader));
-            
-            // Store the auth header for this session
-            exotelService.setAuthHeaderForSession(authHeader);
-            
-            // Store with multiple keys to ensure MCP calls can find it
-            String threadSessionKey = "MCP-" + Thread.currentThread().getId();
-            String genericMcpKey = "MCP-GLOBAL";
+            logger.info("Capturing Authorization header for MCP request: {}", maskAuthHeader(authHeader));
             
-            exotelService.setAuthHeaderForSessionKey(threadSessionKey, authHeader);
-            exotelService.setAuthHeaderForSessionKey(genericMcpKey, authHeader);
+            // Attach the credentials to the invocation context for the rest of this request;
+            // tool calls (and the worker threads they are handed to) read them from there
+            ToolInvocationContext.current().withAuthHeader(authHeader).bind();
             
-            logger.info("Stored auth header for multiple session keys: {}, {}", threadSessionKey, genericMcpKey);
+            // Opaque (unsealed) session ids still need the local session store
+            if (sessionAuthHeader == null) {
+                exotelService.setAuthHeaderForSession(authHeader);
+            }
             
         } else {
             logger.warn("No Authorization header found in request to: {}", requestURI);
@@ -48,10 +56,21 @@ public class McpAuthInterceptor implements HandlerInterceptor {
         return true;
     }
     
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Async handling continues elsewhere, the Tomcat thread goes back to the pool
+        ToolInvocationContext.unbind();
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ToolInvocationContext.unbind();
+    }
+    
     private String maskAuthHeader(String authHeader) {
         if (authHeader == null || authHeader.length() < 10) {
             return "***";
         }
         return authHeader.substring(0, 6) + "***" + authHeader.substring(authHeader.length() - 4);
     }
-}
\ No newline at end of file
+}
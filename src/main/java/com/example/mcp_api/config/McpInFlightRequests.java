@@ -0,0 +1,58 @@
+package com.example.mcp_api.config;
+
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.example.mcp_api.service.CancellationToken;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-flight tool calls by JSON-RPC id, so notifications/cancelled can reach the running call.
+ * Ids are only unique per client, so entries are scoped by the caller's MCP session (or credentials).
+ */
+@Component
+public class McpInFlightRequests {
+
+    private static final Logger logger = LoggerFactory.getLogger(McpInFlightRequests.class);
+
+    private final Map<String, CancellationToken> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Register a call and return its cancellation token
+     * Calls without an id, or from a client without a session or credentials (null scope), cannot be cancelled
+     */
+    public CancellationToken register(String scope, Object requestId) {
+        if (requestId == null || scope == null) {
+            return CancellationToken.NONE;
+        }
+        CancellationToken token = new CancellationToken();
+        inFlight.put(key(scope, requestId), token);
+        return token;
+    }
+
+    public void complete(String scope, Object requestId, CancellationToken token) {
+        if (requestId != null && scope != null) {
+            inFlight.remove(key(scope, requestId), token);
+        }
+    }
+
+    /**
+     * Cancel a running call, returns false if it is unknown or already finished
+     */
+    public boolean cancel(String scope, Object requestId, String reason) {
+        CancellationToken token = requestId != null && scope != null ? inFlight.remove(key(scope, requestId)) : null;
+        if (token == null) {
+            logger.debug("Cancellation for unknown or completed request: {}", requestId);
+            return false;
+        }
+        logger.info("Cancelling request {}{}", requestId, reason != null ? " (" + reason + ")" : "");
+        token.cancel(reason);
+        return true;
+    }
+
+    private static String key(String scope, Object requestId) {
+        return scope + "|" + requestId;
+    }
+}
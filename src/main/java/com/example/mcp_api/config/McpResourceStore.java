@@ -0,0 +1,101 @@
+package com.example.mcp_api.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Immutable store of the static MCP resources.
+ * Every document is generated once, serialized as its resources/read result and gzip-compressed,
+ * with an ETag for conditional reads. resources/list is split into pre-encoded pages addressed
+ * by opaque cursors.
+ */
+final class McpResourceStore {
+
+    private static final String CURSOR_PREFIX = "offset:";
+
+    private final Map<String, PreEncodedResult> contents;
+    private final List<PreEncodedResult> pages;
+    private final int pageSize;
+
+    private McpResourceStore(Map<String, PreEncodedResult> contents, List<PreEncodedResult> pages, int pageSize) {
+        this.contents = contents;
+        this.pages = pages;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Build the store from the resource catalog, loading each document through contentLoader
+     */
+    static McpResourceStore build(ObjectMapper objectMapper, List<Map<String, Object>> resources,
+                                  Function<String, Map<String, Object>> contentLoader,
+                                  int pageSize) throws JsonProcessingException {
+        int size = Math.max(1, pageSize);
+
+        Map<String, PreEncodedResult> contents = new LinkedHashMap<>();
+        for (Map<String, Object> resource : resources) {
+            String uri = (String) resource.get("uri");
+            Map<String, Object> content = contentLoader.apply(uri);
+            if (content != null) {
+                contents.put(uri, PreEncodedResult.compressed(objectMapper, Map.of("contents", List.of(content))));
+            }
+        }
+
+        List<PreEncodedResult> pages = new ArrayList<>();
+        for (int offset = 0; offset == 0 || offset < resources.size(); offset += size) {
+            int end = Math.min(offset + size, resources.size());
+            Map<String, Object> page = new HashMap<>();
+            page.put("resources", resources.subList(offset, end));
+            if (end < resources.size()) {
+                page.put("nextCursor", encodeCursor(end));
+            }
+            pages.add(PreEncodedResult.of(objectMapper, page));
+        }
+
+        return new McpResourceStore(Collections.unmodifiableMap(contents), List.copyOf(pages), size);
+    }
+
+    /**
+     * The resources/read result for a URI, null if the store has no such resource
+     */
+    PreEncodedResult read(String uri) {
+        return uri != null ? contents.get(uri) : null;
+    }
+
+    /**
+     * The resources/list page for a cursor (null for the first page), null if the cursor is invalid
+     */
+    PreEncodedResult page(String cursor) {
+        if (cursor == null) {
+            return pages.get(0);
+        }
+        int offset = decodeCursor(cursor);
+        if (offset <= 0 || offset % pageSize != 0 || offset / pageSize >= pages.size()) {
+            return null;
+        }
+        return pages.get(offset / pageSize);
+    }
+
+    private static String encodeCursor(int offset) {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((CURSOR_PREFIX + offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return decoded.startsWith(CURSOR_PREFIX) ? Integer.parseInt(decoded.substring(CURSOR_PREFIX.length())) : -1;
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+}
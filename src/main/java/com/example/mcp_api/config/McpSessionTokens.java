@@ -0,0 +1,108 @@
+package com.example.mcp_api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Self-contained Mcp-Session-Id tokens: the caller's Authorization header sealed with AES-GCM.
+ * Every replica configured with the same mcp.session.secret can open a token and rebuild the caller's
+ * credentials locally, so MCP sessions need neither sticky load balancing nor a shared session store.
+ * GCM authenticates the token, a tampered or foreign token simply fails to open.
+ */
+@Component
+public class McpSessionTokens {
+
+    private static final Logger logger = LoggerFactory.getLogger(McpSessionTokens.class);
+
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final byte VERSION = 1;
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecureRandom random = new SecureRandom();
+    private final SecretKeySpec key;
+    private final long maxAgeMillis;
+
+    public McpSessionTokens(@Value("${mcp.session.secret:}") String secret,
+                            @Value("${mcp.session.max-age:24h}") Duration maxAge) throws GeneralSecurityException {
+        byte[] keyMaterial;
+        if (secret == null || secret.isBlank()) {
+            logger.warn("mcp.session.secret is not set, using a random key: MCP sessions will not survive a restart "
+                        + "and will not be accepted by other replicas");
+            keyMaterial = new byte[32];
+            random.nextBytes(keyMaterial);
+        } else {
+            keyMaterial = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+        }
+        this.key = new SecretKeySpec(keyMaterial, "AES");
+        this.maxAgeMillis = maxAge.toMillis();
+    }
+
+    /**
+     * Seal an Authorization header into a new session id (URL-safe base64, no padding)
+     * An anonymous session seals an empty header
+     */
+    public String issue(String authHeader) {
+        byte[] header = authHeader.getBytes(StandardCharsets.UTF_8);
+        byte[] plain = ByteBuffer.allocate(1 + Long.BYTES + header.length)
+            .put(VERSION)
+            .putLong(System.currentTimeMillis())
+            .put(header)
+            .array();
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            byte[] sealed = cipher.doFinal(plain);
+            byte[] token = new byte[IV_LENGTH + sealed.length];
+            System.arraycopy(iv, 0, token, 0, IV_LENGTH);
+            System.arraycopy(sealed, 0, token, IV_LENGTH, sealed.length);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to seal MCP session token", e);
+        }
+    }
+
+    /**
+     * Authorization header sealed in a session id ("" for an anonymous session),
+     * null if the id is not a valid, unexpired token of ours
+     */
+    public String open(String sessionId) {
+        if (sessionId == null || sessionId.length() < 40) {
+            return null;
+        }
+        try {
+            byte[] token = Base64.getUrlDecoder().decode(sessionId);
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, token, 0, IV_LENGTH));
+            ByteBuffer plain = ByteBuffer.wrap(cipher.doFinal(token, IV_LENGTH, token.length - IV_LENGTH));
+            if (plain.get() != VERSION) {
+                return null;
+            }
+            long issuedAt = plain.getLong();
+            if (System.currentTimeMillis() - issuedAt > maxAgeMillis) {
+                logger.debug("Rejected expired MCP session token");
+                return null;
+            }
+            return StandardCharsets.UTF_8.decode(plain).toString();
+        } catch (IllegalArgumentException | GeneralSecurityException | BufferUnderflowException e) {
+            logger.debug("Rejected MCP session token: {}", e.getMessage());
+            return null;
+        }
+    }
+}
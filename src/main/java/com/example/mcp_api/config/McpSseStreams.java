@@ -0,0 +1,159 @@
+package com.example.mcp_api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.function.ServerResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-Sent Event streams for the streamable HTTP transport.
+ * Tracks the long-lived GET /mcp streams per MCP session and keeps every open stream
+ * (including per-request tool streams) alive with periodic heartbeat comments.
+ */
+@Component
+public class McpSseStreams {
+
+    private static final Logger logger = LoggerFactory.getLogger(McpSseStreams.class);
+
+    private final Map<String, Stream> sessionStreams = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService heartbeatScheduler;
+    private final Duration streamTimeout;
+    private final long heartbeatIntervalMillis;
+
+    public McpSseStreams(@Value("${mcp.sse.timeout:30m}") Duration streamTimeout,
+                         @Value("${mcp.sse.heartbeat-interval:15s}") Duration heartbeatInterval) {
+        this.streamTimeout = streamTimeout;
+        this.heartbeatIntervalMillis = heartbeatInterval.toMillis();
+        this.heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mcp-sse-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public Duration streamTimeout() {
+        return streamTimeout;
+    }
+
+    /**
+     * Wrap an SSE builder: serializes concurrent sends and starts the heartbeat
+     */
+    public Stream open(ServerResponse.SseBuilder sse) {
+        Stream stream = new Stream(sse);
+        stream.heartbeat = heartbeatScheduler.scheduleAtFixedRate(
+            stream::heartbeat, heartbeatIntervalMillis, heartbeatIntervalMillis, TimeUnit.MILLISECONDS);
+        sse.onComplete(stream::close);
+        sse.onTimeout(stream::close);
+        sse.onError(e -> stream.close());
+        return stream;
+    }
+
+    /**
+     * Register the GET stream for an MCP session, replacing any previous stream for that session
+     */
+    public Stream openSessionStream(String sessionId, ServerResponse.SseBuilder sse) {
+        Stream stream = open(sse);
+        stream.sessionId = sessionId;
+        Stream previous = sessionStreams.put(sessionId, stream);
+        if (previous != null) {
+            previous.complete();
+        }
+        logger.info("Opened MCP SSE stream for session: {} (active streams: {})", sessionId, sessionStreams.size());
+        return stream;
+    }
+
+    public boolean hasSessionStream(String sessionId) {
+        return sessionStreams.containsKey(sessionId);
+    }
+
+    /**
+     * Push a server-initiated message to a session's GET stream
+     * Returns false if the session has no open stream
+     */
+    public boolean sendToSession(String sessionId, Object message) {
+        Stream stream = sessionId != null ? sessionStreams.get(sessionId) : null;
+        return stream != null && stream.send(message);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeatScheduler.shutdownNow();
+        sessionStreams.values().forEach(Stream::complete);
+    }
+
+    /**
+     * A single open SSE stream; all writes are serialized on the stream
+     */
+    public final class Stream {
+
+        private final ServerResponse.SseBuilder sse;
+        private volatile ScheduledFuture<?> heartbeat;
+        private volatile String sessionId;
+        private volatile boolean closed;
+
+        private Stream(ServerResponse.SseBuilder sse) {
+            this.sse = sse;
+        }
+
+        /**
+         * Send a JSON-RPC message as an SSE data event, returns false if the stream is gone
+         */
+        public synchronized boolean send(Object message) {
+            if (closed) {
+                return false;
+            }
+            try {
+                sse.send(message);
+                return true;
+            } catch (IOException | RuntimeException e) {
+                logger.debug("SSE send failed, closing stream: {}", e.getMessage());
+                close();
+                return false;
+            }
+        }
+
+        /**
+         * Complete the stream normally
+         */
+        public synchronized void complete() {
+            if (!closed) {
+                close();
+                sse.complete();
+            }
+        }
+
+        private synchronized void heartbeat() {
+            if (closed) {
+                return;
+            }
+            try {
+                sse.comment("heartbeat").send();
+            } catch (IOException | RuntimeException e) {
+                logger.debug("SSE heartbeat failed, closing stream: {}", e.getMessage());
+                close();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            ScheduledFuture<?> task = heartbeat;
+            if (task != null) {
+                task.cancel(false);
+            }
+            if (sessionId != null && sessionStreams.remove(sessionId, this)) {
+                logger.info("Closed MCP SSE stream for session: {}", sessionId);
+            }
+        }
+    }
+}
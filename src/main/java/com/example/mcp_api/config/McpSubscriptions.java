@@ -0,0 +1,196 @@
+package com.example.mcp_api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.example.mcp_api.service.CallbackStatusEvent;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * resources/subscribe registry: MCP sessions by resource URI.
+ * When a call or SMS callback is persisted, subscribers of the matching dynamic resource get
+ * notifications/resources/updated on their GET /mcp stream, so agents no longer need to poll.
+ * Each subscription remembers the account (user id) that made it and is only notified of that account's
+ * records. Subscriptions are capped in total and per session, and those of sessions that expired or have
+ * had no stream for the idle TTL are swept. Notifications are sent after the callback is committed, on a
+ * small pool of their own rather than on the webhook thread.
+ */
+@Component
+public class McpSubscriptions {
+
+    static final String CALL_RESOURCE_PREFIX = "exotel://calls/";
+    static final String SMS_RESOURCE_PREFIX = "exotel://sms/";
+
+    private static final Logger logger = LoggerFactory.getLogger(McpSubscriptions.class);
+
+    // URI -> (session id -> user id of the subscriber); the inner maps are read without the lock
+    private final Map<String, Map<String, String>> sessionsByUri = new ConcurrentHashMap<>();
+    // Guarded by this, together with the structure of sessionsByUri
+    private final Map<String, SessionSubscriptions> bySession = new ConcurrentHashMap<>();
+    private int count;
+
+    private final McpSseStreams sseStreams;
+    private final McpSessionTokens sessionTokens;
+    private final int maxSubscriptions;
+    private final int maxPerSession;
+    private final long idleTtlMillis;
+    private final ThreadPoolExecutor notifier;
+    private final ScheduledExecutorService sweeper;
+
+    public McpSubscriptions(McpSseStreams sseStreams,
+                            McpSessionTokens sessionTokens,
+                            @Value("${mcp.subscriptions.max:10000}") int maxSubscriptions,
+                            @Value("${mcp.subscriptions.max-per-session:100}") int maxPerSession,
+                            @Value("${mcp.subscriptions.idle-ttl:30m}") Duration idleTtl) {
+        this.sseStreams = sseStreams;
+        this.sessionTokens = sessionTokens;
+        this.maxSubscriptions = maxSubscriptions;
+        this.maxPerSession = maxPerSession;
+        this.idleTtlMillis = idleTtl.toMillis();
+        this.notifier = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1000), runnable -> {
+            Thread thread = new Thread(runnable, "mcp-subscription-notifier");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mcp-subscription-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepInterval = Math.max(1000, idleTtlMillis / 2);
+        sweeper.scheduleAtFixedRate(this::sweep, sweepInterval, sweepInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Subscribe a session, on behalf of the user id that owns the resource
+     * Returns false if the session or the server is at its subscription cap
+     */
+    public synchronized boolean subscribe(String sessionId, String userId, String uri) {
+        SessionSubscriptions session = bySession.computeIfAbsent(sessionId, key -> new SessionSubscriptions());
+        session.lastActive = System.currentTimeMillis();
+        if (!session.uris.contains(uri)) {
+            if (session.uris.size() >= maxPerSession || count >= maxSubscriptions) {
+                if (session.uris.isEmpty()) {
+                    bySession.remove(sessionId);
+                }
+                logger.warn("Subscription cap reached, session {} not subscribed to {}", sessionId, uri);
+                return false;
+            }
+            session.uris.add(uri);
+            count++;
+        }
+        sessionsByUri.computeIfAbsent(uri, key -> new ConcurrentHashMap<>()).put(sessionId, userId);
+        logger.info("Session {} subscribed to {}", sessionId, uri);
+        return true;
+    }
+
+    public synchronized void unsubscribe(String sessionId, String uri) {
+        SessionSubscriptions session = bySession.get(sessionId);
+        if (session == null || !session.uris.remove(uri)) {
+            return;
+        }
+        count--;
+        if (session.uris.isEmpty()) {
+            bySession.remove(sessionId);
+        }
+        Map<String, String> sessions = sessionsByUri.get(uri);
+        if (sessions != null) {
+            sessions.remove(sessionId);
+            if (sessions.isEmpty()) {
+                sessionsByUri.remove(uri);
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    // Runs once the callback is committed (or right away when it was saved outside a transaction)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCallbackStatus(CallbackStatusEvent event) {
+        String prefix = event.kind() == CallbackStatusEvent.Kind.CALL ? CALL_RESOURCE_PREFIX : SMS_RESOURCE_PREFIX;
+        String uri = prefix + event.sid();
+        if (!sessionsByUri.containsKey(uri)) {
+            return;
+        }
+        try {
+            notifier.execute(() -> notifyUpdated(uri, event.userId()));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Subscription notifications backed up, dropping update for {}", uri);
+        }
+    }
+
+    /**
+     * Push notifications/resources/updated to every session of the user subscribed to the URI
+     * Sessions without an open stream are dropped from the subscription
+     */
+    public void notifyUpdated(String uri, String userId) {
+        Map<String, String> sessions = sessionsByUri.get(uri);
+        if (sessions == null) {
+            return;
+        }
+        Map<String, Object> notification = Map.of(
+            "jsonrpc", "2.0",
+            "method", "notifications/resources/updated",
+            "params", Map.of("uri", uri)
+        );
+        for (Map.Entry<String, String> subscriber : sessions.entrySet()) {
+            String sessionId = subscriber.getKey();
+            if (!subscriber.getValue().equals(userId)) {
+                continue;
+            }
+            if (!sseStreams.sendToSession(sessionId, notification)) {
+                logger.debug("Session {} has no open stream, dropping its subscription to {}", sessionId, uri);
+                unsubscribe(sessionId, uri);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+        notifier.shutdownNow();
+    }
+
+    // Drop the subscriptions of sessions whose token expired, or that have had no stream for the idle TTL
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, SessionSubscriptions> entry : bySession.entrySet()) {
+            String sessionId = entry.getKey();
+            SessionSubscriptions session = entry.getValue();
+            if (sseStreams.hasSessionStream(sessionId)) {
+                session.lastActive = now;
+            }
+            if (sessionTokens.open(sessionId) == null || now - session.lastActive > idleTtlMillis) {
+                List<String> uris;
+                synchronized (this) {
+                    uris = List.copyOf(session.uris);
+                }
+                uris.forEach(uri -> unsubscribe(sessionId, uri));
+                logger.debug("Dropped {} subscriptions of expired or idle session {}", uris.size(), sessionId);
+            }
+        }
+    }
+
+    private static final class SessionSubscriptions {
+
+        private final Set<String> uris = new HashSet<>();
+        private volatile long lastActive;
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.mcp_api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.example.mcp_api.service.AuthDataCache;
+import com.example.mcp_api.service.ToolInvocationContext;
+
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * Execution engine for tool calls coming in over MCP and the REST endpoints.
+ * In "async" mode tool calls run off the Tomcat worker thread (on virtual threads when the JVM
+ * provides them, otherwise on a bounded pool) so slow Exotel I/O does not hold container threads.
+ * Every call, in either mode, counts against a per-tenant and a global in-flight cap.
+ * When the bounded pool and its queue are full the call is rejected with TenantLimitExceededException,
+ * the same 429 the caps give, rather than being run on the Tomcat thread.
+ * The caller's request attributes and tool invocation context are propagated so tools still see
+ * the Authorization header and can report progress.
+ */
+@Component
+public class McpToolExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(McpToolExecutor.class);
+
+    private final ThreadPoolTaskExecutor pool;
+    private final ExecutorService virtualThreads;
+    private final Executor executor;
+    private final boolean asyncMode;
+
+    // In-flight caps: per tenant and for the whole server. Tenants are keyed by a hash of their credentials,
+    // and a tenant's count is removed as soon as it drops to zero
+    private final Map<Long, Integer> tenantInFlight = new ConcurrentHashMap<>();
+    private final int maxInFlightPerTenant;
+    private final Semaphore globalPermits;
+
+    public McpToolExecutor(@Value("${mcp.tools.executor.core-size:8}") int coreSize,
+                           @Value("${mcp.tools.executor.max-size:32}") int maxSize,
+                           @Value("${mcp.tools.executor.queue-capacity:200}") int queueCapacity,
+                           @Value("${mcp.execution.mode:inline}") String executionMode,
+                           @Value("${mcp.execution.virtual-threads:true}") boolean useVirtualThreads,
+                           @Value("${mcp.execution.max-in-flight-per-tenant:50}") int maxInFlightPerTenant,
+                           @Value("${mcp.execution.max-in-flight:2000}") int maxInFlight) {
+        this.pool = new ThreadPoolTaskExecutor();
+        pool.setCorePoolSize(coreSize);
+        pool.setMaxPoolSize(maxSize);
+        pool.setQueueCapacity(queueCapacity);
+        pool.setThreadNamePrefix("mcp-tool-");
+        pool.setTaskDecorator(McpToolExecutor::propagateRequestContext);
+        pool.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        pool.initialize();
+
+        this.virtualThreads = useVirtualThreads ? createVirtualThreadExecutor() : null;
+        this.executor = virtualThreads != null
+            ? task -> virtualThreads.execute(propagateRequestContext(task))
+            : pool;
+        this.asyncMode = "async".equalsIgnoreCase(executionMode);
+        this.maxInFlightPerTenant = maxInFlightPerTenant;
+        this.globalPermits = new Semaphore(maxInFlight);
+
+        logger.info("MCP tool executor initialized: mode={}, threads={}, core={}, max={}, queue={}, perTenant={}, global={}",
+                    asyncMode ? "async" : "inline", virtualThreads != null ? "virtual" : "pool",
+                    coreSize, maxSize, queueCapacity, maxInFlightPerTenant, maxInFlight);
+    }
+
+    /**
+     * Whether tool calls are taken off the request thread
+     */
+    public boolean isAsyncMode() {
+        return asyncMode;
+    }
+
+    /**
+     * Run a tool call for a tenant: off the request thread in async mode, on the caller otherwise.
+     * Fails with TenantLimitExceededException when the tenant is at its in-flight cap.
+     */
+    public <T> CompletableFuture<T> execute(String tenantKey, Supplier<T> task) {
+        if (asyncMode) {
+            return submit(tenantKey, task);
+        }
+        long tenant;
+        try {
+            tenant = acquire(tenantKey);
+        } catch (TenantLimitExceededException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        try {
+            return CompletableFuture.completedFuture(task.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            release(tenant);
+        }
+    }
+
+    /**
+     * Always run a tool call off the request thread (batches and streamed calls), subject to the same caps
+     */
+    public <T> CompletableFuture<T> submit(String tenantKey, Supplier<T> task) {
+        long tenant;
+        try {
+            tenant = acquire(tenantKey);
+        } catch (TenantLimitExceededException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            release(tenant);
+            return CompletableFuture.failedFuture(
+                new TenantLimitExceededException("Tool executor is saturated, please retry shortly"));
+        } catch (RuntimeException e) {
+            release(tenant);
+            throw e;
+        }
+        return future.whenComplete((result, error) -> release(tenant));
+    }
+
+    /**
+     * Start a non-blocking call on the caller's thread, subject to the same caps
+     * The in-flight slot is held until the returned future completes, no thread waits for it
+     */
+    public <T> CompletableFuture<T> executeAsync(String tenantKey, Supplier<CompletableFuture<T>> task) {
+        long tenant;
+        try {
+            tenant = acquire(tenantKey);
+        } catch (TenantLimitExceededException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> future;
+        try {
+            future = task.get();
+        } catch (RuntimeException e) {
+            release(tenant);
+            return CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, error) -> release(tenant));
+    }
+
+    /**
+     * Executor for the rest of a non-blocking tool call once Exotel has answered (persisting initial callbacks,
+     * progress notifications), so that blocking work runs on the tool threads rather than on the HTTP client's
+     * I/O threads or the common pool. The call still holds its in-flight permits, which bound this work too.
+     * Exotel has already accepted the request by then, so when the pool is saturated the continuation runs on
+     * the completing thread instead of failing the call.
+     */
+    public Executor continuationExecutor() {
+        return task -> {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.run();
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+        if (virtualThreads != null) {
+            virtualThreads.shutdown();
+        }
+    }
+
+    private long acquire(String tenantKey) {
+        if (!globalPermits.tryAcquire()) {
+            throw new TenantLimitExceededException("Server is at its limit of concurrent tool calls, please retry shortly");
+        }
+        long tenant = AuthDataCache.hash(tenantKey != null ? tenantKey : "anonymous");
+        boolean[] admitted = new boolean[1];
+        tenantInFlight.compute(tenant, (key, inFlight) -> {
+            int count = inFlight != null ? inFlight : 0;
+            if (count >= maxInFlightPerTenant) {
+                return inFlight;
+            }
+            admitted[0] = true;
+            return count + 1;
+        });
+        if (!admitted[0]) {
+            globalPermits.release();
+            throw new TenantLimitExceededException("Too many concurrent tool calls for this account (limit "
+                                                   + maxInFlightPerTenant + "), please retry shortly");
+        }
+        return tenant;
+    }
+
+    private void release(long tenant) {
+        tenantInFlight.computeIfPresent(tenant, (key, inFlight) -> inFlight > 1 ? inFlight - 1 : null);
+        globalPermits.release();
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() exists from Java 21; looked up reflectively so we still run on 17
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            logger.info("Virtual threads not available on Java {}, using the bounded tool pool",
+                        System.getProperty("java.specification.version"));
+            return null;
+        }
+    }
+
+    // Carry the submitting thread's request attributes and invocation context over to the worker thread
+    private static Runnable propagateRequestContext(Runnable task) {
+        RequestAttributes callerAttributes = RequestContextHolder.getRequestAttributes();
+        Runnable contextualTask = ToolInvocationContext.current().wrap(task);
+        return () -> {
+            RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+            RequestContextHolder.setRequestAttributes(callerAttributes);
+            try {
+                contextualTask.run();
+            } finally {
+                // Restore rather than clear, so a reused worker thread is left as it was found
+                RequestContextHolder.setRequestAttributes(previous);
+            }
+        };
+    }
+}
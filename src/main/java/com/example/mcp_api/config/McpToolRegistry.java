@@ -0,0 +1,264 @@
+package com.example.mcp_api.config;
+
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.example.mcp_api.service.ExotelService;
+import com.example.mcp_api.service.QuickAudioService;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Immutable registry of the @Tool methods exposed on the /mcp endpoint.
+ * Services are scanned once at startup; each tool is bound to a pre-built MethodHandle
+ * and one ObjectReader per parameter, so a tools/call is a single map lookup and its
+ * arguments are bound straight from the JSON tokens to the parameter types.
+ * A tool that returns a CompletableFuture, or has a public xxxAsync companion with the same parameters
+ * that does, is also bound to that non-blocking form, so tools/call can run it without parking a thread.
+ */
+@Component
+public class McpToolRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(McpToolRegistry.class);
+
+    private final Map<String, ToolBinding> bindings;
+
+    public McpToolRegistry(ExotelService exotelService, QuickAudioService quickAudioService,
+                           ObjectMapper objectMapper) {
+        Map<String, ToolBinding> registry = new LinkedHashMap<>();
+
+        // Same services the tools/list and tools/call handlers expose
+        Object[] services = {exotelService, quickAudioService};
+
+        for (Object service : services) {
+            for (Method method : ClassUtils.getUserClass(service).getDeclaredMethods()) {
+                Tool toolAnnotation = method.getAnnotation(Tool.class);
+                if (toolAnnotation != null) {
+                    registry.putIfAbsent(toolAnnotation.name(), ToolBinding.create(service, method, toolAnnotation, objectMapper));
+                }
+            }
+        }
+
+        this.bindings = Collections.unmodifiableMap(registry);
+        logger.info("MCP tool registry initialized with {} tools: {}", bindings.size(), bindings.keySet());
+    }
+
+    /**
+     * Look up a tool by name, returns null if no such tool is registered
+     */
+    public ToolBinding find(String toolName) {
+        return toolName != null ? bindings.get(toolName) : null;
+    }
+
+    /**
+     * All registered tools in discovery order
+     */
+    public Collection<ToolBinding> tools() {
+        return bindings.values();
+    }
+
+    /**
+     * Reads one tool argument from the parser (positioned on the value) into the parameter's type
+     */
+    @FunctionalInterface
+    interface ArgumentReader {
+        Object read(JsonParser parser) throws IOException;
+    }
+
+    /**
+     * A single tool: its metadata plus the pre-bound invoker used for dispatch
+     */
+    public static final class ToolBinding {
+
+        private final String name;
+        private final String description;
+        private final Method method;
+        private final String[] parameterNames;
+        private final Map<String, Integer> parameterIndex;
+        private final ArgumentReader[] readers;
+        private final MethodHandle invoker;
+        // Same shape, for the form returning a CompletableFuture; null for tools that only have a blocking form
+        private final MethodHandle asyncInvoker;
+
+        private ToolBinding(String name, String description, Method method, String[] parameterNames,
+                            ArgumentReader[] readers, MethodHandle invoker, MethodHandle asyncInvoker) {
+            this.name = name;
+            this.description = description;
+            this.method = method;
+            this.parameterNames = parameterNames;
+            this.readers = readers;
+            this.invoker = invoker;
+            this.asyncInvoker = asyncInvoker;
+
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < parameterNames.length; i++) {
+                index.put(parameterNames[i], i);
+            }
+            this.parameterIndex = Collections.unmodifiableMap(index);
+        }
+
+        static ToolBinding create(Object service, Method method, Tool toolAnnotation, ObjectMapper objectMapper) {
+            Parameter[] parameters = method.getParameters();
+            String[] parameterNames = new String[parameters.length];
+            ArgumentReader[] readers = new ArgumentReader[parameters.length];
+
+            for (int i = 0; i < parameters.length; i++) {
+                parameterNames[i] = parameters[i].getName();
+                readers[i] = readerFor(objectMapper, objectMapper.constructType(parameters[i].getParameterizedType()));
+            }
+
+            try {
+                MethodHandle invoker = bind(service, method);
+                Method asyncMethod = asyncForm(service, method);
+                MethodHandle asyncInvoker = asyncMethod != null ? bind(service, asyncMethod) : null;
+
+                return new ToolBinding(toolAnnotation.name(), toolAnnotation.description(), method,
+                                       parameterNames, readers, invoker, asyncInvoker);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot bind tool method " + method, e);
+            }
+        }
+
+        // (Object[]) -> Object, receiver already bound, so dispatch is a single invokeExact
+        private static MethodHandle bind(Object service, Method method) throws IllegalAccessException {
+            return MethodHandles.publicLookup()
+                .unreflect(method)
+                .bindTo(service)
+                .asSpreader(Object[].class, method.getParameterCount())
+                .asType(MethodType.methodType(Object.class, Object[].class));
+        }
+
+        // The tool method itself if it returns a CompletableFuture, else its public xxxAsync companion if it has one
+        private static Method asyncForm(Object service, Method method) {
+            if (CompletableFuture.class.isAssignableFrom(method.getReturnType())) {
+                return method;
+            }
+            try {
+                Method companion = ClassUtils.getUserClass(service).getMethod(method.getName() + "Async", method.getParameterTypes());
+                return CompletableFuture.class.isAssignableFrom(companion.getReturnType()) ? companion : null;
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public String description() {
+            return description;
+        }
+
+        public List<String> parameterNames() {
+            return Arrays.asList(parameterNames);
+        }
+
+        public Parameter[] parameters() {
+            return method.getParameters();
+        }
+
+        /**
+         * Whether the tool has a non-blocking form, to be run with invokeAsync
+         */
+        public boolean isAsync() {
+            return asyncInvoker != null;
+        }
+
+        /**
+         * Bind the arguments object straight from the parser and invoke the tool method
+         * The parser may be null (no arguments); unknown argument names are skipped
+         * A tool whose method itself is non-blocking is waited for
+         */
+        public Object invoke(JsonParser arguments) throws Exception {
+            Object result = call(invoker, bindArguments(arguments));
+            return result instanceof CompletableFuture<?> future ? future.join() : result;
+        }
+
+        /**
+         * Bind the arguments as invoke does and start the non-blocking form of the tool
+         * Only for tools where isAsync() holds; binding errors are thrown, failures of the call complete the future
+         */
+        @SuppressWarnings("unchecked")
+        public CompletableFuture<Object> invokeAsync(JsonParser arguments) throws Exception {
+            if (asyncInvoker == null) {
+                throw new IllegalStateException("Tool " + name + " has no non-blocking form");
+            }
+            return (CompletableFuture<Object>) call(asyncInvoker, bindArguments(arguments));
+        }
+
+        private Object[] bindArguments(JsonParser arguments) throws IOException {
+            Object[] methodArgs = new Object[readers.length];
+
+            if (arguments != null) {
+                JsonToken token = arguments.currentToken() != null ? arguments.currentToken() : arguments.nextToken();
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("arguments must be a JSON object");
+                }
+                while (arguments.nextToken() == JsonToken.FIELD_NAME) {
+                    Integer index = parameterIndex.get(arguments.currentName());
+                    arguments.nextToken();
+                    if (index != null) {
+                        methodArgs[index] = readers[index].read(arguments);
+                    } else {
+                        arguments.skipChildren();
+                    }
+                }
+            }
+            return methodArgs;
+        }
+
+        private static Object call(MethodHandle handle, Object[] methodArgs) throws Exception {
+            try {
+                return (Object) handle.invokeExact(methodArgs);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+
+        // Resolve the reader once per parameter instead of on every call
+        // Keeps the lenient inputs clients already send: "a,b" for lists, non-objects for maps
+        private static ArgumentReader readerFor(ObjectMapper objectMapper, JavaType type) {
+            ObjectReader reader = objectMapper.readerFor(type);
+            if (type.isCollectionLikeType()) {
+                return parser -> {
+                    if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                        return objectMapper.convertValue(Arrays.asList(parser.getText().split(",")), type);
+                    }
+                    return reader.readValue(parser);
+                };
+            } else if (type.isMapLikeType()) {
+                return parser -> {
+                    if (parser.currentToken() != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        return new HashMap<>();
+                    }
+                    return reader.readValue(parser);
+                };
+            } else {
+                return reader::readValue;
+            }
+        }
+    }
+}
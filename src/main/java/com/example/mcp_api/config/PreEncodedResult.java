@@ -0,0 +1,208 @@
+package com.example.mcp_api.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * A JSON-RPC result serialized once into an immutable byte array, plus its ETag.
+ * Only the small jsonrpc/id envelope is written per request, the result bytes are copied as-is.
+ * Compressed results also keep the deflated envelope up to the result, so a gzip response only
+ * appends the id as a small stored block and finishes the CRC per request.
+ */
+final class PreEncodedResult {
+
+    private static final byte[] ENVELOPE_START = "{\"jsonrpc\":\"2.0\",\"id\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] RESULT_FIELD = ",\"result\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ENVELOPE_END = "}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ENVELOPE_START_WITHOUT_ID = "{\"jsonrpc\":\"2.0\",\"result\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ID_FIELD = ",\"id\":".getBytes(StandardCharsets.UTF_8);
+
+    // Fixed gzip member header: deflate, no flags, no mtime, unknown OS
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int MAX_STORED_BLOCK = 0xffff;
+    private static final int[] CRC_TABLE = crcTable();
+
+    private final byte[] resultJson;
+    private final RawValue rawValue;
+    private final String eTag;
+    private final byte[] deflatedBody;
+    private final int deflatedBodyCrc;
+    private final int deflatedBodyLength;
+
+    private PreEncodedResult(byte[] resultJson, boolean compress) {
+        this.resultJson = resultJson;
+        this.deflatedBody = compress ? deflateBody(resultJson) : null;
+        this.deflatedBodyLength = ENVELOPE_START_WITHOUT_ID.length + resultJson.length;
+        CRC32 crc = new CRC32();
+        if (compress) {
+            crc.update(ENVELOPE_START_WITHOUT_ID);
+            crc.update(resultJson);
+        }
+        this.deflatedBodyCrc = (int) crc.getValue();
+        this.rawValue = new RawValue(new String(resultJson, StandardCharsets.UTF_8));
+        // Weak ETag: the id in the envelope differs per request, the result does not
+        this.eTag = "W/\"" + DigestUtils.md5DigestAsHex(resultJson) + "\"";
+    }
+
+    static PreEncodedResult of(ObjectMapper objectMapper, Object result) throws JsonProcessingException {
+        return new PreEncodedResult(objectMapper.writeValueAsBytes(result), false);
+    }
+
+    /**
+     * Pre-encoded result that additionally keeps its gzip-compressed form
+     */
+    static PreEncodedResult compressed(ObjectMapper objectMapper, Object result) throws JsonProcessingException {
+        return new PreEncodedResult(objectMapper.writeValueAsBytes(result), true);
+    }
+
+    boolean isCompressed() {
+        return deflatedBody != null;
+    }
+
+    String eTag() {
+        return eTag;
+    }
+
+    /**
+     * Raw JSON value for embedding the result in a Map-based response without re-serializing it
+     */
+    RawValue rawValue() {
+        return rawValue;
+    }
+
+    /**
+     * Check an If-None-Match header against this result using weak comparison
+     * "*" does not match: it only says the client has some representation, not this one
+     */
+    boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        String opaqueTag = stripWeakPrefix(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (stripWeakPrefix(tag).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int envelopeLength(byte[] idJson) {
+        return ENVELOPE_START.length + idJson.length + RESULT_FIELD.length + resultJson.length + ENVELOPE_END.length;
+    }
+
+    /**
+     * Write the full JSON-RPC response for the given (already serialized) id
+     */
+    void writeEnvelope(OutputStream out, byte[] idJson) throws IOException {
+        out.write(ENVELOPE_START);
+        out.write(idJson);
+        out.write(RESULT_FIELD);
+        out.write(resultJson);
+        out.write(ENVELOPE_END);
+    }
+
+    /**
+     * The full JSON-RPC response for the given id as a gzip stream
+     * The id goes last ({"jsonrpc","result","id"}) so only the tail differs per request
+     */
+    byte[] gzipEnvelope(byte[] idJson) {
+        int tailLength = ID_FIELD.length + idJson.length + ENVELOPE_END.length;
+        byte[] tail = new byte[tailLength];
+        System.arraycopy(ID_FIELD, 0, tail, 0, ID_FIELD.length);
+        System.arraycopy(idJson, 0, tail, ID_FIELD.length, idJson.length);
+        System.arraycopy(ENVELOPE_END, 0, tail, ID_FIELD.length + idJson.length, ENVELOPE_END.length);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(GZIP_HEADER.length + deflatedBody.length + tailLength + 32);
+        out.writeBytes(GZIP_HEADER);
+        out.writeBytes(deflatedBody);
+        writeStoredBlocks(out, tail);
+        writeIntLE(out, crc32(deflatedBodyCrc, tail));
+        writeIntLE(out, deflatedBodyLength + tailLength);
+        return out.toByteArray();
+    }
+
+    // Compress "{"jsonrpc":"2.0","result":<result>" once, sync-flushed so the stream ends on a byte boundary
+    private static byte[] deflateBody(byte[] resultJson) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(concat(ENVELOPE_START_WITHOUT_ID, resultJson));
+            ByteArrayOutputStream out = new ByteArrayOutputStream(resultJson.length / 2 + 64);
+            byte[] buffer = new byte[8192];
+            int written;
+            do {
+                written = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                out.write(buffer, 0, written);
+            } while (written == buffer.length || !deflater.needsInput());
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    // Uncompressed (stored) deflate blocks, the last one marked final
+    private static void writeStoredBlocks(ByteArrayOutputStream out, byte[] data) {
+        int offset = 0;
+        do {
+            int length = Math.min(MAX_STORED_BLOCK, data.length - offset);
+            boolean last = offset + length == data.length;
+            out.write(last ? 1 : 0);
+            writeShortLE(out, length);
+            writeShortLE(out, ~length & 0xffff);
+            out.write(data, offset, length);
+            offset += length;
+        } while (offset < data.length);
+    }
+
+    // CRC-32 continued from a previous value (java.util.zip.CRC32 cannot resume from one)
+    private static int crc32(int previous, byte[] data) {
+        int crc = ~previous;
+        for (byte b : data) {
+            crc = CRC_TABLE[(crc ^ b) & 0xff] ^ (crc >>> 8);
+        }
+        return ~crc;
+    }
+
+    private static int[] crcTable() {
+        int[] table = new int[256];
+        for (int n = 0; n < 256; n++) {
+            int c = n;
+            for (int k = 0; k < 8; k++) {
+                c = (c & 1) != 0 ? 0xedb88320 ^ (c >>> 1) : c >>> 1;
+            }
+            table[n] = c;
+        }
+        return table;
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] joined = new byte[first.length + second.length];
+        System.arraycopy(first, 0, joined, 0, first.length);
+        System.arraycopy(second, 0, joined, first.length, second.length);
+        return joined;
+    }
+
+    private static void writeShortLE(ByteArrayOutputStream out, int value) {
+        out.write(value & 0xff);
+        out.write((value >>> 8) & 0xff);
+    }
+
+    private static void writeIntLE(ByteArrayOutputStream out, int value) {
+        writeShortLE(out, value & 0xffff);
+        writeShortLE(out, (value >>> 16) & 0xffff);
+    }
+
+    private static String stripWeakPrefix(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
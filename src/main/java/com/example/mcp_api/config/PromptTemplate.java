@@ -0,0 +1,171 @@
+package com.example.mcp_api.config;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A prompt text compiled once into a segment tree of literals, {{variable}} references
+ * and {{#if variable}}...{{/if}} blocks, rendered in a single pass.
+ * Variables without an argument are kept as written, like the original string replacement did.
+ */
+final class PromptTemplate {
+
+    private static final int MAX_RETAINED_BUILDER = 8192;
+
+    // Render buffer reused per thread; prompts are small so this stays bounded
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    private final String source;
+    private final Segment[] segments;
+
+    private PromptTemplate(String source, Segment[] segments) {
+        this.source = source;
+        this.segments = segments;
+    }
+
+    static PromptTemplate compile(String source) {
+        Deque<IfBlock> openBlocks = new ArrayDeque<>();
+        List<Segment> current = new ArrayList<>();
+        int position = 0;
+
+        while (position < source.length()) {
+            int tagStart = source.indexOf("{{", position);
+            int tagEnd = tagStart >= 0 ? source.indexOf("}}", tagStart + 2) : -1;
+            if (tagStart < 0 || tagEnd < 0) {
+                current.add(new Literal(source.substring(position)));
+                break;
+            }
+            if (tagStart > position) {
+                current.add(new Literal(source.substring(position, tagStart)));
+            }
+
+            String tag = source.substring(tagStart + 2, tagEnd);
+            String rawTag = source.substring(tagStart, tagEnd + 2);
+            if (tag.startsWith("#if ")) {
+                IfBlock block = new IfBlock(tag.substring(4).trim(), rawTag, current);
+                openBlocks.push(block);
+                current = block.body;
+            } else if (tag.equals("/if") && !openBlocks.isEmpty()) {
+                IfBlock block = openBlocks.pop();
+                block.close();
+                current = block.parent;
+                current.add(block);
+            } else {
+                current.add(new Variable(tag, rawTag));
+            }
+            position = tagEnd + 2;
+        }
+
+        // An {{#if}} without {{/if}} is not a block, emit it as written
+        while (!openBlocks.isEmpty()) {
+            IfBlock block = openBlocks.pop();
+            current = block.parent;
+            current.add(new Literal(block.rawTag));
+            current.addAll(block.body);
+        }
+
+        return new PromptTemplate(source, current.toArray(new Segment[0]));
+    }
+
+    String source() {
+        return source;
+    }
+
+    String render(Map<String, ?> arguments) {
+        StringBuilder out = BUILDER.get();
+        out.setLength(0);
+        renderAll(segments, out, arguments);
+        String rendered = out.toString();
+        if (out.capacity() > MAX_RETAINED_BUILDER) {
+            BUILDER.remove();
+        }
+        return rendered;
+    }
+
+    private static void renderAll(Segment[] segments, StringBuilder out, Map<String, ?> arguments) {
+        for (Segment segment : segments) {
+            segment.render(out, arguments);
+        }
+    }
+
+    // Same truthiness as the original template handling
+    private static boolean isTruthy(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof String) {
+            return !((String) value).isEmpty() && !((String) value).equalsIgnoreCase("false");
+        }
+        return true;
+    }
+
+    private interface Segment {
+        void render(StringBuilder out, Map<String, ?> arguments);
+    }
+
+    private static final class Literal implements Segment {
+        private final String text;
+
+        Literal(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void render(StringBuilder out, Map<String, ?> arguments) {
+            out.append(text);
+        }
+    }
+
+    private static final class Variable implements Segment {
+        private final String name;
+        private final String rawTag;
+
+        Variable(String name, String rawTag) {
+            this.name = name;
+            this.rawTag = rawTag;
+        }
+
+        @Override
+        public void render(StringBuilder out, Map<String, ?> arguments) {
+            if (!arguments.containsKey(name)) {
+                out.append(rawTag);
+                return;
+            }
+            Object value = arguments.get(name);
+            if (value != null) {
+                out.append(value);
+            }
+        }
+    }
+
+    private static final class IfBlock implements Segment {
+        private final String variable;
+        private final String rawTag;
+        private final List<Segment> parent;
+        private final List<Segment> body = new ArrayList<>();
+        private Segment[] segments;
+
+        IfBlock(String variable, String rawTag, List<Segment> parent) {
+            this.variable = variable;
+            this.rawTag = rawTag;
+            this.parent = parent;
+        }
+
+        void close() {
+            segments = body.toArray(new Segment[0]);
+        }
+
+        @Override
+        public void render(StringBuilder out, Map<String, ?> arguments) {
+            if (isTruthy(arguments.get(variable))) {
+                renderAll(segments, out, arguments);
+            }
+        }
+    }
+}
@@ -9,15 +9,29 @@ import org.springframework.web.servlet.function.RequestPredicates;
 import org.springframework.web.servlet.function.RouterFunctions;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
-import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.CacheControl;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import jakarta.annotation.PostConstruct;
+import com.example.mcp_api.service.AuthDataCache;
+import com.example.mcp_api.service.CancellationToken;
+import com.example.mcp_api.service.ToolInvocationContext;
 
-import java.lang.reflect.Method;
+import java.io.IOException;
 import java.lang.reflect.Parameter;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 /**
  * Configuration class for Streamable HTTP transport
@@ -26,7 +40,7 @@ import java.util.ArrayList;
 @Configuration
 public class StreamableHttpConfig {
 
-
+    static final String MCP_SESSION_ID_HEADER = "Mcp-Session-Id";
     
     @Autowired
     private com.example.mcp_api.service.ExotelService exotelService;
@@ -37,6 +51,58 @@ public class StreamableHttpConfig {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private McpToolRegistry toolRegistry;
+
+    @Autowired
+    private McpToolExecutor toolExecutor;
+
+    @Autowired
+    private McpSseStreams sseStreams;
+
+    @Autowired
+    private McpInFlightRequests inFlightRequests;
+
+    @Autowired
+    private McpSubscriptions subscriptions;
+    
+    @Autowired
+    private McpSessionTokens sessionTokens;
+
+    @Value("${mcp.batch.max-size:50}")
+    private int maxBatchSize;
+
+    @Value("${mcp.resources.page-size:50}")
+    private int resourcesPageSize;
+
+    // Streaming JSON-RPC envelope reader, created with the context's ObjectMapper
+    private JsonRpcReader jsonRpcReader;
+
+    // List results serialized once at startup and served as raw bytes with an ETag
+    private PreEncodedResult toolsListResult;
+    private PreEncodedResult promptsListResult;
+
+    // Resource documents and resources/list pages, built once (documents kept gzip-compressed)
+    private McpResourceStore resourceStore;
+
+    // prompts/get definitions with their templates compiled at startup, by prompt name
+    private Map<String, CompiledPrompt> compiledPrompts;
+
+    /**
+     * Build and serialize the static tools/prompts/resources lists and resource documents once
+     */
+    @PostConstruct
+    void precomputeListResults() throws JsonProcessingException {
+        jsonRpcReader = new JsonRpcReader(objectMapper);
+        toolsListResult = PreEncodedResult.of(objectMapper, buildToolsListResult());
+        Map<String, Object> promptsList = buildPromptsListResult();
+        promptsListResult = PreEncodedResult.of(objectMapper, promptsList);
+        compiledPrompts = compilePrompts(promptsList);
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> resources = (List<Map<String, Object>>) buildResourcesListResult().get("resources");
+        resourceStore = McpResourceStore.build(objectMapper, resources, this::getResourceContent, resourcesPageSize);
+    }
+
     /**
      * Router function for Streamable HTTP MCP endpoint
      * Handles both GET (SSE establishment) and POST (request/response) requests
@@ -45,7 +111,7 @@ public class StreamableHttpConfig {
     public RouterFunction<ServerResponse> mcpStreamableRoutes() {
         return RouterFunctions
             .route(RequestPredicates.POST("/mcp")
-                .and(RequestPredicates.accept(MediaType.APPLICATION_JSON)), 
+                .and(RequestPredicates.accept(MediaType.APPLICATION_JSON, MediaType.TEXT_EVENT_STREAM)), 
                 this::handleMcpPost)
             .andRoute(RequestPredicates.GET("/mcp"), 
                 this::handleMcpGet);
@@ -57,21 +123,60 @@ public class StreamableHttpConfig {
      */
     private ServerResponse handleMcpPost(org.springframework.web.servlet.function.ServerRequest request) {
         try {
-            // Parse the JSON-RPC request as generic Map
-            @SuppressWarnings("unchecked")
-            Map<String, Object> mcpRequest = request.body(Map.class);
+            // Stream-parse the JSON-RPC payload: a single message or a batch
+            JsonRpcReader.Payload payload = jsonRpcReader.read(request.servletRequest().getInputStream());
+            if (payload.batch()) {
+                return handleMcpBatch(request, payload.messages());
+            }
             
-            // Process the request using the MCP server
-            Map<String, Object> response = processMcpRequest(mcpRequest);
+            JsonRpcRequest mcpRequest = payload.messages().get(0);
+            String method = mcpRequest.method();
+            
+            if ("notifications/cancelled".equals(method)) {
+                if (requestScope(request) == null) {
+                    // Request ids of anonymous, sessionless clients are not theirs alone to cancel
+                    return ServerResponse.badRequest()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(createErrorResponse("notifications/cancelled requires an " + MCP_SESSION_ID_HEADER
+                                                  + " header or credentials"));
+                }
+                cancelRequest(request, mcpRequest);
+                return ServerResponse.accepted().build();
+            }
+            
+            // Static lists and resource documents are answered straight from their pre-encoded bytes
+            PreEncodedResult preEncoded = findPreEncodedResult(mcpRequest);
+            if (preEncoded != null) {
+                return preEncodedResponse(request, mcpRequest.id(), preEncoded, "resources/read".equals(method));
+            }
             
             // Check if client accepts SSE for streaming responses
             String acceptHeader = request.headers().firstHeader(HttpHeaders.ACCEPT);
             boolean acceptsSSE = acceptHeader != null && acceptHeader.contains("text/event-stream");
             
-            // For now, return JSON response (can be enhanced for SSE streaming)
-            return ServerResponse.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(response);
+            // Tool calls are streamed (progress notifications, then the result) when the client accepts SSE
+            if (acceptsSSE && "tools/call".equals(method)) {
+                return handleToolCallStream(request, mcpRequest);
+            }
+            
+            // Tool calls go through the execution engine (off the Tomcat thread in async mode)
+            if ("tools/call".equals(method)) {
+                return handleToolCall(request, mcpRequest);
+            }
+            
+            // Process the request using the MCP server
+            Map<String, Object> response = processMcpRequest(mcpRequest, sessionId(request));
+            
+            ServerResponse.BodyBuilder responseBuilder = ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON);
+            if ("initialize".equals(method)) {
+                // New MCP session: the client echoes this id on later requests and on the GET stream
+                // The id is a sealed token carrying the credentials, so any replica can serve the session;
+                // anonymous sessions are sealed too (with none), so every session id in use is one we issued
+                String authHeader = ToolInvocationContext.authHeader();
+                responseBuilder.header(MCP_SESSION_ID_HEADER, sessionTokens.issue(authHeader != null ? authHeader : ""));
+            }
+            return responseBuilder.body(response);
                 
         } catch (Exception e) {
             // Return JSON-RPC error response
@@ -81,17 +186,347 @@ public class StreamableHttpConfig {
         }
     }
 
+    /**
+     * Handle a JSON-RPC batch
+     * tools/call entries run concurrently on the tool executor, everything else inline;
+     * responses are returned in request order and notifications get no response entry
+     */
+    private ServerResponse handleMcpBatch(org.springframework.web.servlet.function.ServerRequest request,
+                                          List<JsonRpcRequest> batch) {
+        if (batch.isEmpty()) {
+            return ServerResponse.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(createErrorResponse("Invalid Request: empty batch"));
+        }
+        if (batch.size() > maxBatchSize) {
+            return ServerResponse.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(createErrorResponse("Invalid Request: batch size " + batch.size() + " exceeds limit of " + maxBatchSize));
+        }
+        
+        List<CompletableFuture<Map<String, Object>>> pending = new ArrayList<>(batch.size());
+        for (JsonRpcRequest message : batch) {
+            if (message == null) {
+                pending.add(CompletableFuture.completedFuture(
+                    createErrorResponse("Invalid Request: batch entries must be JSON objects")));
+                continue;
+            }
+            
+            if ("tools/call".equals(message.method())) {
+                pending.add(runToolCall(request, message, ToolInvocationContext.current(), true)
+                    .exceptionally(e -> createToolCallFailure(message.id(), e)));
+            } else if ("notifications/cancelled".equals(message.method())) {
+                cancelRequest(request, message);
+                pending.add(CompletableFuture.completedFuture(null));
+            } else {
+                pending.add(CompletableFuture.completedFuture(processMcpRequest(message, sessionId(request))));
+            }
+        }
+        
+        // Assemble in request order once every entry is done, without holding the request thread
+        CompletableFuture<ServerResponse> batchResponse = CompletableFuture
+            .allOf(pending.toArray(new CompletableFuture<?>[0]))
+            .thenApply(done -> {
+                List<Map<String, Object>> responses = new ArrayList<>(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    JsonRpcRequest entry = batch.get(i);
+                    if (entry == null || !entry.isNotification()) {
+                        responses.add(pending.get(i).join());
+                    }
+                }
+                
+                if (responses.isEmpty()) {
+                    return ServerResponse.accepted().build();
+                }
+                return ServerResponse.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(responses);
+            });
+        return toServerResponse(batchResponse);
+    }
+
+    /**
+     * Handle a single tools/call through the execution engine
+     */
+    private ServerResponse handleToolCall(org.springframework.web.servlet.function.ServerRequest request,
+                                          JsonRpcRequest mcpRequest) {
+        Object id = mcpRequest.id();
+        CompletableFuture<ServerResponse> response = runToolCall(request, mcpRequest, ToolInvocationContext.current(), false)
+            .exceptionally(e -> createToolCallFailure(id, e))
+            .thenApply(body -> ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body));
+        return toServerResponse(response);
+    }
+
+    /**
+     * Run a tools/call message through the execution engine, answering malformed params with an error response
+     */
+    private CompletableFuture<Map<String, Object>> runToolCall(org.springframework.web.servlet.function.ServerRequest request,
+                                                               JsonRpcRequest message, ToolInvocationContext context,
+                                                               boolean offThread) {
+        ToolCallParams toolCall;
+        try {
+            toolCall = jsonRpcReader.readToolCall(message.params());
+        } catch (IOException e) {
+            return CompletableFuture.completedFuture(createErrorResponse(message.id(), "Processing error: " + e.getMessage()));
+        }
+        return runToolCall(request, message.id(), context, offThread, toolCall);
+    }
+
+    /**
+     * Run a tool call through the execution engine as a cancellable in-flight request
+     * The call runs with the given context plus its cancellation token. A tool with a non-blocking form is started
+     * on this thread and only holds its in-flight slot while Exotel answers; any other tool runs on the executor
+     * (offThread forces a worker thread)
+     */
+    private CompletableFuture<Map<String, Object>> runToolCall(org.springframework.web.servlet.function.ServerRequest request,
+                                                               Object id, ToolInvocationContext context, boolean offThread,
+                                                               ToolCallParams toolCall) {
+        String scope = requestScope(request);
+        CancellationToken token = inFlightRequests.register(scope, id);
+        McpToolRegistry.ToolBinding tool = toolRegistry.find(toolCall.name());
+        CompletableFuture<Map<String, Object>> future = context.withCancellationToken(token).call(() -> {
+            if (tool != null && tool.isAsync()) {
+                return toolExecutor.executeAsync(tenantKey(request), () -> executeToolCallAsync(id, tool, toolCall));
+            }
+            Supplier<Map<String, Object>> call = () -> executeToolCall(id, toolCall);
+            return offThread
+                ? toolExecutor.submit(tenantKey(request), call)
+                : toolExecutor.execute(tenantKey(request), call);
+        });
+        return future.whenComplete((result, error) -> inFlightRequests.complete(scope, id, token));
+    }
+
+    /**
+     * Handle notifications/cancelled: abort the referenced in-flight request of the same client
+     */
+    private void cancelRequest(org.springframework.web.servlet.function.ServerRequest request, JsonRpcRequest notification) {
+        try {
+            Map<?, ?> params = jsonRpcReader.readParamsAsMap(notification.params());
+            String scope = requestScope(request);
+            if (params != null && scope != null) {
+                Object reason = params.get("reason");
+                inFlightRequests.cancel(scope, params.get("requestId"),
+                                        reason != null ? reason.toString() : null);
+            }
+        } catch (IOException e) {
+            // Notifications get no response, a malformed one is simply dropped
+        }
+    }
+
+    /**
+     * Scope of JSON-RPC ids: the MCP session when the client has one, otherwise its credentials
+     * null for a client with neither: its calls cannot be cancelled, nor can it cancel anyone's
+     */
+    private String requestScope(org.springframework.web.servlet.function.ServerRequest request) {
+        String sessionId = sessionId(request);
+        if (sessionId != null) {
+            return sessionId;
+        }
+        String tenantKey = tenantKey(request);
+        return tenantKey != null && !tenantKey.isBlank() ? "auth:" + AuthDataCache.hash(tenantKey) : null;
+    }
+
+    /**
+     * MCP session of the request (Mcp-Session-Id header), null if the client has none
+     */
+    private String sessionId(org.springframework.web.servlet.function.ServerRequest request) {
+        String sessionId = request.headers().firstHeader(MCP_SESSION_ID_HEADER);
+        return sessionId != null && !sessionId.isBlank() ? sessionId : null;
+    }
+
+    /**
+     * Return completed results directly and only fall back to an async (servlet async) response while pending
+     */
+    private ServerResponse toServerResponse(CompletableFuture<ServerResponse> response) {
+        if (response.isDone()) {
+            return response.join();
+        }
+        return ServerResponse.async(response);
+    }
+
+    /**
+     * Tenant key used for per-tenant in-flight limits: the caller's credentials
+     * (from the header, or from the sealed session id when the client only sends that)
+     */
+    private String tenantKey(org.springframework.web.servlet.function.ServerRequest request) {
+        String authHeader = request.headers().firstHeader(HttpHeaders.AUTHORIZATION);
+        return authHeader != null ? authHeader : ToolInvocationContext.authHeader();
+    }
+
+    /**
+     * JSON-RPC error for a tool call that could not be executed (e.g. tenant limit reached)
+     */
+    private Map<String, Object> createToolCallFailure(Object id, Throwable error) {
+        Throwable cause = error instanceof java.util.concurrent.CompletionException && error.getCause() != null
+            ? error.getCause()
+            : error;
+        if (cause instanceof TenantLimitExceededException) {
+            return createErrorResponse(id, cause.getMessage());
+        }
+        return createErrorResponse(id, "Processing error: " + cause.getMessage());
+    }
+
+    /**
+     * Pre-encoded result for the static list methods and stored resources, null for everything else
+     * (including unknown resources and invalid cursors, which take the regular path to get their error)
+     */
+    private PreEncodedResult findPreEncodedResult(JsonRpcRequest mcpRequest) throws IOException {
+        String method = mcpRequest.method();
+        if (method == null) {
+            return null;
+        }
+        switch (method) {
+            case "tools/list":
+                return toolsListResult;
+            case "prompts/list":
+                return promptsListResult;
+            case "resources/list":
+                return resourceStore.page(stringParam(jsonRpcReader.readParamsAsMap(mcpRequest.params()), "cursor"));
+            case "resources/read":
+                return resourceStore.read(stringParam(jsonRpcReader.readParamsAsMap(mcpRequest.params()), "uri"));
+            default:
+                return null;
+        }
+    }
+
+    private static String stringParam(Map<?, ?> params, String name) {
+        Object value = params != null ? params.get(name) : null;
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Write a pre-encoded result directly to the response stream
+     * A resource read answers 304 Not Modified when the client revalidates with its ETag in If-None-Match;
+     * other calls always get their JSON-RPC response, a client that cannot handle an empty 304 never sees one
+     */
+    private ServerResponse preEncodedResponse(org.springframework.web.servlet.function.ServerRequest request,
+                                              Object id, PreEncodedResult preEncoded, boolean revalidate)
+            throws JsonProcessingException {
+        String ifNoneMatch = request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH);
+        if (revalidate && preEncoded.matches(ifNoneMatch)) {
+            return ServerResponse.status(HttpStatus.NOT_MODIFIED)
+                .eTag(preEncoded.eTag())
+                .build();
+        }
+        
+        byte[] idJson = objectMapper.writeValueAsBytes(id);
+        String acceptEncoding = request.headers().firstHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (preEncoded.isCompressed() && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            byte[] gzipped = preEncoded.gzipEnvelope(idJson);
+            return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .eTag(preEncoded.eTag())
+                .cacheControl(CacheControl.noCache())
+                .build((servletRequest, servletResponse) -> {
+                    servletResponse.setContentLength(gzipped.length);
+                    servletResponse.getOutputStream().write(gzipped);
+                    return null;
+                });
+        }
+        
+        ServerResponse.BodyBuilder builder = ServerResponse.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .eTag(preEncoded.eTag())
+            .cacheControl(CacheControl.noCache());
+        if (preEncoded.isCompressed()) {
+            builder.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        return builder
+            .build((servletRequest, servletResponse) -> {
+                servletResponse.setContentLength(preEncoded.envelopeLength(idJson));
+                preEncoded.writeEnvelope(servletResponse.getOutputStream(), idJson);
+                return null;
+            });
+    }
+
+    /**
+     * Map-based response embedding a pre-encoded result as raw JSON (no re-serialization of the result)
+     */
+    private Map<String, Object> createPreEncodedResponse(Object id, PreEncodedResult preEncoded) {
+        return Map.of(
+            "jsonrpc", "2.0",
+            "id", id,
+            "result", preEncoded.rawValue()
+        );
+    }
+
+    /**
+     * Stream a tools/call over SSE
+     * The tool runs on the tool executor; its progress reports are sent as notifications/progress
+     * events, followed by the final JSON-RPC response, while heartbeats keep the connection alive
+     */
+    private ServerResponse handleToolCallStream(org.springframework.web.servlet.function.ServerRequest request,
+                                                JsonRpcRequest mcpRequest) throws IOException {
+        Object id = mcpRequest.id();
+        ToolCallParams toolCall = jsonRpcReader.readToolCall(mcpRequest.params());
+        Object progressToken = toolCall.progressToken() != null ? toolCall.progressToken() : id;
+        
+        return ServerResponse.sse(sse -> {
+            McpSseStreams.Stream stream = sseStreams.open(sse);
+            ToolInvocationContext context = ToolInvocationContext.current().withProgressListener(
+                (progress, total, message) -> stream.send(createProgressNotification(progressToken, progress, total, message)));
+            
+            // Start inside the context so the tool, or the worker thread running it, sees the progress listener
+            runToolCall(request, id, context, true, toolCall)
+                .whenComplete((response, error) -> {
+                    stream.send(response != null ? response : createToolCallFailure(id, error));
+                    stream.complete();
+                });
+        }, sseStreams.streamTimeout());
+    }
+
+    /**
+     * Create a notifications/progress message following MCP 2025-06-18 specification
+     */
+    private Map<String, Object> createProgressNotification(Object progressToken, double progress, Double total, String message) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("progressToken", progressToken);
+        params.put("progress", progress);
+        if (total != null) {
+            params.put("total", total);
+        }
+        if (message != null) {
+            params.put("message", message);
+        }
+        
+        return Map.of(
+            "jsonrpc", "2.0",
+            "method", "notifications/progress",
+            "params", params
+        );
+    }
+
     /**
      * Handle GET requests to /mcp endpoint
-     * Establishes SSE connection for bi-directional communication
+     * Opens the long-lived SSE stream for server-initiated messages on an MCP session. Opening a session's
+     * stream replaces the previous one, so it is only allowed for session ids this server issued, and only
+     * to the credentials sealed in the id
      */
     private ServerResponse handleMcpGet(org.springframework.web.servlet.function.ServerRequest request) {
         try {
-            // For Phase 1, we'll return a simple SSE stream
-            // This can be enhanced to support session management
-            return ServerResponse.ok()
-                .contentType(MediaType.TEXT_EVENT_STREAM)
-                .body("data: {\"type\": \"connection_established\"}\n\n");
+            String requestedSessionId = sessionId(request);
+            if (requestedSessionId != null) {
+                String sessionAuthHeader = sessionTokens.open(requestedSessionId);
+                String authHeader = request.headers().firstHeader(HttpHeaders.AUTHORIZATION);
+                if (sessionAuthHeader == null || (authHeader != null && !authHeader.equals(sessionAuthHeader))) {
+                    return ServerResponse.status(HttpStatus.NOT_FOUND)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(createErrorResponse("Unknown MCP session"));
+                }
+            }
+            String sessionId = requestedSessionId != null ? requestedSessionId : UUID.randomUUID().toString();
+            
+            return ServerResponse.sse(sse -> {
+                McpSseStreams.Stream stream = sseStreams.openSessionStream(sessionId, sse);
+                stream.send(Map.of(
+                    "type", "connection_established",
+                    "sessionId", sessionId
+                ));
+            }, sseStreams.streamTimeout());
                 
         } catch (Exception e) {
             return ServerResponse.status(500)
@@ -103,10 +538,10 @@ public class StreamableHttpConfig {
      * Process MCP JSON-RPC requests
      * This is a simplified implementation for Phase 1
      */
-    private Map<String, Object> processMcpRequest(Map<String, Object> request) {
+    private Map<String, Object> processMcpRequest(JsonRpcRequest request, String sessionId) {
         try {
-            String method = (String) request.get("method");
-            Object id = request.get("id");
+            String method = request.method();
+            Object id = request.id();
             
             switch (method) {
                 case "initialize":
@@ -114,26 +549,26 @@ public class StreamableHttpConfig {
                 case "tools/list":
                     return createToolsListResponse(id);
                 case "tools/call":
-                    return executeToolCall(id, request.get("params"));
+                    return executeToolCall(id, jsonRpcReader.readToolCall(request.params()));
                 case "prompts/list":
                     return createPromptsListResponse(id);
                 case "prompts/get":
-                    return getPrompt(id, request.get("params"));
+                    return getPrompt(id, jsonRpcReader.readParamsAsMap(request.params()));
                 case "resources/list":
-                    return createResourcesListResponse(id, request.get("params"));
+                    return createResourcesListResponse(id, jsonRpcReader.readParamsAsMap(request.params()));
                 case "resources/read":
-                    return readResource(id, request.get("params"));
+                    return readResource(id, jsonRpcReader.readParamsAsMap(request.params()));
                 case "resources/templates/list":
                     return createResourceTemplatesListResponse(id);
                 case "resources/subscribe":
-                    return subscribeToResource(id, request.get("params"));
+                    return subscribeToResource(id, jsonRpcReader.readParamsAsMap(request.params()), sessionId);
                 case "resources/unsubscribe":
-                    return unsubscribeFromResource(id, request.get("params"));
+                    return unsubscribeFromResource(id, jsonRpcReader.readParamsAsMap(request.params()), sessionId);
                 default:
                     return createErrorResponse(id, "Method not found: " + method);
             }
         } catch (Exception e) {
-            return createErrorResponse(request.get("id"), "Processing error: " + e.getMessage());
+            return createErrorResponse(request.id(), "Processing error: " + e.getMessage());
         }
     }
 
@@ -168,197 +603,177 @@ public class StreamableHttpConfig {
     }
 
     /**
-     * Create tools list response using reflection to extract @Tool annotations from both ShoppingCart and ExotelService
+     * Create tools list response from the pre-encoded tools list
      */
     private Map<String, Object> createToolsListResponse(Object id) {
+        return createPreEncodedResponse(id, toolsListResult);
+    }
+
+    /**
+     * Build the tools list result from the tool registry, generating an input schema from each method's parameters
+     */
+    private Map<String, Object> buildToolsListResult() {
         List<Map<String, Object>> tools = new ArrayList<>();
         
-        // Scan services for @Tool annotated methods
-        Object[] services = {exotelService, quickAudioService};
-        
-        for (Object service : services) {
-            Method[] methods = service.getClass().getDeclaredMethods();
-            for (Method method : methods) {
-                Tool toolAnnotation = method.getAnnotation(Tool.class);
-                if (toolAnnotation != null) {
-                    Map<String, Object> toolInfo = new HashMap<>();
-                    toolInfo.put("name", toolAnnotation.name());
-                    toolInfo.put("description", toolAnnotation.description());
-                    
-                    // Generate input schema based on method parameters
-                    Map<String, Object> inputSchema = new HashMap<>();
-                    inputSchema.put("type", "object");
-                    Map<String, Object> properties = new HashMap<>();
-                    List<String> required = new ArrayList<>();
-                    
-                    Parameter[] parameters = method.getParameters();
-                    for (Parameter param : parameters) {
-                        String paramName = param.getName();
-                        Map<String, Object> property = new HashMap<>();
-                        
-                        // Determine parameter type
-                        Class<?> paramType = param.getType();
-                        if (paramType == int.class || paramType == Integer.class) {
-                            property.put("type", "integer");
-                            property.put("description", "Integer parameter");
-                        } else if (paramType == String.class) {
-                            property.put("type", "string");
-                            property.put("description", "String parameter");
-                        } else if (paramType == java.util.List.class) {
-                            property.put("type", "array");
-                            property.put("description", "List parameter");
-                            property.put("items", Map.of("type", "string"));
-                        } else if (paramType == java.util.Map.class) {
-                            property.put("type", "object");
-                            property.put("description", "Map parameter");
-                        } else if (paramType == boolean.class || paramType == Boolean.class) {
-                            property.put("type", "boolean");
-                            property.put("description", "Boolean parameter");
-                        } else {
-                            property.put("type", "string");
-                            property.put("description", "Parameter");
-                        }
-                        
-                        properties.put(paramName, property);
-                        // For this example, we'll assume all parameters are required
-                        // You could add custom annotations later to make some optional
-                        required.add(paramName);
-                    }
-                    
-                    inputSchema.put("properties", properties);
-                    inputSchema.put("required", required);
-                    toolInfo.put("inputSchema", inputSchema);
-                    tools.add(toolInfo);
+        for (McpToolRegistry.ToolBinding tool : toolRegistry.tools()) {
+            Map<String, Object> toolInfo = new HashMap<>();
+            toolInfo.put("name", tool.name());
+            toolInfo.put("description", tool.description());
+            
+            // Generate input schema based on method parameters
+            Map<String, Object> inputSchema = new HashMap<>();
+            inputSchema.put("type", "object");
+            Map<String, Object> properties = new HashMap<>();
+            List<String> required = new ArrayList<>();
+            
+            for (Parameter param : tool.parameters()) {
+                String paramName = param.getName();
+                Map<String, Object> property = new HashMap<>();
+                
+                // Determine parameter type
+                Class<?> paramType = param.getType();
+                if (paramType == int.class || paramType == Integer.class) {
+                    property.put("type", "integer");
+                    property.put("description", "Integer parameter");
+                } else if (paramType == String.class) {
+                    property.put("type", "string");
+                    property.put("description", "String parameter");
+                } else if (paramType == java.util.List.class) {
+                    property.put("type", "array");
+                    property.put("description", "List parameter");
+                    property.put("items", Map.of("type", "string"));
+                } else if (paramType == java.util.Map.class) {
+                    property.put("type", "object");
+                    property.put("description", "Map parameter");
+                } else if (paramType == boolean.class || paramType == Boolean.class) {
+                    property.put("type", "boolean");
+                    property.put("description", "Boolean parameter");
+                } else {
+                    property.put("type", "string");
+                    property.put("description", "Parameter");
                 }
+                
+                properties.put(paramName, property);
+                // For this example, we'll assume all parameters are required
+                // You could add custom annotations later to make some optional
+                required.add(paramName);
             }
+            
+            inputSchema.put("properties", properties);
+            inputSchema.put("required", required);
+            toolInfo.put("inputSchema", inputSchema);
+            tools.add(toolInfo);
         }
             
-        Map<String, Object> result = Map.of("tools", tools);
-        return Map.of(
-            "jsonrpc", "2.0",
-            "id", id,
-            "result", result
-        );
+        return Map.of("tools", tools);
     }
 
     /**
-     * Execute actual tool calls using reflection to call @Tool annotated methods
+     * Execute tool calls through the precomputed tool registry
+     * Arguments are bound from the buffered JSON tokens straight to the tool's parameter types
      */
-    private Map<String, Object> executeToolCall(Object id, Object params) {
+    private Map<String, Object> executeToolCall(Object id, ToolCallParams toolCall) {
         try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> parameters = (Map<String, Object>) params;
-            String toolName = (String) parameters.get("name");
-            @SuppressWarnings("unchecked")
-            Map<String, Object> arguments = (Map<String, Object>) parameters.get("arguments");
+            String toolName = toolCall.name();
             
             Object toolResult = null;
-            boolean isError = false;
-            
-            // Search for the tool method in active services
-            Object[] services = {exotelService, quickAudioService};
             
-            for (Object service : services) {
-                Method[] methods = service.getClass().getDeclaredMethods();
-                for (Method method : methods) {
-                    Tool toolAnnotation = method.getAnnotation(Tool.class);
-                    if (toolAnnotation != null && toolAnnotation.name().equals(toolName)) {
-                        // Prepare method arguments
-                        Parameter[] methodParams = method.getParameters();
-                        Object[] methodArgs = new Object[methodParams.length];
-                        
-                        for (int i = 0; i < methodParams.length; i++) {
-                            Parameter param = methodParams[i];
-                            String paramName = param.getName();
-                            Object argValue = arguments.get(paramName);
-                            
-                            // Enhanced type conversion
-                            if (param.getType() == int.class || param.getType() == Integer.class) {
-                                if (argValue instanceof Number) {
-                                    methodArgs[i] = ((Number) argValue).intValue();
-                                } else {
-                                    methodArgs[i] = Integer.parseInt(argValue.toString());
-                                }
-                            } else if (param.getType() == boolean.class || param.getType() == Boolean.class) {
-                                if (argValue instanceof Boolean) {
-                                    methodArgs[i] = argValue;
-                                } else {
-                                    methodArgs[i] = Boolean.parseBoolean(argValue.toString());
-                                }
-                            } else if (param.getType() == java.util.List.class) {
-                                // Handle List parameters
-                                if (argValue instanceof java.util.List) {
-                                    methodArgs[i] = argValue;
-                                } else {
-                                    methodArgs[i] = java.util.Arrays.asList(argValue.toString().split(","));
-                                }
-                            } else if (param.getType() == java.util.Map.class) {
-                                // Handle Map parameters
-                                if (argValue instanceof java.util.Map) {
-                                    methodArgs[i] = argValue;
-                                } else {
-                                    methodArgs[i] = new java.util.HashMap<>();
-                                }
-                            } else {
-                                methodArgs[i] = argValue;
-                            }
-                        }
-                        
-                        // Invoke the method
-                        toolResult = method.invoke(service, methodArgs);
-                        break;
-                    }
+            // Single lookup in the registry built at startup
+            McpToolRegistry.ToolBinding tool = toolRegistry.find(toolName);
+            if (tool != null) {
+                TokenBuffer arguments = toolCall.arguments();
+                try (JsonParser argumentsParser = arguments != null ? arguments.asParser(objectMapper) : null) {
+                    toolResult = tool.invoke(argumentsParser);
                 }
-                if (toolResult != null) break; // Exit if tool was found and executed
-            }
-            
-            if (toolResult == null) {
-                toolResult = "Unknown tool: " + toolName;
-                isError = true;
             }
             
-            // Format the result for MCP response
-            Map<String, Object> content = Map.of(
-                "type", "text",
-                "text", toolResult != null ? toolResult.toString() : "No result"
-            );
-            
-            Map<String, Object> result = Map.of(
-                "content", List.of(content),
-                "isError", isError
-            );
-            
-            return Map.of(
-                "jsonrpc", "2.0",
-                "id", id,
-                "result", result
-            );
+            return createToolResultResponse(id, toolName, toolResult);
             
         } catch (Exception e) {
-            // Return error response for tool execution failure
-            Map<String, Object> content = Map.of(
-                "type", "text",
-                "text", "Tool execution failed: " + e.getMessage()
-            );
-            
-            Map<String, Object> result = Map.of(
-                "content", List.of(content),
-                "isError", true
-            );
-            
-            return Map.of(
-                "jsonrpc", "2.0",
-                "id", id,
-                "result", result
-            );
+            return createToolExecutionFailure(id, e);
+        }
+    }
+
+    /**
+     * Start the non-blocking form of a tool; its response is built once the returned future completes
+     */
+    private CompletableFuture<Map<String, Object>> executeToolCallAsync(Object id, McpToolRegistry.ToolBinding tool,
+                                                                        ToolCallParams toolCall) {
+        CompletableFuture<Object> toolResult;
+        TokenBuffer arguments = toolCall.arguments();
+        try (JsonParser argumentsParser = arguments != null ? arguments.asParser(objectMapper) : null) {
+            toolResult = tool.invokeAsync(argumentsParser);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(createToolExecutionFailure(id, e));
+        }
+        return toolResult.handle((result, error) -> error == null
+            ? createToolResultResponse(id, tool.name(), result)
+            : createToolExecutionFailure(id, error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error));
+    }
+
+    /**
+     * Format a tool's return value as the MCP tools/call result; no result means the tool was not found
+     */
+    private Map<String, Object> createToolResultResponse(Object id, String toolName, Object toolResult) {
+        boolean isError = false;
+        if (toolResult == null) {
+            toolResult = "Unknown tool: " + toolName;
+            isError = true;
         }
+        
+        // Format the result for MCP response
+        Map<String, Object> content = Map.of(
+            "type", "text",
+            "text", toolResult.toString()
+        );
+        
+        Map<String, Object> result = Map.of(
+            "content", List.of(content),
+            "isError", isError
+        );
+        
+        return Map.of(
+            "jsonrpc", "2.0",
+            "id", id,
+            "result", result
+        );
+    }
+
+    /**
+     * Error result for a tool that threw instead of returning
+     */
+    private Map<String, Object> createToolExecutionFailure(Object id, Throwable e) {
+        Map<String, Object> content = Map.of(
+            "type", "text",
+            "text", "Tool execution failed: " + e.getMessage()
+        );
+        
+        Map<String, Object> result = Map.of(
+            "content", List.of(content),
+            "isError", true
+        );
+        
+        return Map.of(
+            "jsonrpc", "2.0",
+            "id", id,
+            "result", result
+        );
     }
 
     /**
      * Create prompts list response for MCP protocol following 2025-06-18 specification
-     * Returns available prompts for Exotel Communication Tools and Quick Audio Tools
+     * Served from the pre-encoded prompts list
      */
     private Map<String, Object> createPromptsListResponse(Object id) {
+        return createPreEncodedResponse(id, promptsListResult);
+    }
+
+    /**
+     * Build the prompts list result
+     * Returns available prompts for Exotel Communication Tools and Quick Audio Tools
+     */
+    private Map<String, Object> buildPromptsListResult() {
         List<Map<String, Object>> prompts = new ArrayList<>();
         
         // ========== EXOTEL COMMUNICATION PROMPTS ==========
@@ -525,12 +940,7 @@ public class StreamableHttpConfig {
             )
         ));
         
-        Map<String, Object> result = Map.of("prompts", prompts);
-        return Map.of(
-            "jsonrpc", "2.0",
-            "id", id,
-            "result", result
-        );
+        return Map.of("prompts", prompts);
     }
 
     /**
@@ -572,15 +982,15 @@ public class StreamableHttpConfig {
             @SuppressWarnings("unchecked")
             Map<String, Object> arguments = (Map<String, Object>) parameters.get("arguments");
             
-            Map<String, Object> prompt = getPromptByName(promptName);
-            if (prompt == null) {
+            CompiledPrompt compiledPrompt = compiledPrompts.get(promptName);
+            if (compiledPrompt == null) {
                 return createErrorResponse(id, "Prompt not found: " + promptName);
             }
             
-            // If arguments are provided, substitute them in the prompt messages
-            if (arguments != null && !arguments.isEmpty()) {
-                prompt = substituteArgumentsInPrompt(prompt, arguments);
-            }
+            // If arguments are provided, render them into the prompt messages
+            Map<String, Object> prompt = arguments != null && !arguments.isEmpty()
+                ? compiledPrompt.render(arguments)
+                : compiledPrompt.definition();
             
             return Map.of(
                 "jsonrpc", "2.0",
@@ -594,120 +1004,24 @@ public class StreamableHttpConfig {
     }
 
     /**
-     * Substitute template variables in prompt messages with provided arguments
-     * Follows MCP 2025-06-18 specification for argument substitution
-     */
-    private Map<String, Object> substituteArgumentsInPrompt(Map<String, Object> prompt, Map<String, Object> arguments) {
-        // Create a mutable copy of the prompt
-        Map<String, Object> result = new HashMap<>(prompt);
-        
-        // Get the messages array and substitute variables
-        @SuppressWarnings("unchecked")
-        List<Map<String, Object>> messages = (List<Map<String, Object>>) prompt.get("messages");
-        if (messages != null) {
-            List<Map<String, Object>> substitutedMessages = new ArrayList<>();
-            
-            for (Map<String, Object> message : messages) {
-                Map<String, Object> substitutedMessage = new HashMap<>(message);
-                
-                // Get the content object
-                @SuppressWarnings("unchecked")
-                Map<String, Object> content = (Map<String, Object>) message.get("content");
-                if (content != null) {
-                    Map<String, Object> substitutedContent = new HashMap<>(content);
-                    
-                    // Substitute variables in text content
-                    String text = (String) content.get("text");
-                    if (text != null) {
-                        String substitutedText = substituteTemplateVariables(text, arguments);
-                        substitutedContent.put("text", substitutedText);
-                    }
-                    
-                    substitutedMessage.put("content", substitutedContent);
-                }
-                
-                substitutedMessages.add(substitutedMessage);
-            }
-            
-            result.put("messages", substitutedMessages);
-        }
-        
-        return result;
-    }
-    
-    /**
-     * Replace template variables in text with actual argument values
-     * Supports {{variable}} syntax for template substitution
-     */
-    private String substituteTemplateVariables(String text, Map<String, Object> arguments) {
-        if (text == null || arguments == null) {
-            return text;
-        }
-        
-        String result = text;
-        
-        // Replace simple template variables like {{phone_number}}
-        for (Map.Entry<String, Object> entry : arguments.entrySet()) {
-            String key = entry.getKey();
-            String value = entry.getValue() != null ? entry.getValue().toString() : "";
-            
-            // Replace {{key}} with value
-            String template = "{{" + key + "}}";
-            result = result.replace(template, value);
-        }
-        
-        // Handle conditional templates like {{#if variable}}...{{/if}}
-        // For now, we'll implement basic conditional logic
-        result = handleConditionalTemplates(result, arguments);
-        
-        return result;
-    }
-    
-    /**
-     * Handle basic conditional template logic for {{#if}} statements
-     * Simplified implementation for common use cases
+     * Compile every listed prompt once; prompts/get then only renders templates
      */
-    private String handleConditionalTemplates(String text, Map<String, Object> arguments) {
-        // Handle {{#if variable}} content {{/if}} patterns
-        String result = text;
-        
-        // Simple regex to find {{#if variable}} content {{/if}} blocks
-        java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(
-            "\\{\\{#if ([^}]+)\\}\\}([^{]*?)\\{\\{/if\\}\\}"
-        );
-        java.util.regex.Matcher matcher = pattern.matcher(text);
-        
-        while (matcher.find()) {
-            String variable = matcher.group(1).trim();
-            String content = matcher.group(2);
-            String fullMatch = matcher.group(0);
-            
-            // Check if the variable exists and is truthy
-            Object value = arguments.get(variable);
-            boolean condition = false;
-            
-            if (value != null) {
-                if (value instanceof Boolean) {
-                    condition = (Boolean) value;
-                } else if (value instanceof String) {
-                    condition = !((String) value).isEmpty() && 
-                               !((String) value).equalsIgnoreCase("false");
-                } else {
-                    condition = true; // Non-null, non-boolean, non-empty string values are truthy
-                }
+    private Map<String, CompiledPrompt> compilePrompts(Map<String, Object> promptsList) {
+        Map<String, CompiledPrompt> compiled = new HashMap<>();
+        for (Object listed : (List<?>) promptsList.get("prompts")) {
+            String name = (String) ((Map<?, ?>) listed).get("name");
+            Map<String, Object> definition = getPromptByName(name);
+            if (definition != null) {
+                compiled.put(name, CompiledPrompt.compile(definition));
             }
-            
-            // Replace the conditional block with content or empty string
-            String replacement = condition ? content : "";
-            result = result.replace(fullMatch, replacement);
         }
-        
-        return result;
+        return Collections.unmodifiableMap(compiled);
     }
 
     /**
      * Helper method to get prompt definition by name following MCP 2025-06-18 specification
      * Includes message templates for all Exotel Communication and Audio prompts
+     * Only called at startup, when the templates are compiled
      */
     private Map<String, Object> getPromptByName(String name) {
         switch (name) {
@@ -897,9 +1211,21 @@ public class StreamableHttpConfig {
     
     /**
      * Create resources list response following MCP 2025-06-18 specification
-     * Exposes Exotel API documentation and schemas as resources
+     * Served from the pre-encoded page for the requested cursor
      */
     private Map<String, Object> createResourcesListResponse(Object id, Object params) {
+        PreEncodedResult page = resourceStore.page(stringParam((Map<?, ?>) params, "cursor"));
+        if (page == null) {
+            return createErrorResponse(id, "Invalid cursor");
+        }
+        return createPreEncodedResponse(id, page);
+    }
+
+    /**
+     * Build the resources list result
+     * Exposes Exotel API documentation and schemas as resources
+     */
+    private Map<String, Object> buildResourcesListResult() {
         List<Map<String, Object>> resources = new ArrayList<>();
         
         // ========== EXOTEL API DOCUMENTATION RESOURCES ==========
@@ -1122,12 +1448,7 @@ public class StreamableHttpConfig {
             )
         ));
         
-        Map<String, Object> result = Map.of("resources", resources);
-        return Map.of(
-            "jsonrpc", "2.0",
-            "id", id,
-            "result", result
-        );
+        return Map.of("resources", resources);
     }
     
     /**
@@ -1165,8 +1486,9 @@ public class StreamableHttpConfig {
                 return createErrorResponse(id, "Resource URI is required");
             }
             
-            Map<String, Object> resourceContent = getResourceContent(uri);
-            if (resourceContent == null) {
+            PreEncodedResult resourceContent = resourceStore.read(uri);
+            Map<String, Object> dynamicContent = resourceContent == null ? getDynamicResourceContent(uri) : null;
+            if (resourceContent == null && dynamicContent == null) {
         Map<String, Object> error = new HashMap<>();
                 error.put("code", -32002);
                 error.put("message", "Resource not found");
@@ -1179,21 +1501,44 @@ public class StreamableHttpConfig {
         return response;
             }
             
-            Map<String, Object> result = Map.of("contents", List.of(resourceContent));
-            return Map.of(
-                "jsonrpc", "2.0",
-                "id", id,
-                "result", result
-            );
+            if (dynamicContent != null) {
+                return Map.of(
+                    "jsonrpc", "2.0",
+                    "id", id,
+                    "result", Map.of("contents", List.of(dynamicContent))
+                );
+            }
+            return createPreEncodedResponse(id, resourceContent);
             
         } catch (Exception e) {
             return createErrorResponse(id, "Error reading resource: " + e.getMessage());
         }
     }
     
+    /**
+     * Content of the per-call and per-SMS resources, read from the callback tables on demand
+     * Returns null for unknown URIs and for records that belong to another account
+     */
+    private Map<String, Object> getDynamicResourceContent(String uri) throws Exception {
+        if (uri.startsWith(McpSubscriptions.CALL_RESOURCE_PREFIX)) {
+            String callSid = uri.substring(McpSubscriptions.CALL_RESOURCE_PREFIX.length());
+            Map<String, Object> call = exotelService.getCallResource(callSid);
+            return call == null ? null : createTextResourceContent(
+                uri, "call-" + callSid, "📞 Call " + callSid, "application/json", objectMapper.writeValueAsString(call));
+        }
+        if (uri.startsWith(McpSubscriptions.SMS_RESOURCE_PREFIX)) {
+            String smsSid = uri.substring(McpSubscriptions.SMS_RESOURCE_PREFIX.length());
+            Map<String, Object> sms = exotelService.getSmsResource(smsSid);
+            return sms == null ? null : createTextResourceContent(
+                uri, "sms-" + smsSid, "💬 SMS " + smsSid, "application/json", objectMapper.writeValueAsString(sms));
+        }
+        return null;
+    }
+    
     /**
      * Get the actual content for a resource URI
      * This method returns the detailed Exotel API documentation content
+     * Only called at startup to fill the resource store
      */
     private Map<String, Object> getResourceContent(String uri) {
         switch (uri) {
@@ -1294,6 +1639,24 @@ public class StreamableHttpConfig {
         schemaTemplate.put("mimeType", "application/schema+json");
         resourceTemplates.add(schemaTemplate);
         
+        // Template for live call status (subscribable)
+        Map<String, Object> callTemplate = new HashMap<>();
+        callTemplate.put("uriTemplate", McpSubscriptions.CALL_RESOURCE_PREFIX + "{callSid}");
+        callTemplate.put("name", "Exotel Call Status");
+        callTemplate.put("title", "📞 Live Call Status");
+        callTemplate.put("description", "Current status of a call by CallSid; subscribe to get notified when its status callback arrives");
+        callTemplate.put("mimeType", "application/json");
+        resourceTemplates.add(callTemplate);
+        
+        // Template for live SMS delivery status (subscribable)
+        Map<String, Object> smsTemplate = new HashMap<>();
+        smsTemplate.put("uriTemplate", McpSubscriptions.SMS_RESOURCE_PREFIX + "{smsSid}");
+        smsTemplate.put("name", "Exotel SMS Status");
+        smsTemplate.put("title", "💬 Live SMS Delivery Status");
+        smsTemplate.put("description", "Current delivery status of an SMS by SmsSid; subscribe to get notified when its status callback arrives");
+        smsTemplate.put("mimeType", "application/json");
+        resourceTemplates.add(smsTemplate);
+        
         Map<String, Object> result = Map.of("resourceTemplates", resourceTemplates);
         return Map.of(
             "jsonrpc", "2.0",
@@ -1303,17 +1666,32 @@ public class StreamableHttpConfig {
     }
     
     /**
-     * Subscribe to resource changes (basic implementation)
+     * Subscribe the caller's MCP session to resource changes
+     * Only the caller's own call and SMS resources can be subscribed to (the others never change)
+     * Updates are pushed as notifications/resources/updated on the session's GET /mcp stream
      */
-    private Map<String, Object> subscribeToResource(Object id, Object params) {
+    private Map<String, Object> subscribeToResource(Object id, Object params, String sessionId) {
         try {
             @SuppressWarnings("unchecked")
             Map<String, Object> parameters = (Map<String, Object>) params;
             String uri = (String) parameters.get("uri");
             
+            if (uri == null || uri.isEmpty()) {
+                return createErrorResponse(id, "Resource URI is required for subscribe");
+            }
+            if (sessionId == null) {
+                return createErrorResponse(id, "resources/subscribe requires an " + MCP_SESSION_ID_HEADER + " header");
+            }
+            if (getDynamicResourceContent(uri) == null) {
+                return createErrorResponse(id, "Resource not found: " + uri);
+            }
+            if (!subscriptions.subscribe(sessionId, exotelService.getCurrentUserId(), uri)) {
+                return createErrorResponse(id, "Too many resource subscriptions, unsubscribe from some first");
+            }
+            
             Map<String, Object> result = Map.of(
                 "subscribed", true,
-                "uri", uri != null ? uri : "unknown"
+                "uri", uri
             );
             
             return Map.of(
@@ -1330,7 +1708,7 @@ public class StreamableHttpConfig {
     /**
      * Unsubscribe from resource changes following MCP 2025-06-18 specification
      */
-    private Map<String, Object> unsubscribeFromResource(Object id, Object params) {
+    private Map<String, Object> unsubscribeFromResource(Object id, Object params, String sessionId) {
         try {
             @SuppressWarnings("unchecked")
             Map<String, Object> parameters = (Map<String, Object>) params;
@@ -1340,8 +1718,9 @@ public class StreamableHttpConfig {
                 return createErrorResponse(id, "Resource URI is required for unsubscribe");
             }
             
-            // In a real implementation, you would remove the subscription from your tracking
-            // For this basic implementation, we'll just acknowledge the unsubscribe request
+            if (sessionId != null) {
+                subscriptions.unsubscribe(sessionId, uri);
+            }
             
             Map<String, Object> result = Map.of(
                 "unsubscribed", true,
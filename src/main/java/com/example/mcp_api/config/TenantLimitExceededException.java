@@ -0,0 +1,12 @@
+package com.example.mcp_api.config;
+
+/**
+ * Thrown when a tool call is rejected because its tenant (or the server as a whole)
+ * already has the maximum number of tool calls in flight
+ */
+public class TenantLimitExceededException extends RuntimeException {
+
+    public TenantLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.mcp_api.config;
+
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * params of a tools/call request: the tool name, its still-unbound arguments and the
+ * optional _meta.progressToken
+ */
+record ToolCallParams(String name, TokenBuffer arguments, Object progressToken) {
+}
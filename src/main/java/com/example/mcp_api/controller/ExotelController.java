@@ -1,18 +1,25 @@
 package com.example.mcp_api.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.util.MultiValueMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.example.mcp_api.service.ExotelService;
+import com.example.mcp_api.service.ToolInvocationContext;
+import com.example.mcp_api.config.McpToolExecutor;
+import com.example.mcp_api.config.TenantLimitExceededException;
 import com.example.mcp_api.dto.BulkSMSRequest;
 import com.example.mcp_api.dto.BulkDynamicSMS;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 @RestController
 @CrossOrigin(origins = "*")
@@ -23,10 +30,13 @@ public class ExotelController {
     @Autowired
     private ExotelService exotelService;
     
+    @Autowired
+    private McpToolExecutor toolExecutor;
+    
 
     
     @GetMapping("/send-sms-to-user")
-    public ResponseEntity<?> sendSmsToUser(
+    public CompletableFuture<ResponseEntity<?>> sendSmsToUser(
             @RequestParam String toNumber,
             @RequestParam String message,
             @RequestParam String dltTemplateId,
@@ -34,62 +44,35 @@ public class ExotelController {
             HttpServletRequest request) {
         
         logger.info("Sending SMS to: {}", toNumber);
-        try {
-            // Store auth header for this session
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader != null) {
-                exotelService.setAuthHeaderForSession(authHeader);
-            }
-            
-            String response = exotelService.sendSmsToUserEndpoint(toNumber, message, dltTemplateId, dltEntityId);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            logger.error("Error sending SMS", e);
-            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
-        }
+        String authHeader = request.getHeader("Authorization");
+        
+        // Non-blocking send: no thread waits while Exotel responds
+        return executeAsync(authHeader, () -> exotelService.sendSmsToUserAsync(toNumber, message, dltTemplateId, dltEntityId).thenApply(ResponseEntity::ok));
     }
     
     @GetMapping("/send-voice-call-to-user")
-    public ResponseEntity<?> sendVoiceCallToUser(
+    public CompletableFuture<ResponseEntity<?>> sendVoiceCallToUser(
             @RequestParam String toNumber,
             HttpServletRequest request) {
         
         logger.info("Sending voice call to: {}", toNumber);
-        try {
-            // Store auth header for this session
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader != null) {
-                exotelService.setAuthHeaderForSession(authHeader);
-            }
-            
-            String response = exotelService.sendVoiceCallToUserEndpoint(toNumber);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            logger.error("Error sending voice call", e);
-            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
-        }
+        String authHeader = request.getHeader("Authorization");
+        
+        // Non-blocking send: no thread waits while Exotel responds
+        return executeAsync(authHeader, () -> exotelService.sendVoiceCallToUserAsync(toNumber).thenApply(ResponseEntity::ok));
     }
     
     @GetMapping("/outgoing-call-to-connect-number")
-    public ResponseEntity<?> callConnect(
+    public CompletableFuture<ResponseEntity<?>> callConnect(
             @RequestParam String fromNumber,
             @RequestParam String toNumber,
             HttpServletRequest request) {
         
         logger.info("Connecting call from: {} to: {}", fromNumber, toNumber);
-        try {
-            // Store auth header for this session
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader != null) {
-                exotelService.setAuthHeaderForSession(authHeader);
-            }
-            
-            String response = exotelService.outgoingCallToConnectNumber(fromNumber, toNumber);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            logger.error("Error connecting call", e);
-            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
-        }
+        String authHeader = request.getHeader("Authorization");
+        
+        // Non-blocking send: no thread waits while Exotel responds
+        return executeAsync(authHeader, () -> exotelService.outgoingCallToConnectNumberAsync(fromNumber, toNumber).thenApply(ResponseEntity::ok));
     }
     
     @PostMapping("/sms-status-callback/{callbackId}/{tokenMd5}")
@@ -201,162 +184,165 @@ public class ExotelController {
     }
     
     @GetMapping("/get-sms-callbacks")
-    public ResponseEntity<?> getSmsCallbacks(
+    public CompletableFuture<ResponseEntity<?>> getSmsCallbacks(
             @RequestParam String toNumber,
             HttpServletRequest request) {
         
         logger.info("Fetching SMS callbacks for: {}", toNumber);
-        try {
-            // Store auth header for this session
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader != null) {
-                exotelService.setAuthHeaderForSession(authHeader);
+        String authHeader = request.getHeader("Authorization");
+        
+        return execute(authHeader, () -> {
+            try {
+                Map<String, Object> response = exotelService.getSmsCallbacks(toNumber);
+                return ResponseEntity.ok(response);
+            } catch (Exception e) {
+                logger.error("Error fetching SMS callbacks", e);
+                return ResponseEntity.badRequest().body(Map.of("status_data", "Not found because " + e.getMessage()));
             }
-            
-            Map<String, Object> response = exotelService.getSmsCallbacks(toNumber);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            logger.error("Error fetching SMS callbacks", e);
-            return ResponseEntity.badRequest().body(Map.of("status_data", "Not found because " + e.getMessage()));
-        }
+        });
     }
     
     @GetMapping("/get-voice-call-callbacks")
-    public ResponseEntity<?> getVoiceCallbacks(
+    public CompletableFuture<ResponseEntity<?>> getVoiceCallbacks(
             @RequestParam String toNumber,
             HttpServletRequest request) {
         
         logger.info("Fetching voice callbacks for: {}", toNumber);
-        try {
-            // Store auth header for this session
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader != null) {
-                exotelService.setAuthHeaderForSession(authHeader);
+        String authHeader = request.getHeader("Authorization");
+        
+        return execute(authHeader, () -> {
+            try {
+                Map<String, Object> response = exotelService.getVoiceCallCallbacks(toNumber);
+                return ResponseEntity.ok(response);
+            } catch (Exception e) {
+                logger.error("Error fetching voice callbacks", e);
+                return ResponseEntity.badRequest().body(Map.of("status_data", "Not found because " + e.getMessage()));
             }
-            
-            Map<String, Object> response = exotelService.getVoiceCallCallbacks(toNumber);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            logger.error("Error fetching voice callbacks", e);
-            return ResponseEntity.badRequest().body(Map.of("status_data", "Not found because " + e.getMessage()));
-        }
+        });
     }
     
     @GetMapping("/get-bulk-call-details")
-    public ResponseEntity<?> getBulkCallDetails(
+    public CompletableFuture<ResponseEntity<?>> getBulkCallDetails(
             @RequestParam String fromNumber,
             HttpServletRequest request) {
         
         logger.info("Fetching bulk voice call details...");
-        try {
-            // Store auth header for this session
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader != null) {
-                exotelService.setAuthHeaderForSession(authHeader);
+        String authHeader = request.getHeader("Authorization");
+        
+        return execute(authHeader, () -> {
+            try {
+                String response = exotelService.getBulkCallDetails(fromNumber);
+                return ResponseEntity.ok(response);
+            } catch (Exception e) {
+                logger.error("Error fetching bulk call details", e);
+                return ResponseEntity.badRequest().body(Map.of("data", "Not able to fetch bulk call details due to " + e.getMessage()));
             }
-            
-            String response = exotelService.getBulkCallDetails(fromNumber);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            logger.error("Error fetching bulk call details", e);
-            return ResponseEntity.badRequest().body(Map.of("data", "Not able to fetch bulk call details due to " + e.getMessage()));
-        }
+        });
     }
     
     @GetMapping("/get-number-metadata")
-    public ResponseEntity<?> getNumberMetadata(
+    public CompletableFuture<ResponseEntity<?>> getNumberMetadata(
             @RequestParam String number,
             HttpServletRequest request) {
         
         logger.info("Fetching number metadata...");
-        try {
-            // Store auth header for this session
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader != null) {
-                exotelService.setAuthHeaderForSession(authHeader);
+        String authHeader = request.getHeader("Authorization");
+        
+        return execute(authHeader, () -> {
+            try {
+                String response = exotelService.getNumberMetadata(number);
+                return ResponseEntity.ok(response);
+            } catch (Exception e) {
+                logger.error("Error fetching number metadata", e);
+                return ResponseEntity.badRequest().body("Not able to fetch number metadata due to " + e.getMessage());
             }
-            
-            String response = exotelService.getNumberMetadata(number);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            logger.error("Error fetching number metadata", e);
-            return ResponseEntity.badRequest().body("Not able to fetch number metadata due to " + e.getMessage());
-        }
+        });
     }
     
     @PostMapping("/send-message-to-bulk-numbers")
-    public ResponseEntity<?> sendBulkSms(
+    public CompletableFuture<ResponseEntity<?>> sendBulkSms(
             @RequestBody BulkSMSRequest payload,
             HttpServletRequest request) {
         
         logger.info("Sending bulk SMS to: {}", payload.toNumber());
-        try {
-            // Store auth header for this session
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader != null) {
-                exotelService.setAuthHeaderForSession(authHeader);
-            }
-            
-            String response = exotelService.sendMessageToBulkNumbers(payload.toNumber(), payload.message());
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            logger.error("Error sending bulk SMS", e);
-            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
-        }
+        String authHeader = request.getHeader("Authorization");
+        
+        // Non-blocking send: no thread waits while Exotel responds
+        return executeAsync(authHeader, () -> exotelService.sendMessageToBulkNumbersAsync(payload.toNumber(), payload.message()).thenApply(ResponseEntity::ok));
     }
     
     @GetMapping("/connect-number-to-call-flow")
-    public ResponseEntity<?> connectFlow(
+    public CompletableFuture<ResponseEntity<?>> connectFlow(
             @RequestParam String appId,
             @RequestParam String fromNumber,
             HttpServletRequest request) {
         
         logger.info("Connecting to call flow: {}", appId);
-        try {
-            // Store auth header for this session
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader != null) {
-                exotelService.setAuthHeaderForSession(authHeader);
+        String authHeader = request.getHeader("Authorization");
+        
+        return execute(authHeader, () -> {
+            try {
+                String response = exotelService.connectNumberToCallFlow(appId, fromNumber);
+                return ResponseEntity.ok(response);
+            } catch (Exception e) {
+                logger.error("Error connecting to call flow", e);
+                return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
             }
-            
-            String response = exotelService.connectNumberToCallFlow(appId, fromNumber);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            logger.error("Error connecting to call flow", e);
-            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
-        }
+        });
     }
     
     @GetMapping("/get-call-flow-callbacks")
-    public ResponseEntity<?> getCallFlowCallbacks(@RequestParam String fromNumber) {
+    public CompletableFuture<ResponseEntity<?>> getCallFlowCallbacks(@RequestParam String fromNumber) {
         logger.info("Fetching call flow callbacks for: {}", fromNumber);
-        try {
-            Map<String, Object> result = exotelService.getCallFlowCallbacks(fromNumber);
-            return ResponseEntity.ok(result);
-        } catch (Exception e) {
-            logger.error("Database error: {}", e.getMessage());
-            return ResponseEntity.badRequest().body(Map.of("status_data", "Not found because " + e.getMessage()));
-        }
+        return execute(null, () -> {
+            try {
+                Map<String, Object> result = exotelService.getCallFlowCallbacks(fromNumber);
+                return ResponseEntity.ok(result);
+            } catch (Exception e) {
+                logger.error("Database error: {}", e.getMessage());
+                return ResponseEntity.badRequest().body(Map.of("status_data", "Not found because " + e.getMessage()));
+            }
+        });
     }
     
     @PostMapping("/send-dynamic-bulk-sms")
-    public ResponseEntity<?> sendDynamicBulkSms(
+    public CompletableFuture<ResponseEntity<?>> sendDynamicBulkSms(
             @RequestBody BulkDynamicSMS payload,
             HttpServletRequest request) {
         
         logger.info("Sending dynamic bulk SMS with {} messages", payload.message().size());
-        try {
-            // Store auth header for this session
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader != null) {
-                exotelService.setAuthHeaderForSession(authHeader);
-            }
-            
-            String response = exotelService.sendDynamicBulkSmsEndpoint(payload.message());
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            logger.error("Error sending dynamic bulk SMS", e);
-            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        String authHeader = request.getHeader("Authorization");
+        
+        // Non-blocking send: no thread waits while Exotel responds
+        return executeAsync(authHeader, () -> exotelService.sendDynamicBulkSmsAsync(payload.message()).thenApply(ResponseEntity::ok));
+    }
+    
+    /**
+     * Run the Exotel/database work through the tool execution engine (off the request thread in async mode)
+     * The caller's credentials travel with the invocation context; calls beyond the tenant's in-flight limit are answered with 429
+     */
+    private CompletableFuture<ResponseEntity<?>> execute(String authHeader, Supplier<ResponseEntity<?>> call) {
+        CompletableFuture<ResponseEntity<?>> result = ToolInvocationContext.current().withAuthHeader(authHeader)
+            .call(() -> toolExecutor.execute(authHeader, call));
+        return result.exceptionally(this::failureResponse);
+    }
+    
+    /**
+     * Start a non-blocking Exotel call on the request thread; the tenant's in-flight slot is held until it completes
+     */
+    private CompletableFuture<ResponseEntity<?>> executeAsync(String authHeader, Supplier<CompletableFuture<ResponseEntity<?>>> call) {
+        CompletableFuture<ResponseEntity<?>> result = ToolInvocationContext.current().withAuthHeader(authHeader)
+            .call(() -> toolExecutor.executeAsync(authHeader, call));
+        return result.exceptionally(this::failureResponse);
+    }
+    
+    private ResponseEntity<?> failureResponse(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof TenantLimitExceededException) {
+            logger.warn("Rejected request: {}", cause.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("message", cause.getMessage()));
         }
+        logger.error("Error executing request", cause);
+        return ResponseEntity.internalServerError().body(Map.of("message", String.valueOf(cause.getMessage())));
     }
-}
\ No newline at end of file
+}
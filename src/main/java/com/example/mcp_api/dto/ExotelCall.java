@@ -0,0 +1,30 @@
+package com.example.mcp_api.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * The "Call" object of an Exotel Calls/connect response
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ExotelCall(
+    String Sid,
+    String ParentCallSid,
+    String DateCreated,
+    String DateUpdated,
+    String AccountSid,
+    String To,
+    String From,
+    String PhoneNumberSid,
+    String Status,
+    String StartTime,
+    String EndTime,
+    String Duration,
+    String Price,
+    String Direction,
+    String AnsweredBy,
+    String ForwardedFrom,
+    String CallerName,
+    String Uri,
+    String RecordingUrl
+) {
+}
@@ -0,0 +1,18 @@
+package com.example.mcp_api.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * The "SMSMessage" object of an Exotel Sms/send or Sms/bulksend response
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ExotelSmsMessage(
+    String Sid,
+    String To,
+    String Status,
+    String DetailedStatus,
+    String DetailedStatusCode,
+    String SmsUnits,
+    String DateCreated
+) {
+}
@@ -0,0 +1,98 @@
+package com.example.mcp_api.service;
+
+import com.example.mcp_api.dto.AuthData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded, TTL-expiring cache of parsed AuthData keyed by a 64-bit hash of the raw Authorization header.
+ * The header itself is kept in the entry and compared on every hit, so a hash collision is a miss, never
+ * another account's credentials.
+ */
+@Component
+public class AuthDataCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthDataCache.class);
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final int maxSize;
+
+    public AuthDataCache(@Value("${mcp.auth.cache.ttl:10m}") Duration ttl,
+                         @Value("${mcp.auth.cache.max-size:10000}") int maxSize) {
+        this.ttlMillis = ttl.toMillis();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Cached AuthData for this exact header, or null if absent or expired
+     */
+    public AuthData get(String authHeader) {
+        long key = hash(authHeader);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.authHeader.equals(authHeader) ? entry.authData : null;
+    }
+
+    public void put(String authHeader, AuthData authData) {
+        if (ttlMillis <= 0 || maxSize <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(hash(authHeader), new Entry(authHeader, authData, System.currentTimeMillis() + ttlMillis));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Drop expired entries first; if the cache is still full, drop arbitrary entries down to 90% of the cap
+    private void evict() {
+        entries.values().removeIf(Entry::isExpired);
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<Long> keys = entries.keySet().iterator();
+        while (entries.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+        logger.debug("Evicted auth cache entries, size now {}", entries.size());
+    }
+
+    /**
+     * 64-bit FNV-1a over the header's chars: cheap, and no digest or byte[] allocation per lookup
+     * Also keys other per-credential state, so raw headers are not kept around as map keys
+     */
+    public static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private record Entry(String authHeader, AuthData authData, long expiryTime) {
+
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiryTime;
+        }
+    }
+}
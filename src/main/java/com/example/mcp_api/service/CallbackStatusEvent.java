@@ -0,0 +1,12 @@
+package com.example.mcp_api.service;
+
+/**
+ * Published after a call or SMS status callback from Exotel has been persisted
+ */
+public record CallbackStatusEvent(Kind kind, String sid, String userId, String status) {
+
+    public enum Kind {
+        CALL,
+        SMS
+    }
+}
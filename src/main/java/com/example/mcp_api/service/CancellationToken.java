@@ -0,0 +1,92 @@
+package com.example.mcp_api.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancellation signal for a single tool call.
+ * The transport cancels it on notifications/cancelled; the running call aborts its current
+ * HTTP exchange and wakes up from any retry backoff instead of sleeping it out.
+ * Several operations of one call can be pending at once (a hedged pair, a connection wait, a backoff),
+ * so any number of abort actions may be registered; cancel runs each of them once.
+ */
+public final class CancellationToken {
+
+    /**
+     * Token for calls nobody can cancel
+     */
+    public static final CancellationToken NONE = new CancellationToken();
+
+    private final CountDownLatch cancelled = new CountDownLatch(1);
+    // Guarded by this; emptied on cancel
+    private final List<Runnable> abortActions = new ArrayList<>();
+    private volatile String reason;
+
+    public void cancel(String reason) {
+        if (this == NONE) {
+            return;
+        }
+        List<Runnable> actions;
+        synchronized (this) {
+            if (isCancelled()) {
+                return;
+            }
+            this.reason = reason;
+            cancelled.countDown();
+            actions = new ArrayList<>(abortActions);
+            abortActions.clear();
+        }
+        actions.forEach(Runnable::run);
+    }
+
+    public boolean isCancelled() {
+        return cancelled.getCount() == 0;
+    }
+
+    public void throwIfCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException(reason != null ? "Request cancelled: " + reason : "Request cancelled");
+        }
+    }
+
+    /**
+     * Register an action that aborts an operation in progress (e.g. an HTTP request), alongside any others
+     * Runs immediately if the token is already cancelled
+     */
+    public void onAbort(Runnable abort) {
+        if (this == NONE) {
+            return;
+        }
+        synchronized (this) {
+            if (!isCancelled()) {
+                abortActions.add(abort);
+                return;
+            }
+        }
+        abort.run();
+    }
+
+    /**
+     * Clear an abort action once its operation has finished
+     */
+    public void clearAbort(Runnable abort) {
+        if (this == NONE) {
+            return;
+        }
+        synchronized (this) {
+            abortActions.remove(abort);
+        }
+    }
+
+    /**
+     * Sleep for the given time, returning early (and throwing) if the token is cancelled
+     */
+    public void sleep(long millis) throws InterruptedException {
+        if (cancelled.await(millis, TimeUnit.MILLISECONDS)) {
+            throwIfCancelled();
+        }
+    }
+}
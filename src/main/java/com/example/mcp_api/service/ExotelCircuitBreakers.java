@@ -0,0 +1,269 @@
+package com.example.mcp_api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Circuit breakers for outbound Exotel traffic, one per apiDomain and endpoint class (Calls, Sms, Numbers...).
+ * A breaker opens when, over its last window of calls, the share of failures (I/O errors, timeouts, 5xx)
+ * or of slow calls crosses its threshold. While open, calls fail fast with OutboundRejectedException
+ * instead of waiting out timeouts; after the open duration a few probe calls are let through (half-open)
+ * and the breaker closes only if they all succeed.
+ * The apiDomain comes from the caller's credentials, so at most max-tracked breakers are kept: breakers idle for
+ * idle-ttl (and not holding calls off) make room for new ones, otherwise calls to a new key run without a breaker.
+ */
+@Component
+public class ExotelCircuitBreakers {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExotelCircuitBreakers.class);
+
+    private static final Pattern ENDPOINT_CLASS = Pattern.compile("/Accounts/[^/]+/([A-Za-z]+)");
+
+    private final Map<String, Breaker> breakers = new ConcurrentHashMap<>();
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long slowCallNanos;
+    private final int slowCallRateThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+    private final int maxTracked;
+    private final long idleNanos;
+
+    public ExotelCircuitBreakers(@Value("${exotel.circuit-breaker.window-size:20}") int windowSize,
+                                 @Value("${exotel.circuit-breaker.minimum-calls:10}") int minimumCalls,
+                                 @Value("${exotel.circuit-breaker.failure-rate-threshold:50}") int failureRateThreshold,
+                                 @Value("${exotel.circuit-breaker.slow-call-duration:5s}") Duration slowCallDuration,
+                                 @Value("${exotel.circuit-breaker.slow-call-rate-threshold:80}") int slowCallRateThreshold,
+                                 @Value("${exotel.circuit-breaker.open-duration:30s}") Duration openDuration,
+                                 @Value("${exotel.circuit-breaker.half-open-probes:3}") int halfOpenProbes,
+                                 @Value("${exotel.circuit-breaker.max-tracked:1000}") int maxTracked,
+                                 @Value("${exotel.circuit-breaker.idle-ttl:10m}") Duration idleTtl) {
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallDuration.toNanos();
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenProbes = halfOpenProbes;
+        this.maxTracked = Math.max(1, maxTracked);
+        this.idleNanos = idleTtl.toNanos();
+    }
+
+    /**
+     * Admit a call to the url's endpoint class on apiDomain
+     * Fails with OutboundRejectedException ("circuit_open") while the breaker is open
+     */
+    public Call acquire(String apiDomain, String url) {
+        String key = apiDomain + "|" + endpointClass(url);
+        while (true) {
+            Breaker breaker = track(key);
+            if (breaker == null) {
+                return new Breaker(key).acquire();
+            }
+            Call call = breaker.acquire();
+            if (call != null) {
+                return call;
+            }
+            // Retired between lookup and acquire, the next lookup creates a new one
+        }
+    }
+
+    int trackedCount() {
+        return breakers.size();
+    }
+
+    // Breaker for key, null if the map is full even after retiring idle breakers
+    private Breaker track(String key) {
+        Breaker breaker = breakers.get(key);
+        if (breaker == null) {
+            if (breakers.size() >= maxTracked) {
+                long now = System.nanoTime();
+                breakers.values().removeIf(idle -> idle.retireIfIdle(now));
+                if (breakers.size() >= maxTracked) {
+                    return null;
+                }
+            }
+            breaker = breakers.computeIfAbsent(key, Breaker::new);
+        }
+        return breaker;
+    }
+
+    // "Sms" for .../Accounts/{sid}/Sms/send.json, "Calls" for .../Calls/connect.json
+    static String endpointClass(String url) {
+        Matcher matcher = ENDPOINT_CLASS.matcher(url);
+        return matcher.find() ? matcher.group(1) : "other";
+    }
+
+    // Upstream health signal: null when the error says nothing about Exotel (cancelled, rejected locally)
+    private static Boolean isFailure(Throwable error) {
+        if (error == null) {
+            return Boolean.FALSE;
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof ExotelHttpException http) {
+            return http.isServerError();
+        }
+        if (cause instanceof IOException || cause instanceof TimeoutException) {
+            return Boolean.TRUE;
+        }
+        return null;
+    }
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * An admitted call; report its outcome exactly once
+     */
+    public final class Call {
+
+        private final Breaker breaker;
+        private final boolean probe;
+        private long startNanos = System.nanoTime();
+
+        private Call(Breaker breaker, boolean probe) {
+            this.breaker = breaker;
+            this.probe = probe;
+        }
+
+        /**
+         * Mark the start of the exchange itself, so time spent queueing for a connection is not counted as slowness
+         */
+        public void started() {
+            startNanos = System.nanoTime();
+        }
+
+        public void complete(Throwable error) {
+            breaker.record(probe, isFailure(error), System.nanoTime() - startNanos >= slowCallNanos);
+        }
+    }
+
+    private final class Breaker {
+
+        private final String key;
+        private final boolean[] failed = new boolean[windowSize];
+        private final boolean[] slow = new boolean[windowSize];
+        private int next;
+        private int recorded;
+        private int failures;
+        private int slowCalls;
+
+        private State state = State.CLOSED;
+        private long openedAt;
+        private int probesInFlight;
+        private int probeSuccesses;
+        private long lastUsedNanos = System.nanoTime();
+        private boolean retired;
+
+        private Breaker(String key) {
+            this.key = key;
+        }
+
+        // Null once retired
+        synchronized Call acquire() {
+            if (retired) {
+                return null;
+            }
+            lastUsedNanos = System.nanoTime();
+            if (state == State.OPEN) {
+                long remaining = openNanos - (System.nanoTime() - openedAt);
+                if (remaining > 0) {
+                    throw new OutboundRejectedException("circuit_open",
+                        "Exotel " + key.replace('|', ' ') + " is failing, calls are paused for "
+                        + Duration.ofNanos(remaining).toSeconds() + "s", Duration.ofNanos(remaining).toMillis());
+                }
+                transition(State.HALF_OPEN);
+                probesInFlight = 0;
+                probeSuccesses = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesInFlight >= halfOpenProbes) {
+                    throw new OutboundRejectedException("circuit_open",
+                        "Exotel " + key.replace('|', ' ') + " is recovering, please retry shortly", 1000);
+                }
+                probesInFlight++;
+                return new Call(this, true);
+            }
+            return new Call(this, false);
+        }
+
+        // An open breaker still holding calls off or a half-open one with probes out is kept, whatever its age
+        synchronized boolean retireIfIdle(long now) {
+            boolean holdingOff = state == State.OPEN && now - openedAt < openNanos;
+            if (now - lastUsedNanos > idleNanos && !holdingOff && probesInFlight == 0) {
+                retired = true;
+            }
+            return retired;
+        }
+
+        synchronized void record(boolean probe, Boolean failure, boolean wasSlow) {
+            lastUsedNanos = System.nanoTime();
+            if (probe) {
+                if (state != State.HALF_OPEN) {
+                    return;
+                }
+                probesInFlight--;
+                if (failure == null) {
+                    return;
+                }
+                if (failure || wasSlow) {
+                    open();
+                } else if (++probeSuccesses >= halfOpenProbes) {
+                    transition(State.CLOSED);
+                    resetWindow();
+                }
+                return;
+            }
+            if (state != State.CLOSED || failure == null) {
+                return;
+            }
+            if (recorded == windowSize) {
+                failures -= failed[next] ? 1 : 0;
+                slowCalls -= slow[next] ? 1 : 0;
+            } else {
+                recorded++;
+            }
+            failed[next] = failure;
+            slow[next] = wasSlow;
+            failures += failure ? 1 : 0;
+            slowCalls += wasSlow ? 1 : 0;
+            next = (next + 1) % windowSize;
+
+            if (recorded >= minimumCalls
+                && (failures * 100 >= failureRateThreshold * recorded || slowCalls * 100 >= slowCallRateThreshold * recorded)) {
+                logger.warn("Circuit for {} tripped: {}/{} failed, {}/{} slow", key, failures, recorded, slowCalls, recorded);
+                open();
+            }
+        }
+
+        private void open() {
+            transition(State.OPEN);
+            openedAt = System.nanoTime();
+        }
+
+        private void transition(State newState) {
+            if (state != newState) {
+                logger.info("Circuit for {}: {} -> {}", key, state, newState);
+                state = newState;
+            }
+        }
+
+        private void resetWindow() {
+            next = 0;
+            recorded = 0;
+            failures = 0;
+            slowCalls = 0;
+        }
+    }
+}
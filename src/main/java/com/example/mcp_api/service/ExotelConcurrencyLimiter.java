@@ -0,0 +1,186 @@
+package com.example.mcp_api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Adaptive limit on in-flight requests to each Exotel apiDomain (AIMD). Every call that completes in time
+ * grows the limit by 1/limit, so it gains about one slot per round trip while Exotel keeps up; a timeout,
+ * I/O error, 5xx, 429 or a call slower than the latency target cuts it by the backoff ratio. Calls over
+ * the current limit are shed straight away with OutboundRejectedException ("concurrency_limited") rather
+ * than queued behind a slow upstream. The connection pool stays the hard ceiling.
+ * The apiDomain comes from the caller's credentials, so at most max-tracked limits are kept: limits with nothing
+ * in flight for idle-ttl make room for new ones, otherwise calls to a new domain are bounded by the pool alone.
+ */
+@Component
+public class ExotelConcurrencyLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExotelConcurrencyLimiter.class);
+
+    private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+    private final double initialLimit;
+    private final double minLimit;
+    private final double maxLimit;
+    private final double backoffRatio;
+    private final long latencyTargetNanos;
+    private final int maxTracked;
+    private final long idleNanos;
+
+    public ExotelConcurrencyLimiter(@Value("${exotel.concurrency.initial-limit:20}") int initialLimit,
+                                    @Value("${exotel.concurrency.min-limit:2}") int minLimit,
+                                    @Value("${exotel.concurrency.max-limit:50}") int maxLimit,
+                                    @Value("${exotel.concurrency.backoff-ratio:0.9}") double backoffRatio,
+                                    @Value("${exotel.concurrency.latency-target:3s}") Duration latencyTarget,
+                                    @Value("${exotel.concurrency.max-tracked:1000}") int maxTracked,
+                                    @Value("${exotel.concurrency.idle-ttl:10m}") Duration idleTtl) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.initialLimit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.backoffRatio = backoffRatio;
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.maxTracked = Math.max(1, maxTracked);
+        this.idleNanos = idleTtl.toNanos();
+    }
+
+    /**
+     * Admit a call to apiDomain
+     * Fails with OutboundRejectedException ("concurrency_limited") when the domain is at its current limit
+     */
+    public Permit acquire(String apiDomain) {
+        while (true) {
+            Limit limit = track(apiDomain);
+            if (limit == null) {
+                return new Limit(apiDomain).acquire();
+            }
+            Permit permit = limit.acquire();
+            if (permit != null) {
+                return permit;
+            }
+            // Retired between lookup and acquire, the next lookup creates a new one
+        }
+    }
+
+    int trackedCount() {
+        return limits.size();
+    }
+
+    // Limit for apiDomain, null if the map is full even after retiring idle limits
+    private Limit track(String apiDomain) {
+        Limit limit = limits.get(apiDomain);
+        if (limit == null) {
+            if (limits.size() >= maxTracked) {
+                long now = System.nanoTime();
+                limits.values().removeIf(idle -> idle.retireIfIdle(now));
+                if (limits.size() >= maxTracked) {
+                    return null;
+                }
+            }
+            limit = limits.computeIfAbsent(apiDomain, Limit::new);
+        }
+        return limit;
+    }
+
+    // Congestion signal: null when the error says nothing about Exotel (cancelled, rejected locally)
+    private static Boolean isDrop(Throwable error) {
+        if (error == null) {
+            return Boolean.FALSE;
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof ExotelHttpException http) {
+            return http.isServerError() || http.getStatusCode() == 429;
+        }
+        if (cause instanceof IOException || cause instanceof TimeoutException) {
+            return Boolean.TRUE;
+        }
+        return null;
+    }
+
+    /**
+     * An admitted call; report its outcome exactly once
+     */
+    public final class Permit {
+
+        private final Limit limit;
+        private long startNanos = System.nanoTime();
+
+        private Permit(Limit limit) {
+            this.limit = limit;
+        }
+
+        /**
+         * Mark the start of the exchange itself, so time spent queueing for a connection is not counted as latency
+         */
+        public void started() {
+            startNanos = System.nanoTime();
+        }
+
+        public void complete(Throwable error) {
+            limit.release(isDrop(error), System.nanoTime() - startNanos);
+        }
+    }
+
+    private final class Limit {
+
+        private final String apiDomain;
+        private double limit = initialLimit;
+        private int inFlight;
+        private long lastUsedNanos = System.nanoTime();
+        private boolean retired;
+
+        private Limit(String apiDomain) {
+            this.apiDomain = apiDomain;
+        }
+
+        // Null once retired
+        synchronized Permit acquire() {
+            if (retired) {
+                return null;
+            }
+            if (inFlight >= (int) limit) {
+                throw new OutboundRejectedException("concurrency_limited",
+                    "Exotel " + apiDomain + " is at its concurrency limit of " + (int) limit + ", please retry shortly", 500);
+            }
+            inFlight++;
+            lastUsedNanos = System.nanoTime();
+            return new Permit(this);
+        }
+
+        synchronized boolean retireIfIdle(long now) {
+            if (inFlight == 0 && now - lastUsedNanos > idleNanos) {
+                retired = true;
+            }
+            return retired;
+        }
+
+        synchronized void release(Boolean drop, long latencyNanos) {
+            inFlight--;
+            lastUsedNanos = System.nanoTime();
+            if (drop == null) {
+                return;
+            }
+            if (drop || latencyNanos > latencyTargetNanos) {
+                double previous = limit;
+                limit = Math.max(minLimit, limit * backoffRatio);
+                if ((int) limit != (int) previous) {
+                    logger.info("Concurrency limit for {} decreased to {}", apiDomain, (int) limit);
+                }
+            } else if (inFlight * 2 >= limit) {
+                // Grow only while the limit is actually in use, an idle domain says nothing about capacity
+                double previous = limit;
+                limit = Math.min(maxLimit, limit + 1 / limit);
+                if ((int) limit != (int) previous) {
+                    logger.debug("Concurrency limit for {} increased to {}", apiDomain, (int) limit);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.mcp_api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fair shares of the outbound Exotel connection pool.
+ * Every apiDomain+accountSid partition gets its own quota of concurrent requests (base quota times its
+ * configured weight). A partition that is at its quota borrows from a small reserve shared by everyone,
+ * and only then waits, so one account's bulk campaign cannot take every connection from interactive calls.
+ * Quotas are sized from the pool: the reserve is carved out of a route's connections and no partition may
+ * hold more than what is left, so the reserve is always there for the others. Idle partitions are dropped.
+ * Waiting is non-blocking: a waiter is a future completed by the next release in its partition, or by the
+ * next release of a reserve slot if it is the oldest waiter overall. A cancelled call stops waiting.
+ */
+@Component
+public class ExotelConnectionQuotas {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExotelConnectionQuotas.class);
+
+    // All state is guarded by this; held only for a few counter updates, never while completing a future
+    private final Map<String, Partition> partitions = new HashMap<>();
+    // Waiters of every partition, oldest first
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private int reserveAvailable;
+
+    private final Map<String, Integer> weights;
+    private final int basePermits;
+    private final int maxPartitionPermits;
+    private final long acquireTimeoutMillis;
+    private final ScheduledExecutorService timer;
+
+    public ExotelConnectionQuotas(@Value("${exotel.http.quota.permits:10}") int basePermits,
+                                  @Value("${exotel.http.quota.reserve:5}") int reservePermits,
+                                  @Value("${exotel.http.quota.weights:}") String weights,
+                                  @Value("${exotel.http.quota.acquire-timeout:5s}") Duration acquireTimeout,
+                                  @Value("${exotel.http.pool.max-per-route:25}") int maxPerRoute) {
+        // At most half a route's connections are held back; the rest is the ceiling for any one partition
+        int reserved = Math.max(0, Math.min(reservePermits, maxPerRoute / 2));
+        this.basePermits = basePermits;
+        this.maxPartitionPermits = Math.max(1, maxPerRoute - reserved);
+        this.reserveAvailable = reserved;
+        this.weights = parseWeights(weights);
+        this.acquireTimeoutMillis = acquireTimeout.toMillis();
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "exotel-connection-quotas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("Exotel connection quotas: {} per partition (at most {}), {} in reserve, weights={}",
+                    basePermits, maxPartitionPermits, reserved, this.weights);
+    }
+
+    /**
+     * Take a connection slot for the account, waiting at most the acquire timeout
+     * Fails with OutboundRejectedException when neither the partition nor the reserve frees up in time,
+     * and with CancellationException if the token is cancelled while waiting
+     */
+    public CompletableFuture<Permit> acquire(String apiDomain, String accountSid, CancellationToken cancellation) {
+        String key = apiDomain + "|" + accountSid;
+        Waiter waiter;
+        synchronized (this) {
+            Partition partition = partitions.computeIfAbsent(key, k -> new Partition(k, permitsFor(apiDomain, accountSid)));
+            if (partition.inUse < partition.permits && partition.waiting == 0) {
+                partition.inUse++;
+                return CompletableFuture.completedFuture(new Permit(partition));
+            }
+            if (reserveAvailable > 0) {
+                reserveAvailable--;
+                logger.debug("Partition {} at quota, borrowing from the shared reserve", accountSid);
+                return CompletableFuture.completedFuture(new Permit(null));
+            }
+            waiter = new Waiter(partition);
+            partition.waiting++;
+            waiters.addLast(waiter);
+        }
+
+        ScheduledFuture<?> timeout = timer.schedule(() -> {
+            if (withdraw(waiter)) {
+                waiter.permit.completeExceptionally(new OutboundRejectedException("connection_quota_exceeded",
+                    "Too many concurrent Exotel requests for account " + accountSid + ", please retry shortly", 0));
+            }
+        }, acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        Runnable abort = () -> {
+            if (withdraw(waiter)) {
+                waiter.permit.completeExceptionally(new CancellationException("Request cancelled"));
+            }
+        };
+        cancellation.onAbort(abort);
+        return waiter.permit.whenComplete((permit, error) -> {
+            timeout.cancel(false);
+            cancellation.clearAbort(abort);
+        });
+    }
+
+    public synchronized int partitionCount() {
+        return partitions.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    // Take a waiter out of the queue; false if it already got a slot (or was withdrawn)
+    private boolean withdraw(Waiter waiter) {
+        synchronized (this) {
+            if (!waiters.remove(waiter)) {
+                return false;
+            }
+            waiter.partition.waiting--;
+            retireIfIdle(waiter.partition);
+        }
+        return true;
+    }
+
+    // Hand the slot straight to the oldest waiter that may use it, completed outside the lock:
+    // a partition slot to its own partition's waiters, a reserve slot to anyone's
+    private void release(Partition partition) {
+        Waiter next = null;
+        synchronized (this) {
+            for (Iterator<Waiter> queued = waiters.iterator(); queued.hasNext(); ) {
+                Waiter waiter = queued.next();
+                if (partition == null || waiter.partition == partition) {
+                    queued.remove();
+                    next = waiter;
+                    break;
+                }
+            }
+            if (next != null) {
+                next.partition.waiting--;
+            } else if (partition == null) {
+                reserveAvailable++;
+            } else {
+                partition.inUse--;
+                retireIfIdle(partition);
+            }
+        }
+        if (next != null) {
+            next.permit.complete(new Permit(partition));
+        }
+    }
+
+    // The tenant-supplied accountSid would otherwise keep partitions around forever
+    private void retireIfIdle(Partition partition) {
+        if (partition.inUse == 0 && partition.waiting == 0) {
+            partitions.remove(partition.key, partition);
+        }
+    }
+
+    // Weight for "apiDomain|accountSid" if configured, else for the accountSid alone, else 1
+    private int permitsFor(String apiDomain, String accountSid) {
+        Integer weight = weights.get(apiDomain + "|" + accountSid);
+        if (weight == null) {
+            weight = weights.getOrDefault(accountSid, 1);
+        }
+        return Math.max(1, Math.min(maxPartitionPermits, basePermits * weight));
+    }
+
+    // "acc1=3,https://api.in.exotel.com|acc2=2"
+    private static Map<String, Integer> parseWeights(String spec) {
+        Map<String, Integer> result = new HashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return result;
+        }
+        for (String entry : spec.split(",")) {
+            int separator = entry.lastIndexOf('=');
+            if (separator <= 0) {
+                logger.warn("Ignoring malformed connection quota weight: {}", entry);
+                continue;
+            }
+            try {
+                result.put(entry.substring(0, separator).trim(), Integer.parseInt(entry.substring(separator + 1).trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring malformed connection quota weight: {}", entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A partition's slots in use and how many of the queued requests are its own
+     */
+    private static final class Partition {
+
+        private final String key;
+        private final int permits;
+        private int inUse;
+        private int waiting;
+
+        private Partition(String key, int permits) {
+            this.key = key;
+            this.permits = permits;
+        }
+    }
+
+    private static final class Waiter {
+
+        private final Partition partition;
+        private final CompletableFuture<Permit> permit = new CompletableFuture<>();
+
+        private Waiter(Partition partition) {
+            this.partition = partition;
+        }
+    }
+
+    /**
+     * A held connection slot, from a partition or from the reserve; release exactly once when the exchange is over
+     */
+    public final class Permit {
+
+        // null for a reserve slot
+        private final Partition partition;
+
+        private Permit(Partition partition) {
+            this.partition = partition;
+        }
+
+        public void release() {
+            ExotelConnectionQuotas.this.release(partition);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.mcp_api.service;
+
+/**
+ * Exotel answered with an HTTP error status (4xx or 5xx)
+ */
+public class ExotelHttpException extends RuntimeException {
+
+    private final int statusCode;
+    private final long retryAfterMillis;
+
+    public ExotelHttpException(int statusCode, String message, long retryAfterMillis) {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isServerError() {
+        return statusCode >= 500;
+    }
+
+    /**
+     * Delay requested by a Retry-After header, 0 if none was sent
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.mcp_api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Token buckets in front of Exotel's per-account rate limits, one per accountSid and endpoint
+ * (Calls/connect, Sms/send, Sms/bulksend...). A request over the limit reserves the next token and waits
+ * for it on a timer instead of being sent into a 429; the wait is bounded, beyond it the request is
+ * rejected with OutboundRejectedException ("rate_limited"). Endpoints without a configured rate are not limited.
+ * The accountSid comes from the tenant, so buckets that have refilled completely, and would behave exactly like
+ * a new one, are retired by a periodic sweep.
+ */
+@Component
+public class ExotelRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExotelRateLimiter.class);
+
+    private static final Pattern ENDPOINT = Pattern.compile("/Accounts/([^/]+)/([^?#]+?)(?:\\.json)?(?:[?#].*)?$");
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Double> rates;
+    private final double burstSeconds;
+    private final long maxWaitNanos;
+    private final ScheduledExecutorService timer;
+
+    public ExotelRateLimiter(@Value("${exotel.rate-limit.rates:Calls/connect=10,Sms/send=20,Sms/bulksend=5}") String rates,
+                             @Value("${exotel.rate-limit.burst:1s}") Duration burst,
+                             @Value("${exotel.rate-limit.max-wait:2s}") Duration maxWait,
+                             @Value("${exotel.rate-limit.sweep-interval:1m}") Duration sweepInterval) {
+        this.rates = parseRates(rates);
+        this.burstSeconds = Math.max(0.001, burst.toNanos() / 1e9);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "exotel-rate-limit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepMillis = Math.max(1000, sweepInterval.toMillis());
+        timer.scheduleWithFixedDelay(this::retireIdleBuckets, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+        logger.info("Exotel rate limits (per second): {}, max wait {}ms", this.rates, maxWait.toMillis());
+    }
+
+    /**
+     * Completes when the request may be sent: immediately while under the limit, after a short wait when over it
+     * Fails with OutboundRejectedException when the wait would exceed the configured maximum
+     */
+    public CompletableFuture<Void> acquire(String url) {
+        Matcher matcher = ENDPOINT.matcher(url);
+        if (!matcher.find()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String accountSid = matcher.group(1);
+        String endpoint = matcher.group(2);
+        Double rate = rates.get(accountSid + "|" + endpoint);
+        if (rate == null) {
+            rate = rates.get(endpoint);
+        }
+        if (rate == null || rate <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        double permitsPerSecond = rate;
+        // Reserved under the map's lock for the key, so the sweep cannot retire the bucket in between
+        long[] reserved = new long[1];
+        buckets.compute(accountSid + "|" + endpoint, (key, bucket) -> {
+            Bucket current = bucket != null ? bucket : new Bucket(permitsPerSecond);
+            reserved[0] = current.reserve();
+            return current;
+        });
+        long waitNanos = reserved[0];
+        if (waitNanos == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (waitNanos < 0) {
+            long retryAfterMillis = TimeUnit.NANOSECONDS.toMillis(-waitNanos);
+            return CompletableFuture.failedFuture(new OutboundRejectedException("rate_limited",
+                "Exotel rate limit for " + endpoint + " reached on account " + accountSid + ", please retry shortly",
+                retryAfterMillis));
+        }
+        logger.debug("Rate limit for {} on {}: waiting {}ms", endpoint, accountSid, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        CompletableFuture<Void> ready = new CompletableFuture<>();
+        timer.schedule(() -> ready.complete(null), waitNanos, TimeUnit.NANOSECONDS);
+        return ready;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    // Drop buckets that are full again: nothing is waiting on them and a new bucket would start the same way
+    void retireIdleBuckets() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        for (String key : buckets.keySet()) {
+            buckets.computeIfPresent(key, (k, bucket) -> bucket.isFull(now) ? null : bucket);
+        }
+        if (buckets.size() < before) {
+            logger.debug("Retired {} idle rate limit buckets, {} left", before - buckets.size(), buckets.size());
+        }
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    // "Calls/connect=10,Sms/send=20,acc1|Sms/send=50" (requests per second)
+    private static Map<String, Double> parseRates(String spec) {
+        Map<String, Double> result = new HashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return result;
+        }
+        for (String entry : spec.split(",")) {
+            int separator = entry.lastIndexOf('=');
+            if (separator <= 0) {
+                logger.warn("Ignoring malformed rate limit: {}", entry);
+                continue;
+            }
+            try {
+                result.put(entry.substring(0, separator).trim(), Double.parseDouble(entry.substring(separator + 1).trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring malformed rate limit: {}", entry);
+            }
+        }
+        return result;
+    }
+
+    private final class Bucket {
+
+        private final double permitsPerSecond;
+        private final double capacity;
+        private double tokens;
+        private long lastRefillNanos = System.nanoTime();
+
+        private Bucket(double permitsPerSecond) {
+            this.permitsPerSecond = permitsPerSecond;
+            this.capacity = Math.max(1, permitsPerSecond * burstSeconds);
+            this.tokens = capacity;
+        }
+
+        /**
+         * Take a token: 0 if one was available, else the wait until the reserved token is due,
+         * or minus the wait if that is beyond the limit (nothing is reserved then)
+         */
+        synchronized long reserve() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) / 1e9 * permitsPerSecond);
+            lastRefillNanos = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            // Tokens go negative for requests already queued, so each waiter gets its own slot
+            long waitNanos = (long) ((1 - tokens) / permitsPerSecond * 1e9);
+            if (waitNanos > maxWaitNanos) {
+                return -waitNanos;
+            }
+            tokens -= 1;
+            return Math.max(1, waitNanos);
+        }
+
+        synchronized boolean isFull(long now) {
+            return tokens + (now - lastRefillNanos) / 1e9 * permitsPerSecond >= capacity;
+        }
+    }
+}
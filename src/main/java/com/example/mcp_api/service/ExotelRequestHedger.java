@@ -0,0 +1,205 @@
+package com.example.mcp_api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hedged requests for idempotent Exotel GETs. When an attempt has not answered by the observed latency
+ * percentile (p95 by default) of its apiDomain and endpoint class, a second identical attempt is sent;
+ * the first response wins and the other attempt is cancelled. Hedges draw on a budget that earns a
+ * fraction of a hedge per request, so a uniformly slow Exotel is not sent twice the traffic.
+ * Off by default. Latency windows are kept for at most max-tracked apiDomain/endpoint pairs (apiDomain comes
+ * from the caller's credentials); idle windows make room for new ones, otherwise a new pair is not hedged.
+ */
+@Component
+public class ExotelRequestHedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExotelRequestHedger.class);
+
+    private static final int WINDOW = 128;
+    private static final long IDLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final Map<String, Latencies> latencies = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer;
+    private final boolean enabled;
+    private final double percentile;
+    private final int minSamples;
+    private final int maxTracked;
+
+    // Hedge budget: each request deposits `budgetRatio` hedges
+    private final double budgetRatio;
+    private final double maxBalance = 10;
+    private double balance = maxBalance;
+
+    public ExotelRequestHedger(@Value("${exotel.hedge.enabled:false}") boolean enabled,
+                               @Value("${exotel.hedge.percentile:95}") double percentile,
+                               @Value("${exotel.hedge.min-samples:20}") int minSamples,
+                               @Value("${exotel.hedge.budget.ratio:0.1}") double budgetRatio,
+                               @Value("${exotel.hedge.max-tracked:1000}") int maxTracked) {
+        this.enabled = enabled;
+        this.percentile = Math.min(100, Math.max(1, percentile));
+        this.minSamples = Math.min(WINDOW, Math.max(1, minSamples));
+        this.maxTracked = Math.max(1, maxTracked);
+        this.budgetRatio = budgetRatio;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "exotel-hedge");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Run an idempotent operation against url, hedging it once it is slower than usual
+     * Only for requests that are safe to send twice
+     */
+    public <T> CompletableFuture<T> execute(String apiDomain, String url, ExotelRetryExecutor.Attempt<T> operation,
+                                            CancellationToken cancellation) {
+        if (!enabled) {
+            return operation.execute(cancellation);
+        }
+        String key = apiDomain + "|" + ExotelCircuitBreakers.endpointClass(url);
+        Latencies window = track(key);
+        if (window == null) {
+            logger.debug("Tracking latencies for {} pairs already, not hedging {}", maxTracked, key);
+            return operation.execute(cancellation);
+        }
+        deposit();
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CancellationToken primary = new CancellationToken();
+        CancellationToken hedge = new CancellationToken();
+        // Attempts still running; once it drops to zero no hedge may start
+        AtomicInteger pending = new AtomicInteger(1);
+
+        // Each attempt has its own token so the loser can be cancelled alone; the caller's token cancels both
+        Runnable abort = () -> {
+            primary.cancel("request cancelled");
+            hedge.cancel("request cancelled");
+        };
+        cancellation.onAbort(abort);
+        result.whenComplete((response, error) -> cancellation.clearAbort(abort));
+
+        launch(operation, primary, hedge, window, pending, result);
+
+        long delayNanos = window.hedgeDelayNanos();
+        if (delayNanos >= 0 && !result.isDone()) {
+            ScheduledFuture<?> hedgeTimer = timer.schedule(() -> {
+                if (result.isDone() || cancellation.isCancelled()) {
+                    return;
+                }
+                if (!withdraw()) {
+                    logger.debug("Hedge budget exhausted, not hedging {}", key);
+                    return;
+                }
+                if (pending.getAndUpdate(n -> n == 0 ? 0 : n + 1) == 0) {
+                    return;
+                }
+                logger.debug("No response from {} after {}ms, sending hedged request", key,
+                    TimeUnit.NANOSECONDS.toMillis(delayNanos));
+                launch(operation, hedge, primary, window, pending, result);
+            }, delayNanos, TimeUnit.NANOSECONDS);
+            result.whenComplete((response, error) -> hedgeTimer.cancel(false));
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    private <T> void launch(ExotelRetryExecutor.Attempt<T> operation, CancellationToken own, CancellationToken other,
+                            Latencies window, AtomicInteger pending, CompletableFuture<T> result) {
+        long startNanos = System.nanoTime();
+        CompletableFuture<T> call;
+        try {
+            call = operation.execute(own);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((response, error) -> {
+            if (error == null) {
+                window.record(System.nanoTime() - startNanos);
+                if (result.complete(response)) {
+                    other.cancel("hedged request answered first");
+                }
+            } else if (pending.decrementAndGet() == 0) {
+                // Fail only once no attempt is left that could still succeed
+                result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error);
+            }
+        });
+    }
+
+    // Latency window for key, null if the map is full even after dropping idle windows
+    private Latencies track(String key) {
+        Latencies window = latencies.get(key);
+        if (window == null) {
+            if (latencies.size() >= maxTracked) {
+                long now = System.nanoTime();
+                latencies.values().removeIf(idle -> now - idle.lastUsedNanos > IDLE_NANOS);
+                if (latencies.size() >= maxTracked) {
+                    return null;
+                }
+            }
+            window = latencies.computeIfAbsent(key, k -> new Latencies());
+        }
+        window.lastUsedNanos = System.nanoTime();
+        return window;
+    }
+
+    private synchronized void deposit() {
+        balance = Math.min(maxBalance, balance + budgetRatio);
+    }
+
+    private synchronized boolean withdraw() {
+        if (balance < 1) {
+            return false;
+        }
+        balance -= 1;
+        return true;
+    }
+
+    // Latencies of the last WINDOW successful attempts, the hedge delay is refreshed every 16 samples
+    private final class Latencies {
+
+        private final long[] samples = new long[WINDOW];
+        private int next;
+        private int count;
+        private long hedgeDelayNanos = -1;
+        private volatile long lastUsedNanos = System.nanoTime();
+
+        synchronized void record(long latencyNanos) {
+            samples[next] = latencyNanos;
+            next = (next + 1) % WINDOW;
+            if (count < WINDOW) {
+                count++;
+            }
+            if (count >= minSamples && (hedgeDelayNanos < 0 || next % 16 == 0)) {
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                int index = (int) Math.ceil(percentile / 100 * count) - 1;
+                hedgeDelayNanos = sorted[Math.max(0, Math.min(count - 1, index))];
+            }
+        }
+
+        // -1 until enough samples have been seen
+        synchronized long hedgeDelayNanos() {
+            return hedgeDelayNanos;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.mcp_api.service;
+
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.annotation.PreDestroy;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLHandshakeException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Retries for outbound Exotel requests.
+ * Backoff delays are scheduled on a timer thread, so no request thread sleeps between attempts.
+ * Errors are classified by type and HTTP status, never by message text. Retries also draw on a
+ * server-wide budget that earns a fraction of a retry per request, so an Exotel outage cannot
+ * multiply outbound traffic by the number of attempts. Non-idempotent requests (sends) are not retried
+ * once they may have reached Exotel, i.e. after any I/O failure past connecting.
+ */
+@Component
+public class ExotelRetryExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExotelRetryExecutor.class);
+
+    private final ScheduledExecutorService timer;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    // Retry budget: each request deposits `budgetRatio` retries, plus a floor of `minRetriesPerSecond`
+    private final double budgetRatio;
+    private final double minRetriesPerSecond;
+    private final double maxBalance;
+    private double balance;
+    private long lastRefillNanos = System.nanoTime();
+
+    public ExotelRetryExecutor(@Value("${exotel.retry.base-delay:1s}") Duration baseDelay,
+                               @Value("${exotel.retry.max-delay:10s}") Duration maxDelay,
+                               @Value("${exotel.retry.budget.ratio:0.2}") double budgetRatio,
+                               @Value("${exotel.retry.budget.min-per-second:5}") double minRetriesPerSecond) {
+        this.baseDelayMillis = baseDelay.toMillis();
+        this.maxDelayMillis = maxDelay.toMillis();
+        this.budgetRatio = budgetRatio;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.maxBalance = Math.max(10, minRetriesPerSecond * 10);
+        this.balance = maxBalance;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "exotel-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Run an outbound operation with up to maxAttempts attempts
+     * The future fails with the last error, or with a CancellationException once the token is cancelled
+     */
+    public <T> CompletableFuture<T> execute(Attempt<T> operation, int maxAttempts, CancellationToken cancellation) {
+        return execute(operation, maxAttempts, true, cancellation);
+    }
+
+    /**
+     * As above; a non-idempotent operation is not retried after an error that means it may have been processed
+     */
+    public <T> CompletableFuture<T> execute(Attempt<T> operation, int maxAttempts, boolean idempotent,
+                                            CancellationToken cancellation) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        deposit();
+        attempt(operation, 1, maxAttempts, idempotent, cancellation, result);
+        return result;
+    }
+
+    /**
+     * Whether an error is worth retrying: I/O failures (except unknown hosts and TLS failures),
+     * timeouts, 429 and 5xx responses
+     */
+    public static boolean isRetryable(Throwable error) {
+        if (error instanceof ExotelHttpException http) {
+            return http.isServerError() || http.getStatusCode() == 429;
+        }
+        if (error instanceof UnknownHostException || error instanceof SSLException) {
+            return false;
+        }
+        return error instanceof IOException || error instanceof TimeoutException;
+    }
+
+    /**
+     * Whether a failed request may still have been processed by Exotel: any I/O failure once the request may
+     * have been sent (response timeout, connection closed or reset, HTTP/2 stream reset) leaves the outcome
+     * unknown. Failures to connect or to get a pooled connection are not, the request never left.
+     */
+    public static boolean mayHaveBeenProcessed(Throwable error) {
+        if (error instanceof ConnectException || error instanceof ConnectTimeoutException
+            || error instanceof UnknownHostException || error instanceof NoRouteToHostException
+            || error instanceof SSLHandshakeException) {
+            return false;
+        }
+        return error instanceof IOException;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    private <T> void attempt(Attempt<T> operation, int attempt, int maxAttempts, boolean idempotent,
+                             CancellationToken cancellation, CompletableFuture<T> result) {
+        if (cancellation.isCancelled()) {
+            result.completeExceptionally(new CancellationException("Request cancelled"));
+            return;
+        }
+        CompletableFuture<T> call;
+        try {
+            call = operation.execute(cancellation);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        call.whenComplete((response, error) -> {
+            if (error == null) {
+                if (attempt > 1) {
+                    logger.info("Request succeeded on attempt {}/{}", attempt, maxAttempts);
+                }
+                result.complete(response);
+                return;
+            }
+            Throwable e = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cancellation.isCancelled()) {
+                result.completeExceptionally(e instanceof CancellationException ? e : new CancellationException("Request cancelled"));
+                return;
+            }
+            if (!isRetryable(e)) {
+                logger.warn("Non-retryable error encountered: {}", e.getMessage());
+                result.completeExceptionally(e);
+                return;
+            }
+            if (!idempotent && mayHaveBeenProcessed(e)) {
+                logger.warn("Not retrying non-idempotent request, it may have been processed: {}", e.getMessage());
+                result.completeExceptionally(e);
+                return;
+            }
+            if (attempt == maxAttempts) {
+                logger.error("Request failed after {} attempts. Final error: {}", maxAttempts, e.getMessage());
+                result.completeExceptionally(e);
+                return;
+            }
+            if (!withdraw()) {
+                logger.warn("Retry budget exhausted, not retrying: {}", e.getMessage());
+                result.completeExceptionally(e);
+                return;
+            }
+
+            long delay = backoff(attempt, e);
+            logger.warn("Request attempt {}/{} failed: {}. Retrying in {}ms", attempt, maxAttempts, e.getMessage(), delay);
+
+            // Cancellation wakes the call up instead of letting it wait out the backoff
+            Runnable wakeUp = () -> result.completeExceptionally(new CancellationException("Request cancelled"));
+            cancellation.onAbort(wakeUp);
+            timer.schedule(() -> {
+                cancellation.clearAbort(wakeUp);
+                if (!result.isDone()) {
+                    attempt(operation, attempt + 1, maxAttempts, idempotent, cancellation, result);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    // Exponential backoff with up to 50% jitter (1s, 2s, 4s...), stretched to honour Retry-After
+    private long backoff(int attempt, Throwable error) {
+        long delay = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+        delay += ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        if (error instanceof ExotelHttpException http && http.getRetryAfterMillis() > delay) {
+            delay = http.getRetryAfterMillis();
+        }
+        return Math.min(delay, maxDelayMillis);
+    }
+
+    private synchronized void deposit() {
+        refill();
+        balance = Math.min(maxBalance, balance + budgetRatio);
+    }
+
+    private synchronized boolean withdraw() {
+        refill();
+        if (balance < 1) {
+            return false;
+        }
+        balance -= 1;
+        return true;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        balance = Math.min(maxBalance, balance + (now - lastRefillNanos) / 1e9 * minRetriesPerSecond);
+        lastRefillNanos = now;
+    }
+
+    /**
+     * One attempt of an outbound operation, aborted through the cancellation token
+     */
+    @FunctionalInterface
+    public interface Attempt<T> {
+        CompletableFuture<T> execute(CancellationToken cancellation);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.mcp_api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Suppresses duplicate sends (SMS, calls) to Exotel. Sends are matched on a hash of their account, endpoint
+ * and form fields (recipients, body or flow...). A send with the same hash that is still in flight, or that
+ * completed within the window, gets the original response instead of reaching Exotel again. Each logical send
+ * gets its own random idempotency key, which all of its retries reuse. Sends that definitely failed are forgotten so they can be
+ * retried; sends whose outcome is unknown (I/O failure after the request may have been sent) are remembered
+ * like successes.
+ */
+@Component
+public class ExotelSendDeduplicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExotelSendDeduplicator.class);
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long windowMillis;
+    private final int maxEntries;
+
+    public ExotelSendDeduplicator(@Value("${exotel.idempotency.window:2m}") Duration window,
+                                  @Value("${exotel.idempotency.max-entries:10000}") int maxEntries) {
+        this.windowMillis = window.toMillis();
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Run send(idempotencyKey), with a fresh random key, unless the same send is in flight or completed within the window,
+     * in which case the original response (or failure) is returned, flagged as a duplicate
+     */
+    public CompletableFuture<Sent> execute(String accountSid, String url, Map<String, ?> data,
+                                           Function<String, CompletableFuture<String>> send) {
+        String key = idempotencyKey(accountSid, url, data);
+        if (windowMillis <= 0 || maxEntries <= 0) {
+            return send.apply(UUID.randomUUID().toString()).thenApply(response -> new Sent(response, false));
+        }
+        Entry fresh = new Entry();
+        Entry entry = entries.compute(key, (k, existing) -> existing == null || existing.isExpired() ? fresh : existing);
+        if (entry != fresh) {
+            logger.info("Duplicate send to {} suppressed (idempotency key {}), returning the original response", url,
+                        entry.idempotencyKey);
+            return entry.response.thenApply(response -> new Sent(response, true));
+        }
+        if (entries.size() > maxEntries) {
+            evict();
+        }
+
+        CompletableFuture<String> call;
+        try {
+            call = send.apply(entry.idempotencyKey);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((response, error) -> {
+            entry.expiryTime = System.currentTimeMillis() + windowMillis;
+            if (error != null && !ExotelRetryExecutor.mayHaveBeenProcessed(unwrap(error))) {
+                entries.remove(key, entry);
+            }
+            if (error != null) {
+                entry.response.completeExceptionally(unwrap(error));
+            } else {
+                entry.response.complete(response);
+            }
+        });
+        return entry.response.thenApply(response -> new Sent(response, false));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Identifies identical sends: SHA-256 over the account, endpoint and the form fields in name order
+    static String idempotencyKey(String accountSid, String url, Map<String, ?> data) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(accountSid).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(url.getBytes(StandardCharsets.UTF_8));
+            for (Map.Entry<String, ?> field : new TreeMap<>(data).entrySet()) {
+                digest.update((byte) '\n');
+                digest.update(field.getKey().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '=');
+                digest.update(String.valueOf(field.getValue()).getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    // Drop expired entries first; if still full, drop arbitrary completed entries down to 90% of the cap
+    private void evict() {
+        entries.values().removeIf(Entry::isExpired);
+        int target = maxEntries - Math.max(1, maxEntries / 10);
+        Iterator<Entry> values = entries.values().iterator();
+        while (entries.size() > target && values.hasNext()) {
+            if (values.next().response.isDone()) {
+                values.remove();
+            }
+        }
+        logger.debug("Evicted idempotency entries, size now {}", entries.size());
+    }
+
+    /**
+     * Exotel's response to a send; duplicate if it is the response to an earlier identical send,
+     * whose results (e.g. initial callback records) were already handled by that send's caller
+     */
+    public record Sent(String response, boolean duplicate) {
+    }
+
+    private static final class Entry {
+
+        private final String idempotencyKey = UUID.randomUUID().toString();
+        private final CompletableFuture<String> response = new CompletableFuture<>();
+        // Set when the send completes; in-flight sends never expire
+        private volatile long expiryTime = Long.MAX_VALUE;
+
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiryTime;
+        }
+    }
+}
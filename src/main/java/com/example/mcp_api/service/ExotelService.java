@@ -1,38 +1,59 @@
 package com.example.mcp_api.service;
 
-import org.apache.hc.client5.http.classic.HttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleResponseConsumer;
+import org.apache.hc.client5.http.config.ConnectionConfig;
 import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.nio.AsyncRequestProducer;
+import org.apache.hc.core5.http.nio.support.AsyncRequestBuilder;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
 import org.apache.hc.core5.util.Timeout;
-import org.apache.hc.core5.http.ClassicHttpRequest;
-import org.apache.hc.core5.http.HttpEntity;
-import org.apache.hc.core5.http.io.entity.StringEntity;
-import org.apache.hc.core5.http.io.support.ClassicRequestBuilder;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.example.mcp_api.config.McpToolExecutor;
 import com.example.mcp_api.repository.SmsCallbackRepository;
 import com.example.mcp_api.repository.VoiceCallbackRepository;
 import com.example.mcp_api.entity.SmsCallback;
 import com.example.mcp_api.entity.VoiceCallback;
 import com.example.mcp_api.dto.AuthData;
+import com.example.mcp_api.dto.ExotelCall;
+import com.example.mcp_api.dto.ExotelSmsMessage;
 
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.UUID;
 import java.util.Optional;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
 
@@ -41,32 +62,85 @@ public class ExotelService {
     
     private static final Logger logger = LoggerFactory.getLogger(ExotelService.class);
     
+    private static final String MCP_SESSION_ID_HEADER = "Mcp-Session-Id";
+    
+    // Initial callbacks from bulk responses are saved in batches of this size
+    private static final int PERSIST_BATCH_SIZE = 500;
+    
     @Autowired
     private SmsCallbackRepository smsCallbackRepository;
     
     @Autowired
     private VoiceCallbackRepository voiceCallbackRepository;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private AuthDataCache authDataCache;
+    
+    @Autowired
+    private McpSessionStore sessionStore;
+    
+    @Autowired
+    private ExotelConnectionQuotas connectionQuotas;
+    
+    @Autowired
+    private ExotelRetryExecutor retryExecutor;
+    
+    @Autowired
+    private ExotelCircuitBreakers circuitBreakers;
+    
+    @Autowired
+    private ExotelRateLimiter rateLimiter;
+    
+    @Autowired
+    private ExotelConcurrencyLimiter concurrencyLimiter;
+    
+    @Autowired
+    private ExotelRequestHedger requestHedger;
+    
+    @Autowired
+    private ExotelSendDeduplicator sendDeduplicator;
+    
+    @Autowired
+    private ExotelSmsCoalescer smsCoalescer;
+    
+    @Autowired
+    private McpToolExecutor toolExecutor;
+    
     @Value("${exotel.base.url:http://localhost:8085}")
     private String baseUrl;
     
-    private final HttpClient httpClient;
+    private final CloseableHttpAsyncClient httpClient;
     private final String callbackId = UUID.randomUUID().toString();
     private final ObjectMapper objectMapper = new ObjectMapper();
     
     // In-memory cache for metadata (simple optimization without Redis)
     private final Map<String, CacheEntry> metadataCache = new ConcurrentHashMap<>();
     
-    public ExotelService() {
-        this.httpClient = createOptimizedHttpClient();
+    public ExotelService(@Value("${exotel.http.pool.max-total:50}") int maxConnections,
+                         @Value("${exotel.http.pool.max-per-route:25}") int maxConnectionsPerRoute) {
+        this.httpClient = createOptimizedHttpClient(maxConnections, maxConnectionsPerRoute);
+        this.httpClient.start();
     }
     
-    // Create optimized HTTP client with connection pooling and timeouts
-    private CloseableHttpClient createOptimizedHttpClient() {
+    // Create optimized non-blocking HTTP client with connection pooling and timeouts
+    // HTTP/2 is negotiated via TLS ALPN where the API domain supports it, requests are then multiplexed
+    private CloseableHttpAsyncClient createOptimizedHttpClient(int maxConnections, int maxConnectionsPerRoute) {
         // Configure connection pool
-        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
-        connectionManager.setMaxTotal(50); // Maximum total connections
-        connectionManager.setDefaultMaxPerRoute(20); // Maximum connections per route
+        PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections) // Maximum total connections
+            // No apiDomain may take the whole pool; tenants on the same apiDomain share a route,
+            // fairness between them comes from ExotelConnectionQuotas (sized from max-per-route)
+            .setMaxConnPerRoute(maxConnectionsPerRoute)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofSeconds(10))
+                .build())
+            .setDefaultTlsConfig(TlsConfig.custom()
+                .setVersionPolicy(HttpVersionPolicy.NEGOTIATE)
+                .build())
+            .build();
         
         // Configure request timeouts
         RequestConfig requestConfig = RequestConfig.custom()
@@ -74,13 +148,18 @@ public class ExotelService {
             .setResponseTimeout(Timeout.ofSeconds(30)) // Socket timeout for response
             .build();
         
-        return HttpClients.custom()
+        return HttpAsyncClients.custom()
             .setConnectionManager(connectionManager)
             .setDefaultRequestConfig(requestConfig)
             .setKeepAliveStrategy((response, context) -> Timeout.ofSeconds(30)) // Keep-alive for 30 seconds
             .build();
     }
     
+    @PreDestroy
+    public void shutdown() {
+        httpClient.close(CloseMode.GRACEFUL);
+    }
+    
     // Simple cache entry for in-memory caching
     private static class CacheEntry {
         private final String value;
@@ -108,6 +187,13 @@ public class ExotelService {
     @Tool(name = "sendSmsToUser", 
           description = "Send an SMS message to a single user using DLT-compliant parameters. Requires phone number, DLT template ID, DLT entity ID, and message content. Authentication is handled automatically from the session.")
     public String sendSmsToUser(String toNumber, String message, String dltTemplateId, String dltEntityId) {
+        return sendSmsToUserAsync(toNumber, message, dltTemplateId, dltEntityId).join();
+    }
+    
+    /**
+     * Non-blocking variant of sendSmsToUser: no thread is parked while Exotel responds
+     */
+    public CompletableFuture<String> sendSmsToUserAsync(String toNumber, String message, String dltTemplateId, String dltEntityId) {
         logger.info("Sending SMS to: {}", toNumber);
         try {
             String authHeader = getCurrentAuthHeader();
@@ -126,22 +212,27 @@ public class ExotelService {
             data.put("DltEntityId", dltEntityId);
             
             String smsUrl = authData.apiDomain() + "/v1/Accounts/" + authData.accountSid() + "/Sms/send.json";
-            String response = makeHttpRequest(smsUrl, data, authData);
-            logger.info("SMS response: {}", response);
-            
-            // Save initial SMS callback from response (async for better performance)
-            CompletableFuture.runAsync(() -> {
-                try {
-            saveInitialSmsCallback(response, authData.tokenMd5());
-                } catch (Exception e) {
-                    logger.warn("Async SMS callback save failed: {}", e.getMessage());
+            ToolInvocationContext context = ToolInvocationContext.current();
+            return makeSmsRequestAsync(smsUrl, data, authData).thenApplyAsync(sent -> context.call(() -> {
+                String response = sent.response();
+                logger.info("SMS response: {}", response);
+            
+                // Save initial SMS callback from response (async for better performance)
+                // A duplicate send returns the original response, which its first caller already saved
+                if (!sent.duplicate()) {
+                    CompletableFuture.runAsync(() -> {
+                        try {
+                    saveInitialSmsCallback(response, authData.tokenMd5());
+                        } catch (Exception e) {
+                            logger.warn("Async SMS callback save failed: {}", e.getMessage());
+                        }
+                    }, toolExecutor.continuationExecutor());
                 }
-            });
             
-            return response;
+                return response;
+            }), toolExecutor.continuationExecutor()).exceptionally(e -> toolErrorMessage("Error sending SMS", e));
         } catch (Exception e) {
-            logger.error("Error sending SMS", e);
-            return "{\"message\":\"" + e.getMessage() + "\"}";
+            return CompletableFuture.completedFuture(toolErrorMessage("Error sending SMS", e));
         }
     }
     
@@ -153,6 +244,13 @@ public class ExotelService {
     @Tool(name = "sendVoiceCallToUser", 
           description = "Initiates a voice call to the specified user number using a fixed source number. Requires phone number. Authentication is handled automatically from the session.")
     public String sendVoiceCallToUser(String toNumber) {
+        return sendVoiceCallToUserAsync(toNumber).join();
+    }
+    
+    /**
+     * Non-blocking variant of sendVoiceCallToUser: no thread is parked while Exotel responds
+     */
+    public CompletableFuture<String> sendVoiceCallToUserAsync(String toNumber) {
         logger.info("Sending voice call to: {}", toNumber);
         try {
             String authHeader = getCurrentAuthHeader();
@@ -169,20 +267,24 @@ public class ExotelService {
             data.put("Record", "true");
             
             String voiceUrl = authData.apiDomain() + "/v1/Accounts/" + authData.accountSid() + "/Calls/connect.json";
-            String response = makeHttpRequest(voiceUrl, data, authData);
-            logger.info("Voice call response: {}", response);
-            
-            // Save initial call data to database
-            try {
-                saveInitialVoiceCallback(response, authData.tokenMd5());
-            } catch (Exception e) {
-                logger.error("Error saving initial voice callback", e);
-            }
+            ToolInvocationContext context = ToolInvocationContext.current();
+            return makeHttpRequestAsync(voiceUrl, data, authData).thenApplyAsync(sent -> context.call(() -> {
+                String response = sent.response();
+                logger.info("Voice call response: {}", response);
+            
+                // Save initial call data to database (already saved if this is a duplicate send)
+                if (!sent.duplicate()) {
+                    try {
+                        saveInitialVoiceCallback(response, authData.tokenMd5());
+                    } catch (Exception e) {
+                        logger.error("Error saving initial voice callback", e);
+                    }
+                }
             
-            return response;
+                return response;
+            }), toolExecutor.continuationExecutor()).exceptionally(e -> toolErrorMessage("Error sending voice call", e));
         } catch (Exception e) {
-            logger.error("Error sending voice call", e);
-            return "{\"message\":\"" + e.getMessage() + "\"}";
+            return CompletableFuture.completedFuture(toolErrorMessage("Error sending voice call", e));
         }
     }
     
@@ -194,6 +296,13 @@ public class ExotelService {
     @Tool(name = "outgoingCallToConnectNumber", 
           description = "Initiates an outgoing voice call from a specified number to a target number. Requires from number and to number. Authentication is handled automatically from the session.")
     public String outgoingCallToConnectNumber(String fromNumber, String toNumber) {
+        return outgoingCallToConnectNumberAsync(fromNumber, toNumber).join();
+    }
+    
+    /**
+     * Non-blocking variant of outgoingCallToConnectNumber: no thread is parked while Exotel responds
+     */
+    public CompletableFuture<String> outgoingCallToConnectNumberAsync(String fromNumber, String toNumber) {
         logger.info("Sending voice call from: {} to: {}", fromNumber, toNumber);
         try {
             String authHeader = getCurrentAuthHeader();
@@ -209,20 +318,24 @@ public class ExotelService {
             data.put("StatusCallbackContentType", "application/json");
             data.put("Record", "true");
             String voiceUrl = authData.apiDomain() + "/v1/Accounts/" + authData.accountSid() + "/Calls/connect.json";
-            String response = makeHttpRequest(voiceUrl, data, authData);
-            logger.info("Voice call response: {}", response);
-            
-            // Save initial call data to database
-            try {
-                saveInitialVoiceCallback(response, authData.tokenMd5());
-            } catch (Exception e) {
-                logger.error("Error saving initial voice callback", e);
-            }
+            ToolInvocationContext context = ToolInvocationContext.current();
+            return makeHttpRequestAsync(voiceUrl, data, authData).thenApplyAsync(sent -> context.call(() -> {
+                String response = sent.response();
+                logger.info("Voice call response: {}", response);
+            
+                // Save initial call data to database (already saved if this is a duplicate send)
+                if (!sent.duplicate()) {
+                    try {
+                        saveInitialVoiceCallback(response, authData.tokenMd5());
+                    } catch (Exception e) {
+                        logger.error("Error saving initial voice callback", e);
+                    }
+                }
             
-            return response;
+                return response;
+            }), toolExecutor.continuationExecutor()).exceptionally(e -> toolErrorMessage("Error connecting call", e));
         } catch (Exception e) {
-            logger.error("Error connecting call", e);
-            return "{\"message\":\"" + e.getMessage() + "\"}";
+            return CompletableFuture.completedFuture(toolErrorMessage("Error connecting call", e));
         }
     }
     
@@ -234,6 +347,13 @@ public class ExotelService {
     @Tool(name = "sendMessageToBulkNumbers", 
           description = "Send same SMS to multiple phone numbers at once. Requires phone numbers list and message. Authentication is handled automatically from the session.")
     public String sendMessageToBulkNumbers(List<String> toNumbers, String message) {
+        return sendMessageToBulkNumbersAsync(toNumbers, message).join();
+    }
+    
+    /**
+     * Non-blocking variant of sendMessageToBulkNumbers: no thread is parked while Exotel responds
+     */
+    public CompletableFuture<String> sendMessageToBulkNumbersAsync(List<String> toNumbers, String message) {
         logger.info("Sending bulk SMS to: {}", toNumbers);
         try {
             String authHeader = getCurrentAuthHeader();
@@ -249,17 +369,25 @@ public class ExotelService {
             data.put("Body", message);
             data.put("StatusCallback", statusCallbackUrl);
             data.put("StatusCallbackContentType", "application/json");
-            String smsUrl = authData.apiDomain() + "/v1/Accounts/" + authData.accountSid() + "/Sms/send.json";
-            String response = makeHttpRequest(smsUrl, data, authData);
-            logger.info("Bulk SMS response: {}", response);
+            ToolInvocationContext.reportProgress(1, 3.0, "Sending bulk SMS to " + toNumbers.size() + " recipients");
             
-            // Save initial bulk SMS callbacks from response
-            saveInitialBulkSmsCallback(response, authData.tokenMd5());
+            String smsUrl = authData.apiDomain() + "/v1/Accounts/" + authData.accountSid() + "/Sms/send.json";
+            ToolInvocationContext context = ToolInvocationContext.current();
+            return makeHttpRequestAsync(smsUrl, data, authData).thenApplyAsync(sent -> context.call(() -> {
+                String response = sent.response();
+                logger.info("Bulk SMS response: {}", response);
+                ToolInvocationContext.reportProgress(2, 3.0, "Exotel accepted bulk SMS, recording delivery status");
+            
+                // Save initial bulk SMS callbacks from response (already saved if this is a duplicate send)
+                if (!sent.duplicate()) {
+                    saveInitialBulkSmsCallback(response, authData.tokenMd5());
+                }
+                ToolInvocationContext.reportProgress(3, 3.0, "Recorded delivery status for " + toNumbers.size() + " recipients");
             
-            return response;
+                return response;
+            }), toolExecutor.continuationExecutor()).exceptionally(e -> toolErrorMessage("Error sending bulk SMS", e));
         } catch (Exception e) {
-            logger.error("Error sending bulk SMS", e);
-            return "{\"message\":\"" + e.getMessage() + "\"}";
+            return CompletableFuture.completedFuture(toolErrorMessage("Error sending bulk SMS", e));
         }
     }
     
@@ -276,6 +404,13 @@ public class ExotelService {
     @Tool(name = "sendDynamicBulkSms", 
           description = "Send dynamic SMS to multiple numbers in one request. Each message can have different content. Requires list of messages with Body and To fields. Authentication is handled automatically from the session.")
     public String sendDynamicBulkSms(List<com.example.mcp_api.dto.Message> messages) {
+        return sendDynamicBulkSmsAsync(messages).join();
+    }
+    
+    /**
+     * Non-blocking variant of sendDynamicBulkSms: no thread is parked while Exotel responds
+     */
+    public CompletableFuture<String> sendDynamicBulkSmsAsync(List<com.example.mcp_api.dto.Message> messages) {
         logger.info("Sending dynamic bulk SMS with {} messages", messages.size());
         try {
             String authHeader = getCurrentAuthHeader();
@@ -296,17 +431,25 @@ public class ExotelService {
             }
             
             logger.info("Created dynamic bulk SMS data with {} messages", messages.size());
-            String smsUrl = authData.apiDomain() + "/v1/Accounts/" + authData.accountSid() + "/Sms/bulksend.json";
-            String response = makeHttpRequest(smsUrl, data, authData);
-            logger.info("Dynamic bulk SMS response: {}", response);
+            ToolInvocationContext.reportProgress(1, 3.0, "Sending " + messages.size() + " dynamic SMS messages");
             
-            // Save initial dynamic bulk SMS callbacks from response
-            saveInitialBulkSmsCallback(response, authData.tokenMd5());
+            String smsUrl = authData.apiDomain() + "/v1/Accounts/" + authData.accountSid() + "/Sms/bulksend.json";
+            ToolInvocationContext context = ToolInvocationContext.current();
+            return makeHttpRequestAsync(smsUrl, data, authData).thenApplyAsync(sent -> context.call(() -> {
+                String response = sent.response();
+                logger.info("Dynamic bulk SMS response: {}", response);
+                ToolInvocationContext.reportProgress(2, 3.0, "Exotel accepted dynamic bulk SMS, recording delivery status");
+            
+                // Save initial dynamic bulk SMS callbacks from response (already saved if this is a duplicate send)
+                if (!sent.duplicate()) {
+                    saveInitialBulkSmsCallback(response, authData.tokenMd5());
+                }
+                ToolInvocationContext.reportProgress(3, 3.0, "Recorded delivery status for " + messages.size() + " messages");
             
-            return response;
+                return response;
+            }), toolExecutor.continuationExecutor()).exceptionally(e -> toolErrorMessage("Error sending dynamic bulk SMS", e));
         } catch (Exception e) {
-            logger.error("Error sending dynamic bulk SMS", e);
-            return "{\"message\":\"" + e.getMessage() + "\"}";
+            return CompletableFuture.completedFuture(toolErrorMessage("Error sending dynamic bulk SMS", e));
         }
     }
     
@@ -328,20 +471,22 @@ public class ExotelService {
             data.put("StatusCallbackContentType", "application/json");
             data.put("Record", "true");
             String voiceUrl = authData.apiDomain() + "/v1/Accounts/" + authData.accountSid() + "/Calls/connect.json";
-            String response = makeHttpRequest(voiceUrl, data, authData);
+            ExotelSendDeduplicator.Sent sent = makeHttpRequest(voiceUrl, data, authData);
+            String response = sent.response();
             logger.info("Call flow response: {}", response);
             
-            // Save initial call data to database
-            try {
-                saveInitialVoiceCallback(response, authData.tokenMd5());
-            } catch (Exception e) {
-                logger.error("Error saving initial voice callback", e);
+            // Save initial call data to database (already saved if this is a duplicate send)
+            if (!sent.duplicate()) {
+                try {
+                    saveInitialVoiceCallback(response, authData.tokenMd5());
+                } catch (Exception e) {
+                    logger.error("Error saving initial voice callback", e);
+                }
             }
             
             return response;
         } catch (Exception e) {
-            logger.error("Error connecting call flow", e);
-            return "{\"message\":\"" + e.getMessage() + "\"}";
+            return toolErrorMessage("Error connecting call flow", e);
         }
     }
     
@@ -532,7 +677,7 @@ public class ExotelService {
             String response = makeGetRequest(url, authData);
             return response;
         } catch (Exception e) {
-            return "{\"data\":\"Not able to fetch bulk call details due to " + e.getMessage() + "\"}";
+            return toolErrorMessage("Error fetching bulk call details", e);
         }
     }
     
@@ -557,8 +702,7 @@ public class ExotelService {
                 15); // 15 minutes TTL
                 
         } catch (Exception e) {
-            logger.error("Error fetching number metadata for {}: {}", number, e.getMessage());
-            return "Not able to fetch number metadata due to " + e.getMessage();
+            return toolErrorMessage("Error fetching number metadata for " + number, e);
         }
     }
     
@@ -572,6 +716,12 @@ public class ExotelService {
             throw new IllegalArgumentException("Authorization header is required");
         }
         
+        AuthData cached = authDataCache.get(authHeader);
+        if (cached != null) {
+            logger.debug("Auth cache HIT for accountSid={}", cached.accountSid());
+            return cached;
+        }
+        
         try {
             logger.debug("Parsing auth string from header...");
             Map<String, String> authMap = parseAuthString(authHeader);
@@ -604,6 +754,8 @@ public class ExotelService {
             logger.debug("Created AuthData: fromNumber={}, callerId={}, apiDomain={}, accountSid={}", 
                         authData.fromNumber(), authData.callerId(), authData.apiDomain(), authData.accountSid());
             
+            // Only successfully parsed credentials are cached, the fallback below is rebuilt every time
+            authDataCache.put(authHeader, authData);
             return authData;
         } catch (Exception e) {
             logger.error("AUTH PARSING ERROR: Error parsing auth header: {}", e.getMessage(), e);
@@ -633,29 +785,123 @@ public class ExotelService {
             input = "default_input";
         }
         MessageDigest md = MessageDigest.getInstance("MD5");
-        byte[] digest = md.digest(input.getBytes(StandardCharsets.UTF_8));
-        StringBuilder sb = new StringBuilder();
-        for (byte b : digest) {
-            sb.append(String.format("%02x", b));
-        }
-        return sb.toString();
+        return HexFormat.of().formatHex(md.digest(input.getBytes(StandardCharsets.UTF_8)));
     }
     
     // Enhanced HTTP POST with retry mechanism and circuit breaker
-    private String makeHttpRequest(String url, Map<String, ?> data, AuthData authData) throws Exception {
-        return executeWithRetry(() -> performHttpRequest(url, data, authData, "POST"), 3);
+    private ExotelSendDeduplicator.Sent makeHttpRequest(String url, Map<String, ?> data, AuthData authData) throws Exception {
+        return await(makeHttpRequestAsync(url, data, authData));
     }
     
     // Enhanced HTTP GET with retry mechanism
     private String makeGetRequest(String url, AuthData authData) throws Exception {
-        return executeWithRetry(() -> performHttpRequest(url, null, authData, "GET"), 3);
+        return await(makeGetRequestAsync(url, authData));
+    }
+    
+    // Sends are deduplicated by idempotency key, and not retried once they may have reached Exotel
+    private CompletableFuture<ExotelSendDeduplicator.Sent> makeHttpRequestAsync(String url, Map<String, ?> data, AuthData authData) {
+        return sendDeduplicator.execute(authData.accountSid(), url, data, idempotencyKey ->
+            executeWithRetry(cancellation -> performHttpRequest(url, data, authData, "POST", idempotencyKey, cancellation), 3, false));
+    }
+    
+    // Single SMS send; with coalescing enabled, concurrent sends of the same SMS to other numbers share one request
+    private CompletableFuture<ExotelSendDeduplicator.Sent> makeSmsRequestAsync(String url, Map<String, String> data, AuthData authData) {
+        if (!smsCoalescer.isEnabled()) {
+            return makeHttpRequestAsync(url, data, authData);
+        }
+        Map<String, String> shared = new HashMap<>(data);
+        shared.remove("To");
+        String groupKey = ExotelSendDeduplicator.idempotencyKey(authData.tokenMd5(), url, shared);
+        AtomicReference<CompletableFuture<String>> delivery = new AtomicReference<>();
+        CompletableFuture<ExotelSendDeduplicator.Sent> sent = sendDeduplicator.execute(authData.accountSid(), url, data, idempotencyKey -> {
+            delivery.set(smsCoalescer.submit(groupKey, data.get("To"), recipients -> sendSmsBatch(url, shared, recipients, authData)));
+            return delivery.get();
+        });
+        
+        // Cancelling withdraws this recipient from a batch not sent yet; once it is sent, this caller just stops
+        // waiting while the batch, and the deduplication entry, follow Exotel's actual outcome
+        CancellationToken cancellation = ToolInvocationContext.cancellationToken();
+        CompletableFuture<ExotelSendDeduplicator.Sent> result = sent.copy();
+        Runnable abort = () -> {
+            CompletableFuture<String> pending = delivery.get();
+            if (pending != null) {
+                smsCoalescer.withdraw(groupKey, pending);
+            }
+            result.completeExceptionally(new CancellationException("Request cancelled"));
+        };
+        cancellation.onAbort(abort);
+        return result.whenComplete((response, error) -> cancellation.clearAbort(abort));
+    }
+    
+    // One Sms/send.json request for a coalesced batch, To[i] for each recipient, split back into one response per recipient
+    private CompletableFuture<List<String>> sendSmsBatch(String url, Map<String, String> shared, List<String> recipients,
+                                                         AuthData authData) {
+        Map<String, Object> data = new HashMap<>(shared);
+        if (recipients.size() == 1) {
+            data.put("To", recipients.get(0));
+        } else {
+            for (int i = 0; i < recipients.size(); i++) {
+                data.put("To[" + i + "]", recipients.get(i));
+            }
+        }
+        // One key per batch, shared by its retries
+        String idempotencyKey = UUID.randomUUID().toString();
+        // The batch runs on its own (never cancelled) token: it may run on any caller's thread or on the coalescer's
+        // timer, and one caller cancelling must not abort the other recipients' send
+        return retryExecutor.execute(cancellation -> performHttpRequest(url, data, authData, "POST", idempotencyKey, cancellation),
+                                     3, false, CancellationToken.NONE)
+            .thenApply(response -> recipients.size() == 1 ? List.of(response) : splitBulkSmsResponse(response, recipients));
+    }
+    
+    // Each recipient's {"SMSMessage": ...} entry, matched on the (normalized) To number. Entries are matched by position
+    // only when none of them carries a To. Each entry is used once; a recipient without an entry gets null, which fails
+    // that caller instead of handing it another recipient's result
+    List<String> splitBulkSmsResponse(String response, List<String> recipients) {
+        try {
+            JsonNode parsed = objectMapper.readTree(response);
+            List<JsonNode> entries = new ArrayList<>();
+            if (parsed.isArray()) {
+                parsed.forEach(entries::add);
+            } else {
+                entries.add(parsed);
+            }
+            Map<String, Deque<JsonNode>> byNumber = new HashMap<>();
+            for (JsonNode entry : entries) {
+                String to = entry.path("SMSMessage").path("To").asText("");
+                if (!to.isEmpty()) {
+                    byNumber.computeIfAbsent(formatPhoneNumberForQuery(to), k -> new ArrayDeque<>()).add(entry);
+                }
+            }
+            boolean byPosition = byNumber.isEmpty();
+            List<String> responses = new ArrayList<>(recipients.size());
+            for (int i = 0; i < recipients.size(); i++) {
+                JsonNode entry;
+                if (byPosition) {
+                    entry = i < entries.size() ? entries.get(i) : null;
+                } else {
+                    Deque<JsonNode> matches = byNumber.get(formatPhoneNumberForQuery(recipients.get(i)));
+                    entry = matches != null ? matches.poll() : null;
+                }
+                responses.add(entry != null ? objectMapper.writeValueAsString(entry) : null);
+            }
+            return responses;
+        } catch (JsonProcessingException e) {
+            // Exotel accepted the batch, so the callers must not resend: fail them with an unknown-outcome I/O error
+            throw new CompletionException(e);
+        }
+    }
+    
+    private CompletableFuture<String> makeGetRequestAsync(String url, AuthData authData) {
+        // GETs are idempotent, a slow attempt can be hedged with a second one
+        return executeWithRetry(cancellation -> requestHedger.execute(authData.apiDomain(), url,
+            attempt -> performHttpRequest(url, null, authData, "GET", null, attempt), cancellation), 3, true);
     }
     
     // Backward compatibility methods (deprecated)
     @Deprecated
     private String makeHttpRequest(String url, Map<String, ?> data, String token) throws Exception {
         AuthData authData = new AuthData(token, "", "", "", "", "", "", "Basic");
-        return makeHttpRequest(url, data, authData);
+        return makeHttpRequest(url, data, authData).response();
     }
     
     @Deprecated  
@@ -664,58 +910,48 @@ public class ExotelService {
         return makeGetRequest(url, authData);
     }
     
-    // Generic retry mechanism with exponential backoff
-    private String executeWithRetry(HttpOperation operation, int maxAttempts) throws Exception {
-        Exception lastException = null;
-        
-        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+    // Wait for an outbound request on the calling (tool) thread, rethrowing its failure as-is
+    private <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw e;
+        }
+    }
+    
+    // Tool result for a failed call, in the shape the tools have always returned
+    // Local rejections (open circuit, exhausted quota) also carry a machine-readable reason and retry hint
+    private String toolErrorMessage(String context, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof OutboundRejectedException rejected) {
+            // Expected while shedding load, no stack trace
+            logger.warn("{}: {}", context, rejected.getMessage());
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("message", rejected.getMessage());
+            body.put("error", rejected.getReason());
+            if (rejected.getRetryAfterMillis() > 0) {
+                body.put("retry_after_ms", rejected.getRetryAfterMillis());
+            }
             try {
-                String result = operation.execute();
-                if (attempt > 1) {
-                    logger.info("Request succeeded on attempt {}/{}", attempt, maxAttempts);
-                }
-                return result;
-            } catch (Exception e) {
-                lastException = e;
-                
-                if (attempt == maxAttempts) {
-                    logger.error("Request failed after {} attempts. Final error: {}", maxAttempts, e.getMessage());
-                    break;
-                }
-                
-                // Check if error is retryable
-                if (!isRetryableError(e)) {
-                    logger.warn("Non-retryable error encountered: {}", e.getMessage());
-                    throw e;
-                }
-                
-                // Calculate backoff delay (exponential with jitter)
-                long baseDelay = 1000 * (long) Math.pow(2, attempt - 1); // 1s, 2s, 4s...
-                long jitter = (long) (Math.random() * 500); // Add 0-500ms jitter
-                long delay = baseDelay + jitter;
-                
-                logger.warn("Request attempt {}/{} failed: {}. Retrying in {}ms", 
-                           attempt, maxAttempts, e.getMessage(), delay);
-                
-                try {
-                    Thread.sleep(delay);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException("Interrupted during retry", ie);
-                }
+                return objectMapper.writeValueAsString(body);
+            } catch (JsonProcessingException e) {
+                logger.debug("Could not serialize rejection: {}", e.getMessage());
             }
+        } else {
+            logger.error(context, cause);
         }
-        
-        throw new RuntimeException("Request failed after " + maxAttempts + " attempts", lastException);
+        return "{\"message\":\"" + cause.getMessage() + "\"}";
     }
     
-    // Check if error is retryable (network errors, timeouts, 5xx responses)
-    private boolean isRetryableError(Exception e) {
-        String message = e.getMessage().toLowerCase();
-        return message.contains("timeout") || 
-               message.contains("connection") || 
-               message.contains("socket") ||
-               message.contains("5") && message.contains("server error");
+    // Generic retry mechanism with exponential backoff (see ExotelRetryExecutor)
+    // Cancelled calls stop retrying and wake up from backoff immediately
+    private CompletableFuture<String> executeWithRetry(ExotelRetryExecutor.Attempt<String> operation, int maxAttempts,
+                                                       boolean idempotent) {
+        return retryExecutor.execute(operation, maxAttempts, idempotent, ToolInvocationContext.cancellationToken());
     }
     
     // Functional interface for HTTP operations
@@ -725,7 +961,8 @@ public class ExotelService {
     }
     
     // Unified HTTP request execution with Bearer/Basic auth support
-    private String performHttpRequest(String url, Map<String, ?> data, AuthData authData, String method) throws Exception {
+    private CompletableFuture<String> performHttpRequest(String url, Map<String, ?> data, AuthData authData, String method,
+                                                         String idempotencyKey, CancellationToken cancellation) {
         if (logger.isDebugEnabled()) {
             logger.debug("=== HTTP {} REQUEST DEBUG ===", method);
         logger.debug("Request URL: {}", url);
@@ -744,68 +981,131 @@ public class ExotelService {
         // }
         authorizationHeader = "Basic " + authData.token();
         
-        ClassicHttpRequest request;
+        AsyncRequestBuilder requestBuilder;
         
         if ("POST".equals(method) && data != null) {
-        String formData = buildFormData(data);
             if (logger.isDebugEnabled()) {
-        logger.debug("Request Body: {}", formData);
+                logger.debug("Request Form: {}", data);
             }
         
-            request = ClassicRequestBuilder.post(url)
-                .setHeader("Authorization", authorizationHeader)
-            .setHeader("accept", "application/json")
-            .setHeader("Content-Type", "application/x-www-form-urlencoded")
-            .setEntity(new StringEntity(formData))
-            .build();
+            // Fields are URL-encoded as the body is written, no intermediate form string
+            requestBuilder = AsyncRequestBuilder.post(url)
+                .setEntity(new FormEntityProducer(data));
         } else {
-            request = ClassicRequestBuilder.get(url)
-                .setHeader("Authorization", authorizationHeader)
-                .setHeader("accept", "application/json")
-                .build();
+            requestBuilder = AsyncRequestBuilder.get(url);
+        }
+        requestBuilder
+            .setHeader("Authorization", authorizationHeader)
+            .setHeader("accept", "application/json");
+        if (idempotencyKey != null) {
+            requestBuilder.setHeader("Idempotency-Key", idempotencyKey);
         }
+        AsyncRequestProducer request = requestBuilder.build();
         
         if (logger.isDebugEnabled()) {
             logger.debug("Authorization Header: {}", maskAuthHeader(authorizationHeader));
         }
         
-        long startTime = System.currentTimeMillis();
-        
-        return httpClient.execute(request, response -> {
-            long duration = System.currentTimeMillis() - startTime;
-            int statusCode = response.getCode();
-            String reasonPhrase = response.getReasonPhrase();
-            
-            if (logger.isDebugEnabled()) {
-                logger.debug("=== HTTP {} RESPONSE DEBUG ===", method);
-                logger.debug("Response Status: {} {} ({}ms)", statusCode, reasonPhrase, duration);
+        // Stay under the account's Exotel rate limit (short wait on a timer), then send
+        return rateLimiter.acquire(url).thenCompose(ready -> {
+            // Fail fast while Exotel is failing for this domain and endpoint class
+            ExotelCircuitBreakers.Call breakerCall = circuitBreakers.acquire(authData.apiDomain(), url);
+            // Shed load beyond what the domain currently sustains
+            ExotelConcurrencyLimiter.Permit inFlight;
+            try {
+                inFlight = concurrencyLimiter.acquire(authData.apiDomain());
+            } catch (OutboundRejectedException e) {
+                breakerCall.complete(e);
+                throw e;
             }
-            
-            // Check for HTTP errors
-            if (statusCode >= 400) {
-                String errorMessage = String.format("HTTP %d %s for %s %s", 
-                                                   statusCode, reasonPhrase, method, url);
-                if (statusCode >= 500) {
-                    throw new RuntimeException("Server error: " + errorMessage);
-                } else {
-                    throw new IllegalArgumentException("Client error: " + errorMessage);
+            return connectionQuotas.acquire(authData.apiDomain(), authData.accountSid(), cancellation).thenCompose(permit -> {
+                breakerCall.started();
+                inFlight.started();
+                CompletableFuture<String> result = executeRequest(request, method, url, cancellation);
+                return result.whenComplete((response, error) -> permit.release());
+            }).whenComplete((response, error) -> {
+                inFlight.complete(error);
+                breakerCall.complete(error);
+            });
+        });
+    }
+    
+    private CompletableFuture<String> executeRequest(AsyncRequestProducer request, String method, String url,
+                                                     CancellationToken cancellation) {
+        long startTime = System.currentTimeMillis();
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Future<SimpleHttpResponse> exchange = httpClient.execute(request, SimpleResponseConsumer.create(), new FutureCallback<>() {
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                try {
+                    result.complete(readResponse(response, method, url, startTime));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
                 }
             }
             
-            HttpEntity entity = response.getEntity();
-            if (entity != null) {
-                String responseBody = new String(entity.getContent().readAllBytes(), StandardCharsets.UTF_8);
-                if (logger.isDebugEnabled()) {
-                    logger.debug("Response Body: {} ({}ms)", responseBody, duration);
-                }
-                return responseBody;
+            @Override
+            public void failed(Exception e) {
+                result.completeExceptionally(e);
             }
             
-            if (logger.isDebugEnabled()) {
-                logger.debug("Response Body: Empty (null entity) ({}ms)", duration);
+            @Override
+            public void cancelled() {
+                result.completeExceptionally(new CancellationException("Request cancelled"));
             }
-            return "{}";
         });
+        
+        // A cancelled tool call aborts the exchange
+        Runnable abort = () -> exchange.cancel(true);
+        cancellation.onAbort(abort);
+        return result.whenComplete((response, error) -> cancellation.clearAbort(abort));
+    }
+    
+    // Retry-After in seconds (the HTTP-date form is not used by Exotel), 0 if absent
+    private long retryAfterMillis(SimpleHttpResponse response) {
+        Header retryAfter = response.getFirstHeader("Retry-After");
+        if (retryAfter == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(retryAfter.getValue().trim())) * 1000;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+    
+    private String readResponse(SimpleHttpResponse response, String method, String url, long startTime) {
+        long duration = System.currentTimeMillis() - startTime;
+        int statusCode = response.getCode();
+        String reasonPhrase = response.getReasonPhrase();
+        
+        if (logger.isDebugEnabled()) {
+            logger.debug("=== HTTP {} RESPONSE DEBUG ===", method);
+            logger.debug("Response Status: {} {} ({}ms, {})", statusCode, reasonPhrase, duration, response.getVersion());
+        }
+        
+        // Check for HTTP errors
+        if (statusCode >= 400) {
+            String errorMessage = String.format("HTTP %d %s for %s %s", 
+                                               statusCode, reasonPhrase, method, url);
+            throw new ExotelHttpException(statusCode,
+                                          (statusCode >= 500 ? "Server error: " : "Client error: ") + errorMessage,
+                                          retryAfterMillis(response));
+        }
+        
+        byte[] body = response.getBodyBytes();
+        if (body != null) {
+            String responseBody = new String(body, StandardCharsets.UTF_8);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Response Body: {} ({}ms)", responseBody, duration);
+            }
+            return responseBody;
+        }
+        
+        if (logger.isDebugEnabled()) {
+            logger.debug("Response Body: Empty (null entity) ({}ms)", duration);
+        }
+        return "{}";
     }
     
     // In-memory caching for metadata and auth tokens (without Redis)
@@ -830,6 +1130,10 @@ public class ExotelService {
             }
             
             return freshData;
+        } catch (RuntimeException e) {
+            // Passed through as is, so rejections (OutboundRejectedException) keep their reason
+            logger.warn("Error in cached metadata fetch for key {}: {}", cacheKey, e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.warn("Error in cached metadata fetch for key {}: {}", cacheKey, e.getMessage());
             throw new RuntimeException("Failed to fetch metadata", e);
@@ -925,18 +1229,6 @@ public class ExotelService {
         return queryFormat;
     }
     
-    // Helper method to build form data
-    private String buildFormData(Map<String, ?> data) {
-        StringBuilder sb = new StringBuilder();
-        for (Map.Entry<String, ?> entry : data.entrySet()) {
-            if (sb.length() > 0) {
-                sb.append("&");
-            }
-            sb.append(entry.getKey()).append("=").append(entry.getValue());
-        }
-        return sb.toString();
-    }
-    
     // Enhanced method to parse auth string with Bearer and Basic support
     private Map<String, String> parseAuthString(String authHeader) {
         Map<String, String> result = new HashMap<>();
@@ -972,7 +1264,7 @@ public class ExotelService {
             // Convert single quotes to double quotes for valid JSON
             if (jsonString.contains("'")) {
                 logger.debug("Converting single quotes to double quotes for JSON parsing");
-                jsonString = jsonString.replaceAll("'", "\"");
+                jsonString = jsonString.replace('\'', '"');
                 logger.debug("After quote conversion: {}", maskAuthHeader(jsonString));
             }
             
@@ -981,8 +1273,7 @@ public class ExotelService {
                 jsonString = "{" + jsonString + "}";
             }
             
-            // Parse JSON using ObjectMapper
-            ObjectMapper objectMapper = new ObjectMapper();
+            // Parse JSON using the shared ObjectMapper
             JsonNode jsonNode = objectMapper.readTree(jsonString);
             
             // Extract all fields from JSON
@@ -1051,44 +1342,35 @@ public class ExotelService {
         return result;
     }
     
-    // Session-based auth storage for MCP context
-    private final Map<String, String> sessionAuthHeaders = new HashMap<>();
-    private volatile String lastKnownAuthHeader = null;
-    
-    // Helper method to get current authorization header from request
+    // Helper method to get current authorization header for the running tool call
     private String getCurrentAuthHeader() {
-        String sessionId = getCurrentSessionId();
+        // Credentials attached to the invocation (MCP interceptor, REST controller, tool executor)
+        String contextAuthHeader = ToolInvocationContext.authHeader();
+        if (contextAuthHeader != null) {
+            return contextAuthHeader;
+        }
+        
+        HttpServletRequest request = getCurrentRequest();
+        String sessionId = getCurrentSessionId(request);
         logger.debug("=== AUTH HEADER RETRIEVAL DEBUG ===");
-        logger.debug("Getting auth header for session: {}", sessionId);
-        logger.debug("Current session auth headers stored: {}", sessionAuthHeaders.keySet());
-        logger.debug("Last known auth header exists: {}", lastKnownAuthHeader != null ? "YES" : "NO");
+        logger.debug("No invocation credentials, getting auth header for session: {}", sessionId);
         
-        try {
-            // Try to get from HTTP request context first
-            ServletRequestAttributes requestAttributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
-            HttpServletRequest request = requestAttributes.getRequest();
+        if (request != null) {
             String authHeader = request.getHeader("Authorization");
-            
-            logger.debug("HTTP Request context available - checking Authorization header");
             logger.debug("Authorization header present: {}", authHeader != null ? "YES" : "NO");
             
             if (authHeader != null && !authHeader.trim().isEmpty()) {
                 logger.debug("Found Authorization header in HTTP request: {} (Session: {})", 
                            maskAuthHeader(authHeader), sessionId);
                 // Store for this session
-                sessionAuthHeaders.put(sessionId, authHeader);
-                lastKnownAuthHeader = authHeader;
-                logger.debug("Stored auth header for session and updated lastKnownAuthHeader");
+                sessionStore.put(sessionId, authHeader);
                 return authHeader;
-            } else {
-                logger.warn("AUTH RETRIEVAL WARNING: No Authorization header found in HTTP request (Session: {})", sessionId);
             }
-        } catch (Exception e) {
-            logger.debug("No HTTP request context available (likely MCP call), checking session storage (Session: {}). Exception: {}", sessionId, e.getMessage());
+            logger.warn("AUTH RETRIEVAL WARNING: No Authorization header found in HTTP request (Session: {})", sessionId);
         }
         
         // Try to get from session storage
-        String storedAuthHeader = sessionAuthHeaders.get(sessionId);
+        String storedAuthHeader = sessionStore.get(sessionId);
         logger.debug("Checking session storage for sessionId: {} -> Found: {}", sessionId, storedAuthHeader != null ? "YES" : "NO");
         
         if (storedAuthHeader != null) {
@@ -1097,50 +1379,24 @@ public class ExotelService {
             return storedAuthHeader;
         }
         
-        // Try alternative MCP session patterns
-        if (sessionId.startsWith("MCP-")) {
-            // Try global MCP key first
-            String globalMcpAuth = sessionAuthHeaders.get("MCP-GLOBAL");
-            if (globalMcpAuth != null) {
-                logger.info("Using global MCP auth for session: {}", sessionId);
-                return globalMcpAuth;
-            }
-            
-            // Try different thread-based patterns
-            for (String key : sessionAuthHeaders.keySet()) {
-                if (key.startsWith("MCP-")) {
-                    logger.info("Found alternative MCP session auth: {} for requested session: {}", 
-                               key, sessionId);
-                    return sessionAuthHeaders.get(key);
-                }
-            }
-        }
-        
-        // Try last known auth header
-        if (lastKnownAuthHeader != null) {
-            logger.info("Using last known Authorization header for session: {} -> {}", 
-                       sessionId, maskAuthHeader(lastKnownAuthHeader));
-            return lastKnownAuthHeader;
-        }
-        
         logger.warn("No Authorization header available for session: {}, using default", sessionId);
         return "default_auth_header";
     }
     
-    // Helper method to get current session ID
-    private String getCurrentSessionId() {
-        try {
-            ServletRequestAttributes requestAttributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
-            HttpServletRequest request = requestAttributes.getRequest();
-            String sessionId = request.getSession().getId();
-            logger.debug("HTTP Session ID: {}", sessionId);
-            return sessionId;
-        } catch (Exception e) {
-            // In MCP context, use thread name as session identifier
-            String threadSession = "MCP-" + Thread.currentThread().getId();
-            logger.debug("MCP Thread Session: {}", threadSession);
-            return threadSession;
+    // Helper method to get the current HTTP request, null outside a request
+    private HttpServletRequest getCurrentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servletAttributes ? servletAttributes.getRequest() : null;
+    }
+    
+    // Helper method to get the MCP session ID of a request, null when the client has none
+    // (never creates an HttpSession, the stateless MCP/REST requests do not need one)
+    private String getCurrentSessionId(HttpServletRequest request) {
+        if (request == null) {
+            return null;
         }
+        String mcpSessionId = request.getHeader(MCP_SESSION_ID_HEADER);
+        return mcpSessionId != null && !mcpSessionId.isBlank() ? mcpSessionId : null;
     }
     
     // Helper method to mask auth header for logging
@@ -1167,15 +1423,14 @@ public class ExotelService {
     
     // Helper method to get auth header for MCP calls
     private String getAuthHeaderForMCP(String authToken) {
-        String sessionId = getCurrentSessionId();
+        String sessionId = getCurrentSessionId(getCurrentRequest());
         logger.info("Getting auth header for MCP call (Session: {})", sessionId);
         
         if (authToken != null && !authToken.trim().isEmpty() && !authToken.equals("null")) {
             logger.info("Using provided auth token for MCP call: {} (Session: {})", 
                        maskAuthHeader(authToken), sessionId);
             // Store this token for future use
-            sessionAuthHeaders.put(sessionId, authToken);
-            lastKnownAuthHeader = authToken;
+            sessionStore.put(sessionId, authToken);
             return authToken;
         }
         
@@ -1183,32 +1438,16 @@ public class ExotelService {
         return getCurrentAuthHeader();
     }
     
-    // Public method to set auth header for session (for controller use)
+    // Public method to set auth header for the request's MCP session (for the MCP interceptor)
     public void setAuthHeaderForSession(String authHeader) {
-        String sessionId = getCurrentSessionId();
+        String sessionId = getCurrentSessionId(getCurrentRequest());
         logger.debug("=== SETTING AUTH HEADER FOR SESSION DEBUG ===");
         logger.debug("Setting Authorization header for session: {} -> {}", 
                    sessionId, maskAuthHeader(authHeader));
         logger.debug("Auth header length: {}", authHeader != null ? authHeader.length() : 0);
-        logger.debug("Session storage before: {}", sessionAuthHeaders.keySet());
-        
-        sessionAuthHeaders.put(sessionId, authHeader);
-        lastKnownAuthHeader = authHeader;
-        logger.debug("Updated lastKnownAuthHeader");
         
-        // Also store with persistent MCP session key for thread-based sessions
-        String mcpSessionKey = "MCP-" + Thread.currentThread().getId();
-        sessionAuthHeaders.put(mcpSessionKey, authHeader);
-        logger.debug("Also storing auth header for MCP session key: {}", mcpSessionKey);
-        logger.debug("Session storage after: {}", sessionAuthHeaders.keySet());
-    }
-    
-    // Public method to set auth header for specific session key
-    public void setAuthHeaderForSessionKey(String sessionKey, String authHeader) {
-        logger.info("Setting Authorization header for session key: {} -> {}", 
-                   sessionKey, maskAuthHeader(authHeader));
-        sessionAuthHeaders.put(sessionKey, authHeader);
-        lastKnownAuthHeader = authHeader;
+        sessionStore.put(sessionId, authHeader);
+        logger.debug("Active sessions: {}", sessionStore.size());
     }
     
     // Method to update SMS callback from webhook (new signature)
@@ -1241,6 +1480,10 @@ public class ExotelService {
                 logger.warn("No existing SMS callback found for SmsSid: {}, creating initial record from callback", smsSid);
                 createInitialSmsRecordFromCallback(callbackData, userId);
             }
+            
+            // Let MCP subscribers of exotel://sms/{smsSid} know the status changed
+            eventPublisher.publishEvent(new CallbackStatusEvent(
+                CallbackStatusEvent.Kind.SMS, smsSid, userId, cleanValue(callbackData.get("Status"))));
         } else {
             logger.error("SmsSid is null or empty in callback data");
         }
@@ -1271,75 +1514,46 @@ public class ExotelService {
     
     // Method to save initial SMS callback from SMS response
     public void saveInitialSmsCallback(String smsResponse, String userId) {
-        try {
-            JsonNode jsonNode = objectMapper.readTree(smsResponse);
-            JsonNode smsNode = jsonNode.get("SMSMessage");
-            
-            if (smsNode != null) {
-                String toNumber = smsNode.has("To") ? smsNode.get("To").asText() : "";
-                String formattedToNumber = formatPhoneNumberForQuery(toNumber);
-                logger.debug("Initial SMS callback: original to_number='{}' -> formatted='{}'", toNumber, formattedToNumber);
-                
-                SmsCallback callback = new SmsCallback();
-                callback.setUserId(userId);
-                callback.setSmsSid(smsNode.has("Sid") ? smsNode.get("Sid").asText() : "");
-                callback.setToNumber(formattedToNumber);
-                callback.setStatus(smsNode.has("Status") ? smsNode.get("Status").asText() : "");
-                callback.setDetailedStatus(smsNode.has("DetailedStatus") ? smsNode.get("DetailedStatus").asText() : "");
-                callback.setDetailedStatusCode(smsNode.has("DetailedStatusCode") ? smsNode.get("DetailedStatusCode").asText() : "");
-                callback.setSmsUnits(smsNode.has("SmsUnits") ? smsNode.get("SmsUnits").asText() : "");
-                callback.setDateSent(smsNode.has("DateCreated") ? smsNode.get("DateCreated").asText() : "");
-                
-                smsCallbackRepository.save(callback);
-                logger.info("Saved initial SMS callback with SmsSid: {} and to_number: {}", callback.getSmsSid(), formattedToNumber);
-            }
-        } catch (Exception e) {
-            logger.error("Error saving initial SMS callback", e);
-        }
+        saveInitialBulkSmsCallback(smsResponse, userId);
     }
     
-    // Method to save initial bulk SMS callbacks from bulk SMS response array
+    // Method to save initial SMS callbacks from a single or bulk (array) SMS response
+    // Entries are streamed from the response and saved in batches, no JSON tree is built
     public void saveInitialBulkSmsCallback(String bulkSmsResponse, String userId) {
         try {
-            JsonNode jsonNode = objectMapper.readTree(bulkSmsResponse);
-            
-            // Check if response is an array
-            if (jsonNode.isArray()) {
-                logger.info("Processing bulk SMS response with {} messages", jsonNode.size());
-                
-                for (JsonNode messageNode : jsonNode) {
-                    JsonNode smsNode = messageNode.get("SMSMessage");
-                    
-                    if (smsNode != null) {
-                        String toNumber = smsNode.has("To") ? smsNode.get("To").asText() : "";
-                        String formattedToNumber = formatPhoneNumberForQuery(toNumber);
-                        logger.debug("Bulk SMS callback: original to_number='{}' -> formatted='{}'", toNumber, formattedToNumber);
-                        
-                        SmsCallback callback = new SmsCallback();
-                        callback.setUserId(userId);
-                        callback.setSmsSid(smsNode.has("Sid") ? smsNode.get("Sid").asText() : "");
-                        callback.setToNumber(formattedToNumber);
-                        callback.setStatus(smsNode.has("Status") ? smsNode.get("Status").asText() : "");
-                        callback.setDetailedStatus(smsNode.has("DetailedStatus") ? smsNode.get("DetailedStatus").asText() : "");
-                        callback.setDetailedStatusCode(smsNode.has("DetailedStatusCode") ? smsNode.get("DetailedStatusCode").asText() : "");
-                        callback.setSmsUnits(smsNode.has("SmsUnits") ? smsNode.get("SmsUnits").asText() : "");
-                        callback.setDateSent(smsNode.has("DateCreated") ? smsNode.get("DateCreated").asText() : "");
-                        
-                        smsCallbackRepository.save(callback);
-                        logger.info("Saved bulk SMS callback with SmsSid: {} for number: {}", 
-                                   callback.getSmsSid(), formattedToNumber);
-                    }
+            List<SmsCallback> batch = new ArrayList<>();
+            int saved = readResponseObjects(bulkSmsResponse, "SMSMessage", ExotelSmsMessage.class, sms -> {
+                batch.add(toSmsCallback(sms, userId));
+                if (batch.size() == PERSIST_BATCH_SIZE) {
+                    smsCallbackRepository.saveAll(batch);
+                    batch.clear();
                 }
-            } else {
-                logger.warn("Bulk SMS response is not an array, falling back to single SMS parsing");
-                // Fallback to single SMS parsing if it's not an array
-                saveInitialSmsCallback(bulkSmsResponse, userId);
+            });
+            if (!batch.isEmpty()) {
+                smsCallbackRepository.saveAll(batch);
             }
+            logger.info("Saved {} initial SMS callbacks", saved);
         } catch (Exception e) {
             logger.error("Error saving bulk SMS callbacks", e);
         }
     }
     
+    private SmsCallback toSmsCallback(ExotelSmsMessage sms, String userId) {
+        String formattedToNumber = formatPhoneNumberForQuery(valueOrEmpty(sms.To()));
+        logger.debug("Initial SMS callback: original to_number='{}' -> formatted='{}'", sms.To(), formattedToNumber);
+        
+        SmsCallback callback = new SmsCallback();
+        callback.setUserId(userId);
+        callback.setSmsSid(valueOrEmpty(sms.Sid()));
+        callback.setToNumber(formattedToNumber);
+        callback.setStatus(valueOrEmpty(sms.Status()));
+        callback.setDetailedStatus(valueOrEmpty(sms.DetailedStatus()));
+        callback.setDetailedStatusCode(valueOrEmpty(sms.DetailedStatusCode()));
+        callback.setSmsUnits(valueOrEmpty(sms.SmsUnits()));
+        callback.setDateSent(valueOrEmpty(sms.DateCreated()));
+        return callback;
+    }
+    
     // Legacy method to save SMS callback (keep for backward compatibility)
     public void saveSmsCallback(String smsSid, String toNumber, String status, String detailedStatus,
                                String detailedStatusCode, String smsUnits, String dateSent, String userId) {
@@ -1355,50 +1569,88 @@ public class ExotelService {
     // Method to save initial voice callback from call response
     public void saveInitialVoiceCallback(String callResponse, String userId) {
         try {
-            JsonNode jsonNode = objectMapper.readTree(callResponse);
-            JsonNode callNode = jsonNode.get("Call");
-            
-            if (callNode != null) {
-                String toNumber = callNode.has("To") ? callNode.get("To").asText() : "";
-                String formattedToNumber = formatPhoneNumberForQuery(toNumber);
-                String fromNumber = callNode.has("From") ? callNode.get("From").asText() : "";
-                String formattedFromNumber = formatPhoneNumberForQuery(fromNumber);
+            readResponseObjects(callResponse, "Call", ExotelCall.class, call -> {
+                String formattedToNumber = formatPhoneNumberForQuery(valueOrEmpty(call.To()));
+                String formattedFromNumber = formatPhoneNumberForQuery(valueOrEmpty(call.From()));
                 logger.debug("Initial voice callback: to_number '{}'->'{}', from_number '{}'->'{}' ", 
-                           toNumber, formattedToNumber, fromNumber, formattedFromNumber);
+                           call.To(), formattedToNumber, call.From(), formattedFromNumber);
                 
                 VoiceCallback callback = new VoiceCallback(
                     userId,
-                    callNode.has("Sid") ? callNode.get("Sid").asText() : "",
-                    callNode.has("ParentCallSid") ? callNode.get("ParentCallSid").asText() : "",
-                    callNode.has("DateCreated") ? callNode.get("DateCreated").asText() : "",
-                    callNode.has("DateUpdated") ? callNode.get("DateUpdated").asText() : "",
-                    callNode.has("AccountSid") ? callNode.get("AccountSid").asText() : "",
+                    valueOrEmpty(call.Sid()),
+                    valueOrEmpty(call.ParentCallSid()),
+                    valueOrEmpty(call.DateCreated()),
+                    valueOrEmpty(call.DateUpdated()),
+                    valueOrEmpty(call.AccountSid()),
                     formattedToNumber,
                     formattedFromNumber,
-                    callNode.has("PhoneNumberSid") ? callNode.get("PhoneNumberSid").asText() : "",
-                    callNode.has("StartTime") ? callNode.get("StartTime").asText() : "",
-                    callNode.has("EndTime") ? callNode.get("EndTime").asText() : "",
-                    callNode.has("Duration") ? callNode.get("Duration").asText() : "",
-                    callNode.has("Price") ? callNode.get("Price").asText() : "",
-                    callNode.has("Direction") ? callNode.get("Direction").asText() : "",
-                    callNode.has("AnsweredBy") ? callNode.get("AnsweredBy").asText() : "",
-                    callNode.has("ForwardedFrom") ? callNode.get("ForwardedFrom").asText() : "",
-                    callNode.has("CallerName") ? callNode.get("CallerName").asText() : "",
-                    callNode.has("Uri") ? callNode.get("Uri").asText() : "",
-                    callNode.has("RecordingUrl") ? callNode.get("RecordingUrl").asText() : "",
-                    callNode.has("Sid") ? callNode.get("Sid").asText() : "", // Using Sid as CallSid
-                    callNode.has("Status") ? callNode.get("Status").asText() : ""
+                    valueOrEmpty(call.PhoneNumberSid()),
+                    valueOrEmpty(call.StartTime()),
+                    valueOrEmpty(call.EndTime()),
+                    valueOrEmpty(call.Duration()),
+                    valueOrEmpty(call.Price()),
+                    valueOrEmpty(call.Direction()),
+                    valueOrEmpty(call.AnsweredBy()),
+                    valueOrEmpty(call.ForwardedFrom()),
+                    valueOrEmpty(call.CallerName()),
+                    valueOrEmpty(call.Uri()),
+                    valueOrEmpty(call.RecordingUrl()),
+                    valueOrEmpty(call.Sid()), // Using Sid as CallSid
+                    valueOrEmpty(call.Status())
                 );
                 
                 voiceCallbackRepository.save(callback);
                 logger.info("Saved initial voice callback with CallSid: {}, to_number: {}, from_number: {}", 
                            callback.getCallSid(), formattedToNumber, formattedFromNumber);
-            }
+            });
         } catch (Exception e) {
             logger.error("Error parsing and saving initial voice callback: {}", e.getMessage());
         }
     }
     
+    /**
+     * Stream an Exotel response, binding each {"<wrapper>": {...}} envelope (top-level or inside a top-level array)
+     * to a typed record and handing it to the consumer as soon as it is read
+     * Returns the number of records read
+     */
+    private <T> int readResponseObjects(String response, String wrapper, Class<T> type, Consumer<T> consumer) throws IOException {
+        int count = 0;
+        try (JsonParser parser = objectMapper.createParser(response)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                    if (token == JsonToken.START_OBJECT) {
+                        count += readEnvelope(parser, wrapper, type, consumer);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else if (token == JsonToken.START_OBJECT) {
+                count += readEnvelope(parser, wrapper, type, consumer);
+            }
+        }
+        return count;
+    }
+    
+    // Parser is on the envelope's START_OBJECT; leaves it on the matching END_OBJECT
+    private <T> int readEnvelope(JsonParser parser, String wrapper, Class<T> type, Consumer<T> consumer) throws IOException {
+        int count = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() == JsonToken.START_OBJECT && wrapper.equals(field)) {
+                consumer.accept(objectMapper.readValue(parser, type));
+                count++;
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return count;
+    }
+    
+    private static String valueOrEmpty(String value) {
+        return value != null ? value : "";
+    }
+    
     // Method to update voice callback from webhook
     public void saveVoiceCallback(Map<String, String> callbackData, String userId) {
         String callSid = callbackData.get("CallSid");
@@ -1446,6 +1698,10 @@ public class ExotelService {
                 logger.warn("No existing callback found for CallSid: {}, creating initial record from callback", callSid);
                 createInitialRecordFromCallback(callbackData, userId);
             }
+            
+            // Let MCP subscribers of exotel://calls/{callSid} know the status changed
+            eventPublisher.publishEvent(new CallbackStatusEvent(
+                CallbackStatusEvent.Kind.CALL, callSid, userId, cleanValue(callbackData.get("Status"))));
         } else {
             // Create new callback if no CallSid provided (fallback)
             logger.warn("No CallSid provided in callback data, creating new record");
@@ -1705,6 +1961,57 @@ public class ExotelService {
         return result.toString();
     }
     
+    // User id (token MD5) of the caller's credentials, the owner of the records they create
+    public String getCurrentUserId() throws Exception {
+        return parseAuthHeader(getCurrentAuthHeader()).tokenMd5();
+    }
+    
+    // Call record for the exotel://calls/{callSid} MCP resource, null unless it belongs to the caller
+    public Map<String, Object> getCallResource(String callSid) throws Exception {
+        Optional<VoiceCallback> callbackOpt = voiceCallbackRepository.findByCallSid(callSid);
+        String userId = parseAuthHeader(getCurrentAuthHeader()).tokenMd5();
+        if (!callbackOpt.isPresent() || !userId.equals(callbackOpt.get().getUserId())) {
+            return null;
+        }
+        
+        VoiceCallback callback = callbackOpt.get();
+        Map<String, Object> call = new LinkedHashMap<>();
+        call.put("call_sid", callback.getCallSid());
+        call.put("status", callback.getStatus());
+        call.put("from_number", callback.getFromNumber());
+        call.put("to_number", callback.getToNumber());
+        call.put("direction", callback.getDirection());
+        call.put("start_time", callback.getStartTime());
+        call.put("end_time", callback.getEndTime());
+        call.put("duration", callback.getDuration());
+        call.put("answered_by", callback.getAnsweredBy());
+        call.put("recording_url", callback.getRecordingUrl());
+        call.put("price", callback.getPrice());
+        call.put("date_created", callback.getDateCreated());
+        call.put("date_updated", callback.getDateUpdated());
+        return call;
+    }
+    
+    // SMS record for the exotel://sms/{smsSid} MCP resource, null unless it belongs to the caller
+    public Map<String, Object> getSmsResource(String smsSid) throws Exception {
+        Optional<SmsCallback> callbackOpt = smsCallbackRepository.findBySmsSid(smsSid);
+        String userId = parseAuthHeader(getCurrentAuthHeader()).tokenMd5();
+        if (!callbackOpt.isPresent() || !userId.equals(callbackOpt.get().getUserId())) {
+            return null;
+        }
+        
+        SmsCallback callback = callbackOpt.get();
+        Map<String, Object> sms = new LinkedHashMap<>();
+        sms.put("sms_sid", callback.getSmsSid());
+        sms.put("to_number", callback.getToNumber());
+        sms.put("status", callback.getStatus());
+        sms.put("detailed_status", callback.getDetailedStatus());
+        sms.put("detailed_status_code", callback.getDetailedStatusCode());
+        sms.put("sms_units", callback.getSmsUnits());
+        sms.put("date_sent", callback.getDateSent());
+        return sms;
+    }
+    
     // Public method to get voice callbacks by from number with user_id security (for controller)
     public Map<String, Object> getCallFlowCallbacks(String fromNumber) {
         logger.info("Fetching call flow callbacks for from_number: {}", fromNumber);
@@ -0,0 +1,164 @@
+package com.example.mcp_api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional micro-batching of single SMS sends. Sends that share everything but the recipient (account, sender,
+ * body, DLT ids...) and arrive within a few milliseconds of each other are collected into one batch and sent as
+ * a single Exotel request with To[i] recipients, like sendMessageToBulkNumbers. Each caller gets its own
+ * recipient's result back. A batch is sent when its window ends or when it is full, whichever comes first.
+ * A batch belongs to none of its callers: a caller that cancels is withdrawn while the batch is still open,
+ * and once it has been sent only that caller stops waiting.
+ */
+@Component
+public class ExotelSmsCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExotelSmsCoalescer.class);
+
+    private final Map<String, Batch> openBatches = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService timer;
+
+    public ExotelSmsCoalescer(@Value("${exotel.sms.coalesce.enabled:false}") boolean enabled,
+                              @Value("${exotel.sms.coalesce.window:10ms}") Duration window,
+                              @Value("${exotel.sms.coalesce.max-batch-size:100}") int maxBatchSize) {
+        this.enabled = enabled;
+        this.windowMillis = window.toMillis();
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "exotel-sms-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Add a recipient to the open batch for groupKey (opening one if needed)
+     * The future completes with this recipient's part of the batch response, or with the batch's failure
+     */
+    public CompletableFuture<String> submit(String groupKey, String recipient, BatchSender sender) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Batch[] opened = new Batch[1];
+        Batch[] full = new Batch[1];
+        openBatches.compute(groupKey, (key, batch) -> {
+            if (batch == null) {
+                batch = new Batch(sender);
+                opened[0] = batch;
+            }
+            batch.recipients.add(recipient);
+            batch.results.add(result);
+            if (batch.recipients.size() >= maxBatchSize) {
+                full[0] = batch;
+                return null;
+            }
+            return batch;
+        });
+        if (full[0] != null) {
+            full[0].send();
+        } else if (opened[0] != null) {
+            Batch batch = opened[0];
+            timer.schedule(() -> {
+                if (openBatches.remove(groupKey, batch)) {
+                    batch.send();
+                }
+            }, windowMillis, TimeUnit.MILLISECONDS);
+        }
+        return result;
+    }
+
+    /**
+     * Take a recipient's result back out of its batch if the batch has not been sent yet
+     * The result then fails with a CancellationException; returns false if the batch is already on its way
+     */
+    public boolean withdraw(String groupKey, CompletableFuture<String> result) {
+        boolean[] withdrawn = new boolean[1];
+        openBatches.computeIfPresent(groupKey, (key, batch) -> {
+            int index = batch.results.indexOf(result);
+            if (index < 0) {
+                return batch;
+            }
+            batch.recipients.remove(index);
+            batch.results.remove(index);
+            withdrawn[0] = true;
+            return batch.results.isEmpty() ? null : batch;
+        });
+        if (withdrawn[0]) {
+            result.completeExceptionally(new CancellationException("Request cancelled before its batch was sent"));
+        }
+        return withdrawn[0];
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * Sends one batch; completes with one response per recipient, in the order given,
+     * null for a recipient the batch response has no result for
+     */
+    @FunctionalInterface
+    public interface BatchSender {
+        CompletableFuture<List<String>> send(List<String> recipients);
+    }
+
+    // Mutated only inside openBatches.compute, read once it has been removed from the map
+    private static final class Batch {
+
+        private final BatchSender sender;
+        private final List<String> recipients = new ArrayList<>();
+        private final List<CompletableFuture<String>> results = new ArrayList<>();
+
+        private Batch(BatchSender sender) {
+            this.sender = sender;
+        }
+
+        void send() {
+            if (recipients.size() > 1) {
+                logger.debug("Coalesced {} SMS sends into one request", recipients.size());
+            }
+            CompletableFuture<List<String>> call;
+            try {
+                call = sender.send(List.copyOf(recipients));
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            call.whenComplete((responses, error) -> {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                for (int i = 0; i < results.size(); i++) {
+                    String response = cause == null && i < responses.size() ? responses.get(i) : null;
+                    if (cause != null) {
+                        results.get(i).completeExceptionally(cause);
+                    } else if (response == null) {
+                        results.get(i).completeExceptionally(new IllegalStateException(
+                            "Exotel's response to the coalesced SMS send has no result for " + recipients.get(i)));
+                    } else {
+                        results.get(i).complete(response);
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.mcp_api.service;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * application/x-www-form-urlencoded request body that percent-encodes (UTF-8) its fields on the fly into a small
+ * buffer as the connection accepts data, so bulk payloads with thousands of To[i] / Message[i][Body] fields are
+ * never materialized as one string. The encoded length is counted up front (without encoding), so the body is
+ * sent with a Content-Length rather than chunked, which some proxies reject (411).
+ * Repeatable: encoding restarts from the first field after releaseResources().
+ */
+public final class FormEntityProducer implements AsyncEntityProducer {
+
+    private static final ContentType CONTENT_TYPE = ContentType.create("application/x-www-form-urlencoded", StandardCharsets.UTF_8);
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    // Worst case for one code point: 4 UTF-8 bytes, each written as %XX
+    private static final int MAX_ENCODED_CODE_POINT = 12;
+
+    private enum Stage { SEPARATOR, NAME, EQUALS, VALUE }
+
+    private final List<String[]> fields;
+    private final long contentLength;
+    private final ByteBuffer buffer;
+
+    private int field;
+    private Stage stage;
+    private int charIndex;
+    private boolean ended;
+
+    public FormEntityProducer(Map<String, ?> data) {
+        this.fields = new ArrayList<>(data.size());
+        long length = 0;
+        for (Map.Entry<String, ?> entry : data.entrySet()) {
+            Object value = entry.getValue();
+            String[] pair = {entry.getKey(), value != null ? String.valueOf(value) : ""};
+            fields.add(pair);
+            // name=value, '&' before every field but the first
+            length += (fields.size() > 1 ? 1 : 0) + encodedLength(pair[0]) + 1 + encodedLength(pair[1]);
+        }
+        this.contentLength = length;
+        this.buffer = ByteBuffer.allocate(8192);
+        reset();
+    }
+
+    @Override
+    public void produce(DataStreamChannel channel) throws IOException {
+        while (true) {
+            if (buffer.position() > 0) {
+                buffer.flip();
+                channel.write(buffer);
+                buffer.compact();
+                if (buffer.position() > 0) {
+                    // Channel is full, produce() is called again once it can take more
+                    return;
+                }
+            }
+            if (field == fields.size()) {
+                if (!ended) {
+                    ended = true;
+                    channel.endStream();
+                }
+                return;
+            }
+            fill();
+        }
+    }
+
+    // Encode fields into the buffer until it is (nearly) full or the form is complete
+    private void fill() {
+        while (field < fields.size() && buffer.remaining() >= MAX_ENCODED_CODE_POINT) {
+            String[] pair = fields.get(field);
+            switch (stage) {
+                case SEPARATOR -> {
+                    if (field > 0) {
+                        buffer.put((byte) '&');
+                    }
+                    stage = Stage.NAME;
+                    charIndex = 0;
+                }
+                case NAME -> {
+                    if (charIndex < pair[0].length()) {
+                        encodeNext(pair[0]);
+                    } else {
+                        stage = Stage.EQUALS;
+                    }
+                }
+                case EQUALS -> {
+                    buffer.put((byte) '=');
+                    stage = Stage.VALUE;
+                    charIndex = 0;
+                }
+                case VALUE -> {
+                    if (charIndex < pair[1].length()) {
+                        encodeNext(pair[1]);
+                    } else {
+                        field++;
+                        stage = Stage.SEPARATOR;
+                    }
+                }
+            }
+        }
+    }
+
+    // Same rules as java.net.URLEncoder with UTF-8: unreserved characters as-is, space as '+', the rest as %XX
+    private void encodeNext(String text) {
+        int codePoint = text.codePointAt(charIndex);
+        charIndex += Character.charCount(codePoint);
+        if ((codePoint >= 'a' && codePoint <= 'z') || (codePoint >= 'A' && codePoint <= 'Z') || (codePoint >= '0' && codePoint <= '9')
+            || codePoint == '-' || codePoint == '_' || codePoint == '.' || codePoint == '*') {
+            buffer.put((byte) codePoint);
+        } else if (codePoint == ' ') {
+            buffer.put((byte) '+');
+        } else if (codePoint < 0x80) {
+            percent(codePoint);
+        } else if (codePoint < 0x800) {
+            percent(0xC0 | (codePoint >> 6));
+            percent(0x80 | (codePoint & 0x3F));
+        } else if (Character.isSurrogate((char) codePoint) && codePoint < 0x10000) {
+            // Unpaired surrogate, encoded as '?' like String.getBytes does
+            percent('?');
+        } else if (codePoint < 0x10000) {
+            percent(0xE0 | (codePoint >> 12));
+            percent(0x80 | ((codePoint >> 6) & 0x3F));
+            percent(0x80 | (codePoint & 0x3F));
+        } else {
+            percent(0xF0 | (codePoint >> 18));
+            percent(0x80 | ((codePoint >> 12) & 0x3F));
+            percent(0x80 | ((codePoint >> 6) & 0x3F));
+            percent(0x80 | (codePoint & 0x3F));
+        }
+    }
+
+    // Bytes encodeNext writes for the whole string
+    static long encodedLength(String text) {
+        long length = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if ((codePoint >= 'a' && codePoint <= 'z') || (codePoint >= 'A' && codePoint <= 'Z') || (codePoint >= '0' && codePoint <= '9')
+                || codePoint == '-' || codePoint == '_' || codePoint == '.' || codePoint == '*' || codePoint == ' ') {
+                length += 1;
+            } else if (codePoint < 0x80) {
+                length += 3;
+            } else if (codePoint < 0x800) {
+                length += 6;
+            } else if (Character.isSurrogate((char) codePoint) && codePoint < 0x10000) {
+                length += 3;
+            } else if (codePoint < 0x10000) {
+                length += 9;
+            } else {
+                length += 12;
+            }
+        }
+        return length;
+    }
+
+    private void percent(int b) {
+        buffer.put((byte) '%');
+        buffer.put(HEX[(b >> 4) & 0x0F]);
+        buffer.put(HEX[b & 0x0F]);
+    }
+
+    private void reset() {
+        buffer.clear();
+        field = 0;
+        stage = Stage.SEPARATOR;
+        charIndex = 0;
+        ended = false;
+    }
+
+    @Override
+    public int available() {
+        return ended ? 0 : Integer.MAX_VALUE;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public void failed(Exception cause) {
+    }
+
+    @Override
+    public void releaseResources() {
+        reset();
+    }
+
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE.toString();
+    }
+
+    @Override
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public String getContentEncoding() {
+        return null;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return false;
+    }
+
+    @Override
+    public Set<String> getTrailerNames() {
+        return null;
+    }
+}
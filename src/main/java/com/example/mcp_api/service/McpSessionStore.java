@@ -0,0 +1,135 @@
+package com.example.mcp_api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authorization headers of live sessions, keyed by MCP session id (or HTTP session id for the REST endpoints).
+ * Safe for concurrent use from Tomcat and tool threads. Sessions idle for longer than the TTL are evicted by a
+ * background sweep, and when the store is at its cap the least recently used sessions make room for new ones.
+ */
+@Component
+public class McpSessionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(McpSessionStore.class);
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sweeper;
+    private final long idleTtlMillis;
+    private final int maxSessions;
+
+    public McpSessionStore(@Value("${mcp.session.idle-ttl:30m}") Duration idleTtl,
+                           @Value("${mcp.session.max-sessions:10000}") int maxSessions) {
+        this.idleTtlMillis = idleTtl.toMillis();
+        this.maxSessions = maxSessions;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mcp-session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepInterval = Math.max(1000, idleTtlMillis / 2);
+        sweeper.scheduleAtFixedRate(this::evictExpired, sweepInterval, sweepInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Authorization header stored for a session, null if unknown or idle past the TTL
+     * A hit counts as activity and extends the session.
+     */
+    public String get(String sessionId) {
+        if (sessionId == null) {
+            return null;
+        }
+        Session session = sessions.get(sessionId);
+        if (session == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (session.isExpired(now, idleTtlMillis)) {
+            sessions.remove(sessionId, session);
+            return null;
+        }
+        session.lastAccess = now;
+        return session.authHeader;
+    }
+
+    public void put(String sessionId, String authHeader) {
+        if (sessionId == null || authHeader == null) {
+            return;
+        }
+        Session existing = sessions.get(sessionId);
+        if (existing != null && existing.authHeader.equals(authHeader)) {
+            existing.lastAccess = System.currentTimeMillis();
+            return;
+        }
+        if (existing == null && sessions.size() >= maxSessions) {
+            makeRoom();
+        }
+        sessions.put(sessionId, new Session(authHeader));
+    }
+
+    public void remove(String sessionId) {
+        if (sessionId != null) {
+            sessions.remove(sessionId);
+        }
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        int before = sessions.size();
+        sessions.values().removeIf(session -> session.isExpired(now, idleTtlMillis));
+        int evicted = before - sessions.size();
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle sessions, {} active", evicted, sessions.size());
+        }
+    }
+
+    // Expired sessions go first; if still full, drop the least recently used tenth in one pass
+    private synchronized void makeRoom() {
+        evictExpired();
+        if (sessions.size() < maxSessions) {
+            return;
+        }
+        int toEvict = Math.max(1, maxSessions / 10);
+        sessions.entrySet().stream()
+            .sorted(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+            .limit(toEvict)
+            .map(Map.Entry::getKey)
+            .toList()
+            .forEach(sessions::remove);
+        logger.warn("Session store reached its cap of {}, evicted {} least recently used sessions", maxSessions, toEvict);
+    }
+
+    private static final class Session {
+
+        private final String authHeader;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private Session(String authHeader) {
+            this.authHeader = authHeader;
+        }
+
+        boolean isExpired(long now, long idleTtlMillis) {
+            return now - lastAccess > idleTtlMillis;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.mcp_api.service;
+
+/**
+ * Thrown when an outbound Exotel request is refused locally before it is sent
+ * (e.g. its account has used up its connection quota); never retried.
+ * The reason is a stable machine-readable code that tools report alongside the message.
+ */
+public class OutboundRejectedException extends RuntimeException {
+
+    private final String reason;
+    private final long retryAfterMillis;
+
+    public OutboundRejectedException(String reason, String message, long retryAfterMillis) {
+        super(message);
+        this.reason = reason;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * How long the caller should wait before trying again, 0 if unknown
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.mcp_api.service;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-invocation state for a tool call, bound to the executing thread.
+ * The MCP transport installs it around a tool call; tool methods use the static helpers
+ * and never need to know whether a transport is listening.
+ * It also carries the caller's Authorization header, so tools get their credentials from the
+ * invocation rather than from an HTTP session.
+ */
+public final class ToolInvocationContext {
+
+    private static final ThreadLocal<ToolInvocationContext> CURRENT = new ThreadLocal<>();
+
+    private static final ToolInvocationContext EMPTY = new ToolInvocationContext(null, CancellationToken.NONE, null);
+
+    private final ProgressListener progressListener;
+    private final CancellationToken cancellationToken;
+    private final String authHeader;
+
+    private ToolInvocationContext(ProgressListener progressListener, CancellationToken cancellationToken, String authHeader) {
+        this.progressListener = progressListener;
+        this.cancellationToken = cancellationToken;
+        this.authHeader = authHeader;
+    }
+
+    public static ToolInvocationContext empty() {
+        return EMPTY;
+    }
+
+    public ToolInvocationContext withProgressListener(ProgressListener listener) {
+        return new ToolInvocationContext(listener, cancellationToken, authHeader);
+    }
+
+    public ToolInvocationContext withCancellationToken(CancellationToken token) {
+        return new ToolInvocationContext(progressListener, token != null ? token : CancellationToken.NONE, authHeader);
+    }
+
+    public ToolInvocationContext withAuthHeader(String header) {
+        return new ToolInvocationContext(progressListener, cancellationToken,
+                                         header != null && !header.isBlank() ? header : null);
+    }
+
+    /**
+     * Context bound to the current thread, never null
+     */
+    public static ToolInvocationContext current() {
+        ToolInvocationContext context = CURRENT.get();
+        return context != null ? context : EMPTY;
+    }
+
+    /**
+     * Run a task with this context bound to the current thread, restoring the previous one afterwards
+     */
+    public <T> T call(Supplier<T> task) {
+        ToolInvocationContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Bind this context to the current thread until unbind(), for installs that span a whole request
+     * (see McpAuthInterceptor); prefer call() everywhere else
+     */
+    public void bind() {
+        CURRENT.set(this);
+    }
+
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Wrap a task so it runs with this context on whichever thread executes it
+     */
+    public Runnable wrap(Runnable task) {
+        return () -> call(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Report progress of the current tool call; a no-op when nobody is listening
+     */
+    public static void reportProgress(double progress, Double total, String message) {
+        ProgressListener listener = current().progressListener;
+        if (listener != null) {
+            listener.onProgress(progress, total, message);
+        }
+    }
+
+    /**
+     * Cancellation token of the current tool call, never null
+     */
+    public static CancellationToken cancellationToken() {
+        return current().cancellationToken;
+    }
+
+    /**
+     * Authorization header of the current caller, null outside a request or invocation that carried one
+     */
+    public static String authHeader() {
+        return current().authHeader;
+    }
+
+    /**
+     * Receives progress updates from a running tool
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(double progress, Double total, String message);
+    }
+}
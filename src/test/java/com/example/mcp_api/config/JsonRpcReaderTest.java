@@ -0,0 +1,128 @@
+package com.example.mcp_api.config;
+
+import org.junit.jupiter.api.Test;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonRpcReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonRpcReader reader = new JsonRpcReader(objectMapper);
+
+    @Test
+    void singleMessageIsReadWithItsEnvelope() throws Exception {
+        JsonRpcReader.Payload payload = read("""
+            {"jsonrpc":"2.0","id":"abc","method":"tools/list","extra":{"ignored":[1,2]},"params":{"cursor":"p2"}}""");
+
+        assertThat(payload.batch()).isFalse();
+        JsonRpcRequest message = payload.messages().get(0);
+        assertThat(message.jsonrpc()).isEqualTo("2.0");
+        assertThat(message.id()).isEqualTo("abc");
+        assertThat(message.method()).isEqualTo("tools/list");
+        assertThat(message.isNotification()).isFalse();
+        assertThat(reader.readParamsAsMap(message.params()).get("cursor")).isEqualTo("p2");
+    }
+
+    @Test
+    void nullIdIsARequestAndMissingIdANotification() throws Exception {
+        JsonRpcReader.Payload payload = read("""
+            [{"jsonrpc":"2.0","id":null,"method":"ping"},{"jsonrpc":"2.0","method":"notifications/initialized"}]""");
+
+        assertThat(payload.messages().get(0).isNotification()).isFalse();
+        assertThat(payload.messages().get(0).id()).isNull();
+        assertThat(payload.messages().get(1).isNotification()).isTrue();
+    }
+
+    @Test
+    void nonObjectBatchEntriesAreKeptAsNullsInPlace() throws Exception {
+        JsonRpcReader.Payload payload = read("""
+            [1, {"jsonrpc":"2.0","id":2,"method":"ping"}, "text", [3, {"id":4}], null, {"jsonrpc":"2.0","id":5,"method":"ping"}]""");
+
+        assertThat(payload.batch()).isTrue();
+        assertThat(payload.messages()).hasSize(6);
+        assertThat(payload.messages().get(0)).isNull();
+        assertThat(payload.messages().get(1).id()).isEqualTo(2);
+        assertThat(payload.messages().get(2)).isNull();
+        assertThat(payload.messages().get(3)).isNull();
+        assertThat(payload.messages().get(4)).isNull();
+        assertThat(payload.messages().get(5).id()).isEqualTo(5);
+    }
+
+    @Test
+    void emptyBatchIsABatchWithNoMessages() throws Exception {
+        JsonRpcReader.Payload payload = read("[]");
+
+        assertThat(payload.batch()).isTrue();
+        assertThat(payload.messages()).isEmpty();
+    }
+
+    @Test
+    void scalarBodyIsRejected() {
+        assertThatThrownBy(() -> read("42")).isInstanceOf(JsonParseException.class)
+            .hasMessageContaining("Invalid Request");
+    }
+
+    @Test
+    void toolCallKeepsArgumentsUnboundAndReadsTheProgressToken() throws Exception {
+        ToolCallParams toolCall = readToolCall("""
+            {"name":"sendSmsToUser","_meta":{"other":{"x":1},"progressToken":"p-1"},"arguments":{"toNumber":"9000000001","message":"hi"}}""");
+
+        assertThat(toolCall.name()).isEqualTo("sendSmsToUser");
+        assertThat(toolCall.progressToken()).isEqualTo("p-1");
+        try (JsonParser arguments = toolCall.arguments().asParser(objectMapper)) {
+            assertThat(objectMapper.readValue(arguments, Map.class))
+                .containsEntry("toNumber", "9000000001")
+                .containsEntry("message", "hi");
+        }
+    }
+
+    @Test
+    void numericProgressTokenStaysANumber() throws Exception {
+        assertThat(readToolCall("{\"name\":\"t\",\"_meta\":{\"progressToken\":7}}").progressToken()).isEqualTo(7);
+    }
+
+    @Test
+    void nonObjectArgumentsAndMetaAreIgnored() throws Exception {
+        ToolCallParams toolCall = readToolCall("{\"name\":\"t\",\"arguments\":[1,2],\"_meta\":\"p-1\"}");
+
+        assertThat(toolCall.name()).isEqualTo("t");
+        assertThat(toolCall.arguments()).isNull();
+        assertThat(toolCall.progressToken()).isNull();
+    }
+
+    @Test
+    void missingParamsGiveAnEmptyToolCall() throws Exception {
+        ToolCallParams toolCall = reader.readToolCall(null);
+
+        assertThat(toolCall.name()).isNull();
+        assertThat(toolCall.arguments()).isNull();
+        assertThat(toolCall.progressToken()).isNull();
+    }
+
+    @Test
+    void nonObjectToolCallParamsAreRejected() throws Exception {
+        JsonRpcRequest message = read("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"tools/call\",\"params\":[\"t\"]}")
+            .messages().get(0);
+
+        assertThatThrownBy(() -> reader.readToolCall(message.params())).isInstanceOf(JsonParseException.class);
+    }
+
+    private JsonRpcReader.Payload read(String body) throws IOException {
+        return reader.read(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private ToolCallParams readToolCall(String params) throws IOException {
+        JsonRpcRequest message = read("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"tools/call\",\"params\":" + params + "}")
+            .messages().get(0);
+        return reader.readToolCall(message.params());
+    }
+}
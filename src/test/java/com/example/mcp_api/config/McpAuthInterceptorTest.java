@@ -0,0 +1,112 @@
+package com.example.mcp_api.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.example.mcp_api.service.ExotelService;
+import com.example.mcp_api.service.ToolInvocationContext;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class McpAuthInterceptorTest {
+
+    private static final String AUTH = "Basic dXNlcjpzZWNyZXQ=";
+
+    private final ExotelService exotelService = mock(ExotelService.class);
+    private final McpAuthInterceptor interceptor = new McpAuthInterceptor();
+    private final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/mcp");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private McpSessionTokens sessionTokens;
+
+    @BeforeEach
+    void wire() throws Exception {
+        sessionTokens = new McpSessionTokens("secret", Duration.ofHours(1));
+        ReflectionTestUtils.setField(interceptor, "exotelService", exotelService);
+        ReflectionTestUtils.setField(interceptor, "sessionTokens", sessionTokens);
+    }
+
+    @AfterEach
+    void unbind() {
+        ToolInvocationContext.unbind();
+    }
+
+    @Test
+    void authorizationHeaderIsBoundForTheRequestAndUnboundAfterwards() throws Exception {
+        request.addHeader("Authorization", AUTH);
+
+        interceptor.preHandle(request, response, null);
+        assertThat(ToolInvocationContext.authHeader()).isEqualTo(AUTH);
+
+        interceptor.afterCompletion(request, response, null, null);
+        assertThat(ToolInvocationContext.authHeader()).isNull();
+    }
+
+    @Test
+    void sealedSessionIdAloneRestoresTheCredentials() throws Exception {
+        request.addHeader(StreamableHttpConfig.MCP_SESSION_ID_HEADER, sessionTokens.issue(AUTH));
+
+        interceptor.preHandle(request, response, null);
+
+        assertThat(ToolInvocationContext.authHeader()).isEqualTo(AUTH);
+        // Nothing to remember locally, the token carries the credentials
+        verify(exotelService, never()).setAuthHeaderForSession(anyString());
+    }
+
+    @Test
+    void explicitHeaderWinsOverTheSealedSession() throws Exception {
+        request.addHeader("Authorization", "Basic b3RoZXI6a2V5");
+        request.addHeader(StreamableHttpConfig.MCP_SESSION_ID_HEADER, sessionTokens.issue(AUTH));
+
+        interceptor.preHandle(request, response, null);
+
+        assertThat(ToolInvocationContext.authHeader()).isEqualTo("Basic b3RoZXI6a2V5");
+    }
+
+    @Test
+    void opaqueSessionIdStillUsesTheLocalSessionStore() throws Exception {
+        request.addHeader("Authorization", AUTH);
+        request.addHeader(StreamableHttpConfig.MCP_SESSION_ID_HEADER, "not-a-sealed-token");
+
+        interceptor.preHandle(request, response, null);
+
+        verify(exotelService).setAuthHeaderForSession(AUTH);
+    }
+
+    @Test
+    void anonymousOrForeignSessionBindsNothing() throws Exception {
+        request.addHeader(StreamableHttpConfig.MCP_SESSION_ID_HEADER, sessionTokens.issue(""));
+        interceptor.preHandle(request, response, null);
+        assertThat(ToolInvocationContext.authHeader()).isNull();
+
+        MockHttpServletRequest foreign = new MockHttpServletRequest("POST", "/mcp");
+        foreign.addHeader(StreamableHttpConfig.MCP_SESSION_ID_HEADER,
+                          new McpSessionTokens("other-secret", Duration.ofHours(1)).issue(AUTH));
+        interceptor.preHandle(foreign, response, null);
+        assertThat(ToolInvocationContext.authHeader()).isNull();
+    }
+
+    @Test
+    void asyncHandoffFreesTheRequestThreadButNotTheTask() throws Exception {
+        request.addHeader("Authorization", AUTH);
+        interceptor.preHandle(request, response, null);
+        AtomicReference<String> seenByTask = new AtomicReference<>();
+        Runnable task = ToolInvocationContext.current().wrap(() -> seenByTask.set(ToolInvocationContext.authHeader()));
+
+        interceptor.afterConcurrentHandlingStarted(request, response, null);
+        CompletableFuture.runAsync(task).join();
+
+        assertThat(ToolInvocationContext.authHeader()).isNull();
+        assertThat(seenByTask.get()).isEqualTo(AUTH);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.mcp_api.config;
+
+import org.junit.jupiter.api.Test;
+import com.example.mcp_api.service.CancellationToken;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class McpInFlightRequestsTest {
+
+    private final McpInFlightRequests inFlight = new McpInFlightRequests();
+
+    @Test
+    void cancelAbortsTheInFlightExchange() {
+        CancellationToken token = inFlight.register("session-a", 7);
+        AtomicBoolean exchangeAborted = new AtomicBoolean();
+        token.onAbort(() -> exchangeAborted.set(true));
+
+        assertThat(inFlight.cancel("session-a", 7, "user pressed stop")).isTrue();
+
+        assertThat(token.isCancelled()).isTrue();
+        assertThat(exchangeAborted).isTrue();
+    }
+
+    @Test
+    void anotherScopeCannotCancelTheSameId() {
+        CancellationToken token = inFlight.register("session-a", 7);
+
+        assertThat(inFlight.cancel("session-b", 7, null)).isFalse();
+
+        assertThat(token.isCancelled()).isFalse();
+        assertThat(inFlight.cancel("session-a", 7, null)).isTrue();
+    }
+
+    @Test
+    void completedCallCanNoLongerBeCancelled() {
+        CancellationToken token = inFlight.register("session-a", "call-1");
+
+        inFlight.complete("session-a", "call-1", token);
+
+        assertThat(inFlight.cancel("session-a", "call-1", null)).isFalse();
+        assertThat(token.isCancelled()).isFalse();
+    }
+
+    @Test
+    void completingAnEarlierCallLeavesAReusedIdCancellable() {
+        CancellationToken earlier = inFlight.register("session-a", 1);
+        CancellationToken current = inFlight.register("session-a", 1);
+
+        inFlight.complete("session-a", 1, earlier);
+
+        assertThat(inFlight.cancel("session-a", 1, null)).isTrue();
+        assertThat(current.isCancelled()).isTrue();
+    }
+
+    @Test
+    void callsWithoutScopeOrIdCannotBeCancelled() {
+        assertThat(inFlight.register(null, 7)).isSameAs(CancellationToken.NONE);
+        assertThat(inFlight.register("session-a", null)).isSameAs(CancellationToken.NONE);
+        assertThat(inFlight.cancel(null, 7, null)).isFalse();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.mcp_api.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class McpSessionTokensTest {
+
+    private static final String AUTH = "Basic dXNlcjpzZWNyZXQ=";
+
+    @Test
+    void issuedTokenOpensToTheSealedHeader() throws Exception {
+        McpSessionTokens tokens = new McpSessionTokens("secret", Duration.ofHours(1));
+
+        String sessionId = tokens.issue(AUTH);
+
+        assertThat(sessionId).doesNotContain(AUTH).matches("[A-Za-z0-9_-]+");
+        assertThat(tokens.open(sessionId)).isEqualTo(AUTH);
+    }
+
+    @Test
+    void sameHeaderGetsADifferentTokenEachTime() throws Exception {
+        McpSessionTokens tokens = new McpSessionTokens("secret", Duration.ofHours(1));
+
+        assertThat(tokens.issue(AUTH)).isNotEqualTo(tokens.issue(AUTH));
+    }
+
+    @Test
+    void anonymousSessionOpensToAnEmptyHeader() throws Exception {
+        McpSessionTokens tokens = new McpSessionTokens("secret", Duration.ofHours(1));
+
+        assertThat(tokens.open(tokens.issue(""))).isEmpty();
+    }
+
+    @Test
+    void replicaWithTheSameSecretOpensTheToken() throws Exception {
+        String sessionId = new McpSessionTokens("secret", Duration.ofHours(1)).issue(AUTH);
+
+        assertThat(new McpSessionTokens("secret", Duration.ofHours(1)).open(sessionId)).isEqualTo(AUTH);
+        assertThat(new McpSessionTokens("other-secret", Duration.ofHours(1)).open(sessionId)).isNull();
+        assertThat(new McpSessionTokens("", Duration.ofHours(1)).open(sessionId)).isNull();
+    }
+
+    @Test
+    void tamperedTokenDoesNotOpen() throws Exception {
+        McpSessionTokens tokens = new McpSessionTokens("secret", Duration.ofHours(1));
+        byte[] token = Base64.getUrlDecoder().decode(tokens.issue(AUTH));
+
+        token[token.length - 20] ^= 1;
+
+        assertThat(tokens.open(Base64.getUrlEncoder().withoutPadding().encodeToString(token))).isNull();
+    }
+
+    @Test
+    void expiredTokenDoesNotOpen() throws Exception {
+        McpSessionTokens tokens = new McpSessionTokens("secret", Duration.ofMillis(-1));
+
+        assertThat(tokens.open(tokens.issue(AUTH))).isNull();
+    }
+
+    @Test
+    void malformedIdsDoNotOpen() throws Exception {
+        McpSessionTokens tokens = new McpSessionTokens("secret", Duration.ofHours(1));
+
+        assertThat(tokens.open(null)).isNull();
+        assertThat(tokens.open("0f8b1c52-1d4e-4a8e-9b57-1f6f3c0f9a11")).isNull();
+        assertThat(tokens.open("not base64 at all, but long enough to be decoded!")).isNull();
+        assertThat(tokens.open("A".repeat(40))).isNull();
+    }
+}
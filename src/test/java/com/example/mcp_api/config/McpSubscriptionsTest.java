@@ -0,0 +1,129 @@
+package com.example.mcp_api.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import com.example.mcp_api.service.CallbackStatusEvent;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class McpSubscriptionsTest {
+
+    private static final String CALL_URI = McpSubscriptions.CALL_RESOURCE_PREFIX + "call-1";
+
+    private final McpSseStreams sseStreams = mock(McpSseStreams.class);
+    private final McpSessionTokens sessionTokens = mock(McpSessionTokens.class);
+
+    private McpSubscriptions subscriptions;
+
+    @AfterEach
+    void shutdown() {
+        subscriptions.shutdown();
+    }
+
+    @Test
+    void updateFansOutToTheSubscribersOfTheSameUserOnly() {
+        subscriptions = new McpSubscriptions(sseStreams, sessionTokens, 100, 10, Duration.ofMinutes(30));
+        when(sseStreams.sendToSession(anyString(), any())).thenReturn(true);
+        subscriptions.subscribe("s1", "user-a", CALL_URI);
+        subscriptions.subscribe("s2", "user-a", CALL_URI);
+        subscriptions.subscribe("s3", "user-b", CALL_URI);
+        subscriptions.subscribe("s4", "user-a", McpSubscriptions.CALL_RESOURCE_PREFIX + "call-2");
+
+        subscriptions.notifyUpdated(CALL_URI, "user-a");
+
+        Map<String, Object> notification = Map.of(
+            "jsonrpc", "2.0", "method", "notifications/resources/updated", "params", Map.of("uri", CALL_URI));
+        verify(sseStreams).sendToSession("s1", notification);
+        verify(sseStreams).sendToSession("s2", notification);
+        verify(sseStreams, never()).sendToSession(eq("s3"), any());
+        verify(sseStreams, never()).sendToSession(eq("s4"), any());
+    }
+
+    @Test
+    void sessionWithoutAStreamIsUnsubscribed() {
+        subscriptions = new McpSubscriptions(sseStreams, sessionTokens, 100, 10, Duration.ofMinutes(30));
+        when(sseStreams.sendToSession(eq("s1"), any())).thenReturn(false);
+        when(sseStreams.sendToSession(eq("s2"), any())).thenReturn(true);
+        subscriptions.subscribe("s1", "user-a", CALL_URI);
+        subscriptions.subscribe("s2", "user-a", CALL_URI);
+
+        subscriptions.notifyUpdated(CALL_URI, "user-a");
+
+        assertThat(subscriptions.size()).isEqualTo(1);
+    }
+
+    @Test
+    void committedCallbackIsPushedOffTheCallersThread() {
+        subscriptions = new McpSubscriptions(sseStreams, sessionTokens, 100, 10, Duration.ofMinutes(30));
+        when(sseStreams.sendToSession(anyString(), any())).thenReturn(true);
+        subscriptions.subscribe("s1", "user-a", McpSubscriptions.SMS_RESOURCE_PREFIX + "sms-1");
+
+        subscriptions.onCallbackStatus(new CallbackStatusEvent(CallbackStatusEvent.Kind.SMS, "sms-1", "user-a", "delivered"));
+        subscriptions.onCallbackStatus(new CallbackStatusEvent(CallbackStatusEvent.Kind.CALL, "sms-1", "user-a", "completed"));
+
+        verify(sseStreams, timeout(5000)).sendToSession(eq("s1"), any());
+        verify(sseStreams).sendToSession(anyString(), any());
+    }
+
+    @Test
+    void subscriptionsAreCappedPerSessionAndInTotal() {
+        subscriptions = new McpSubscriptions(sseStreams, sessionTokens, 3, 2, Duration.ofMinutes(30));
+
+        assertThat(subscriptions.subscribe("s1", "user-a", CALL_URI + "a")).isTrue();
+        assertThat(subscriptions.subscribe("s1", "user-a", CALL_URI + "b")).isTrue();
+        assertThat(subscriptions.subscribe("s1", "user-a", CALL_URI + "a")).isTrue();
+        assertThat(subscriptions.subscribe("s1", "user-a", CALL_URI + "c")).isFalse();
+        assertThat(subscriptions.subscribe("s2", "user-a", CALL_URI + "a")).isTrue();
+        assertThat(subscriptions.subscribe("s3", "user-a", CALL_URI + "a")).isFalse();
+        assertThat(subscriptions.size()).isEqualTo(3);
+
+        subscriptions.unsubscribe("s1", CALL_URI + "b");
+        assertThat(subscriptions.subscribe("s3", "user-a", CALL_URI + "a")).isTrue();
+    }
+
+    @Test
+    void sweepDropsSessionsWhoseTokenNoLongerOpens() throws Exception {
+        // Sweeps every 1.5s, well before the live session could count as idle
+        subscriptions = new McpSubscriptions(sseStreams, sessionTokens, 100, 10, Duration.ofSeconds(3));
+        when(sessionTokens.open("live")).thenReturn("Basic a");
+        subscriptions.subscribe("live", "user-a", CALL_URI);
+        subscriptions.subscribe("expired", "user-a", CALL_URI);
+
+        awaitSize(1);
+
+        assertThat(subscriptions.size()).isEqualTo(1);
+    }
+
+    @Test
+    void sweepDropsSessionsWithoutAStreamForTheIdleTtl() throws Exception {
+        subscriptions = new McpSubscriptions(sseStreams, sessionTokens, 100, 10, Duration.ofMillis(100));
+        when(sessionTokens.open(anyString())).thenReturn("Basic a");
+        when(sseStreams.hasSessionStream("streaming")).thenReturn(true);
+        subscriptions.subscribe("streaming", "user-a", CALL_URI);
+        subscriptions.subscribe("idle", "user-a", CALL_URI);
+
+        awaitSize(1);
+
+        assertThat(subscriptions.size()).isEqualTo(1);
+    }
+
+    // The sweep runs at most once a second
+    private void awaitSize(int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (subscriptions.size() != size && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.mcp_api.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class McpToolExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private McpToolExecutor executor;
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void saturatedPoolRejectsWithTenantLimitInsteadOfRunningOnTheCaller() throws Exception {
+        executor = new McpToolExecutor(1, 1, 1, "async", false, 50, 2000);
+        CompletableFuture<String> running = executor.submit("tenant-a", this::blockUntilReleased);
+        CompletableFuture<String> queued = executor.submit("tenant-a", this::blockUntilReleased);
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+
+        CompletableFuture<String> rejected = executor.submit("tenant-a", () -> {
+            ranOn.set(Thread.currentThread());
+            return "ran";
+        });
+
+        assertThatThrownBy(rejected::join).cause()
+            .isInstanceOf(TenantLimitExceededException.class)
+            .hasMessageContaining("saturated");
+        assertThat(ranOn.get()).isNull();
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+    }
+
+    @Test
+    void rejectedCallGivesItsPermitsBack() throws Exception {
+        executor = new McpToolExecutor(1, 1, 1, "async", false, 3, 2000);
+        CompletableFuture<String> running = executor.submit("tenant-a", this::blockUntilReleased);
+        CompletableFuture<String> queued = executor.submit("tenant-a", this::blockUntilReleased);
+        executor.submit("tenant-a", () -> "rejected");
+
+        // The tenant is capped at 3: the rejected call must not still count against it
+        CompletableFuture<String> admitted = executor.executeAsync("tenant-a", () -> CompletableFuture.completedFuture("ok"));
+
+        assertThat(admitted.get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+        release.countDown();
+        CompletableFuture.allOf(running, queued).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void tenantOverItsCapIsRejected() {
+        executor = new McpToolExecutor(1, 1, 1, "async", false, 1, 2000);
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        executor.executeAsync("tenant-a", () -> pending);
+
+        assertThatThrownBy(executor.executeAsync("tenant-a", () -> CompletableFuture.completedFuture("ok"))::join)
+            .cause().isInstanceOf(TenantLimitExceededException.class);
+        assertThat(executor.executeAsync("tenant-b", () -> CompletableFuture.completedFuture("ok"))).isCompleted();
+
+        pending.complete("done");
+        assertThat(executor.executeAsync("tenant-a", () -> CompletableFuture.completedFuture("ok"))).isCompleted();
+    }
+
+    @Test
+    void continuationRunsOnTheCompletingThreadWhenThePoolIsSaturated() throws Exception {
+        executor = new McpToolExecutor(1, 1, 1, "async", false, 50, 2000);
+        executor.submit("tenant-a", this::blockUntilReleased);
+        executor.submit("tenant-a", this::blockUntilReleased);
+
+        CompletableFuture<Thread> continuation = CompletableFuture.completedFuture("sent")
+            .thenApplyAsync(result -> Thread.currentThread(), executor.continuationExecutor());
+
+        assertThat(continuation.get(5, TimeUnit.SECONDS)).isSameAs(Thread.currentThread());
+    }
+
+    private String blockUntilReleased() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.mcp_api.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.annotation.Tool;
+import com.example.mcp_api.service.ExotelService;
+import com.example.mcp_api.service.QuickAudioService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class McpToolRegistryTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void argumentsAreBoundByNameInAnyOrder() throws Exception {
+        McpToolRegistry.ToolBinding send = bind("send");
+
+        Object result = send.invoke(parser("""
+            {"options":{"priority":"high"},"message":"hi","numbers":["9000000001","9000000002"]}"""));
+
+        assertThat(send.parameterNames()).containsExactly("message", "numbers", "options");
+        assertThat(result).isEqualTo("hi to [9000000001, 9000000002] with {priority=high}");
+    }
+
+    @Test
+    void commaSeparatedStringIsAcceptedForAList() throws Exception {
+        Object result = bind("send").invoke(parser("{\"message\":\"hi\",\"numbers\":\"9000000001,9000000002\"}"));
+
+        assertThat(result).isEqualTo("hi to [9000000001, 9000000002] with null");
+    }
+
+    @Test
+    void nonObjectMapArgumentBindsAsAnEmptyMap() throws Exception {
+        Object result = bind("send").invoke(parser("{\"message\":\"hi\",\"options\":[\"priority\",\"high\"],\"numbers\":[]}"));
+
+        assertThat(result).isEqualTo("hi to [] with {}");
+    }
+
+    @Test
+    void unknownArgumentNamesAreSkipped() throws Exception {
+        Object result = bind("send").invoke(parser("""
+            {"unknown":{"nested":[1,{"message":"not this one"}]},"message":"hi","extra":"x","numbers":["9000000001"]}"""));
+
+        assertThat(result).isEqualTo("hi to [9000000001] with null");
+    }
+
+    @Test
+    void missingArgumentsBindAsNull() throws Exception {
+        assertThat(bind("send").invoke(null)).isEqualTo("null to null with null");
+    }
+
+    @Test
+    void nonObjectArgumentsAreRejected() {
+        assertThatThrownBy(() -> bind("send").invoke(parser("[\"hi\"]")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("JSON object");
+    }
+
+    @Test
+    void toolExceptionsAreThrownUnwrapped() {
+        assertThatThrownBy(() -> bind("fails").invoke(parser("{\"reason\":\"bad number\"}")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("bad number");
+    }
+
+    @Test
+    void asyncCompanionIsBoundForNonBlockingCalls() throws Exception {
+        McpToolRegistry.ToolBinding send = bind("send");
+
+        CompletableFuture<Object> result = send.invokeAsync(parser("{\"message\":\"hi\",\"numbers\":\"9000000001\"}"));
+
+        assertThat(send.isAsync()).isTrue();
+        assertThat(result.join()).isEqualTo("async hi to [9000000001] with null");
+    }
+
+    @Test
+    void toolReturningAFutureIsItsOwnNonBlockingForm() throws Exception {
+        McpToolRegistry.ToolBinding later = bind("later");
+
+        assertThat(later.isAsync()).isTrue();
+        assertThat(later.invokeAsync(parser("{\"value\":\"v\"}")).join()).isEqualTo("v");
+        assertThat(later.invoke(parser("{\"value\":\"v\"}"))).isEqualTo("v");
+    }
+
+    @Test
+    void toolWithoutACompanionIsBlockingOnly() {
+        McpToolRegistry.ToolBinding status = bind("status");
+
+        assertThat(status.isAsync()).isFalse();
+        assertThatThrownBy(() -> status.invokeAsync(null)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void registryExposesEveryServiceTool() {
+        McpToolRegistry registry = new McpToolRegistry(mock(ExotelService.class), mock(QuickAudioService.class), objectMapper);
+
+        assertThat(registry.tools()).extracting(McpToolRegistry.ToolBinding::name).containsExactlyInAnyOrder(
+            "sendSmsToUser", "sendVoiceCallToUser", "outgoingCallToConnectNumber", "sendMessageToBulkNumbers",
+            "sendDynamicBulkSms", "connectNumberToCallFlow", "getSmsCallbacks", "getVoiceCallCallbacks",
+            "getBulkCallDetails", "getNumberMetadata", "searchVoiceCallbacksByNumber", "getCallDetails",
+            "quickPlayAudio", "openAudioPlayer", "downloadAudioQuick");
+        assertThat(registry.find("sendSmsToUser").parameterNames())
+            .containsExactly("toNumber", "message", "dltTemplateId", "dltEntityId");
+        assertThat(registry.find("noSuchTool")).isNull();
+        assertThat(registry.find(null)).isNull();
+    }
+
+    @Test
+    void exotelSendsAreBoundToTheirNonBlockingForm() {
+        McpToolRegistry registry = new McpToolRegistry(mock(ExotelService.class), mock(QuickAudioService.class), objectMapper);
+
+        assertThat(registry.tools()).filteredOn(McpToolRegistry.ToolBinding::isAsync)
+            .extracting(McpToolRegistry.ToolBinding::name).containsExactlyInAnyOrder(
+                "sendSmsToUser", "sendVoiceCallToUser", "outgoingCallToConnectNumber",
+                "sendMessageToBulkNumbers", "sendDynamicBulkSms");
+    }
+
+    @Test
+    void toolCallsDispatchToTheService() throws Exception {
+        ExotelService exotelService = mock(ExotelService.class);
+        QuickAudioService quickAudioService = mock(QuickAudioService.class);
+        when(exotelService.getNumberMetadata("08000000000")).thenReturn("metadata");
+        when(exotelService.sendVoiceCallToUserAsync("9000000001")).thenReturn(CompletableFuture.completedFuture("queued"));
+        McpToolRegistry registry = new McpToolRegistry(exotelService, quickAudioService, objectMapper);
+
+        assertThat(registry.find("getNumberMetadata").invoke(parser("{\"number\":\"08000000000\"}"))).isEqualTo("metadata");
+        assertThat(registry.find("sendVoiceCallToUser").invokeAsync(parser("{\"toNumber\":\"9000000001\"}")).join())
+            .isEqualTo("queued");
+        verify(exotelService).sendVoiceCallToUserAsync("9000000001");
+        verifyNoInteractions(quickAudioService);
+    }
+
+    private McpToolRegistry.ToolBinding bind(String name) {
+        Method method = Arrays.stream(SampleTools.class.getMethods())
+            .filter(candidate -> candidate.getName().equals(name) && candidate.isAnnotationPresent(Tool.class))
+            .findFirst()
+            .orElseThrow();
+        return McpToolRegistry.ToolBinding.create(new SampleTools(), method, method.getAnnotation(Tool.class), objectMapper);
+    }
+
+    private JsonParser parser(String json) throws IOException {
+        return objectMapper.createParser(json);
+    }
+
+    /**
+     * Tools as the services declare them; public, since tools are bound through the public lookup
+     */
+    public static class SampleTools {
+
+        @Tool(name = "send", description = "Send a message to some numbers")
+        public String send(String message, List<String> numbers, Map<String, Object> options) {
+            return message + " to " + numbers + " with " + options;
+        }
+
+        public CompletableFuture<String> sendAsync(String message, List<String> numbers, Map<String, Object> options) {
+            return CompletableFuture.completedFuture("async " + send(message, numbers, options));
+        }
+
+        @Tool(name = "status", description = "Status of the account")
+        public String status(String accountSid) {
+            return "ok";
+        }
+
+        // Same name, different parameters: not a companion of status
+        public CompletableFuture<String> statusAsync(String accountSid, String region) {
+            return CompletableFuture.completedFuture("ok");
+        }
+
+        @Tool(name = "later", description = "Answers later")
+        public CompletableFuture<String> later(String value) {
+            return CompletableFuture.completedFuture(value);
+        }
+
+        @Tool(name = "fails", description = "Always fails")
+        public String fails(String reason) {
+            throw new IllegalArgumentException(reason);
+        }
+    }
+}
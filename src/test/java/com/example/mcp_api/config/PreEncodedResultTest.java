@@ -0,0 +1,88 @@
+package com.example.mcp_api.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PreEncodedResultTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Object> result = Map.of("tools", List.of(Map.of("name", "send_sms", "description", "Send an SMS")));
+
+    @Test
+    void envelopeIsTheJsonRpcResponseForTheId() throws Exception {
+        PreEncodedResult encoded = PreEncodedResult.of(objectMapper, result);
+        byte[] id = objectMapper.writeValueAsBytes("req-1");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        encoded.writeEnvelope(out, id);
+
+        assertThat(out.size()).isEqualTo(encoded.envelopeLength(id));
+        assertThat(objectMapper.readTree(out.toByteArray())).isEqualTo(expected("req-1"));
+        assertThat(encoded.isCompressed()).isFalse();
+    }
+
+    @Test
+    void gzipEnvelopeDecompressesToTheSameResponse() throws Exception {
+        PreEncodedResult encoded = PreEncodedResult.compressed(objectMapper, result);
+
+        assertThat(objectMapper.readTree(gunzip(encoded.gzipEnvelope(objectMapper.writeValueAsBytes(7)))))
+            .isEqualTo(expected(7));
+        assertThat(objectMapper.readTree(gunzip(encoded.gzipEnvelope(objectMapper.writeValueAsBytes("req-2")))))
+            .isEqualTo(expected("req-2"));
+    }
+
+    @Test
+    void gzipEnvelopeHandlesIncompressibleResultsAndIdsLongerThanAStoredBlock() throws Exception {
+        byte[] noise = new byte[100_000];
+        new Random(42).nextBytes(noise);
+        String text = new String(Base64.getEncoder().encode(noise), StandardCharsets.US_ASCII);
+        PreEncodedResult encoded = PreEncodedResult.compressed(objectMapper, Map.of("text", text));
+        String id = "x".repeat(70_000);
+
+        JsonNode response = objectMapper.readTree(gunzip(encoded.gzipEnvelope(objectMapper.writeValueAsBytes(id))));
+
+        assertThat(response.get("id").asText()).isEqualTo(id);
+        assertThat(response.get("result").get("text").asText()).isEqualTo(text);
+    }
+
+    @Test
+    void ifNoneMatchComparesWeakly() throws Exception {
+        PreEncodedResult encoded = PreEncodedResult.of(objectMapper, result);
+        String opaqueTag = encoded.eTag().substring(2);
+
+        assertThat(encoded.eTag()).startsWith("W/\"");
+        assertThat(encoded.matches(encoded.eTag())).isTrue();
+        assertThat(encoded.matches(opaqueTag)).isTrue();
+        assertThat(encoded.matches("\"other\", " + encoded.eTag())).isTrue();
+        assertThat(encoded.matches("\"other\"")).isFalse();
+        assertThat(encoded.matches(null)).isFalse();
+    }
+
+    @Test
+    void wildcardDoesNotMatch() throws Exception {
+        assertThat(PreEncodedResult.of(objectMapper, result).matches("*")).isFalse();
+    }
+
+    private JsonNode expected(Object id) {
+        return objectMapper.valueToTree(Map.of("jsonrpc", "2.0", "id", id, "result", result));
+    }
+
+    private static byte[] gunzip(byte[] gzip) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.mcp_api.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PromptTemplateTest {
+
+    @Test
+    void variablesAreReplacedAndUnknownOnesKeptAsWritten() {
+        PromptTemplate template = PromptTemplate.compile("Send {{message}} to {{toNumber}} from {{fromNumber}}");
+
+        assertThat(template.render(Map.of("message", "hi", "toNumber", 9000000001L)))
+            .isEqualTo("Send hi to 9000000001 from {{fromNumber}}");
+    }
+
+    @Test
+    void nullArgumentRendersAsNothing() {
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put("message", null);
+
+        assertThat(PromptTemplate.compile("[{{message}}]").render(arguments)).isEqualTo("[]");
+    }
+
+    @Test
+    void ifBlocksFollowTheArgumentsTruthiness() {
+        PromptTemplate template = PromptTemplate.compile("Call{{#if record}} with recording{{/if}}.");
+
+        assertThat(template.render(Map.of("record", true))).isEqualTo("Call with recording.");
+        assertThat(template.render(Map.of("record", "yes"))).isEqualTo("Call with recording.");
+        assertThat(template.render(Map.of("record", 0))).isEqualTo("Call with recording.");
+        assertThat(template.render(Map.of("record", false))).isEqualTo("Call.");
+        assertThat(template.render(Map.of("record", "FALSE"))).isEqualTo("Call.");
+        assertThat(template.render(Map.of("record", ""))).isEqualTo("Call.");
+        assertThat(template.render(Map.of())).isEqualTo("Call.");
+    }
+
+    @Test
+    void nestedBlocksAndVariablesInsideBlocks() {
+        PromptTemplate template = PromptTemplate.compile(
+            "SMS{{#if dlt}} (template {{dltTemplateId}}{{#if entity}}, entity {{entity}}{{/if}}){{/if}}");
+
+        assertThat(template.render(Map.of("dlt", true, "dltTemplateId", "T1", "entity", "E1")))
+            .isEqualTo("SMS (template T1, entity E1)");
+        assertThat(template.render(Map.of("dlt", true, "dltTemplateId", "T1")))
+            .isEqualTo("SMS (template T1)");
+        assertThat(template.render(Map.of("entity", "E1"))).isEqualTo("SMS");
+    }
+
+    @Test
+    void malformedTagsAreEmittedAsWritten() {
+        assertThat(PromptTemplate.compile("a {{#if x}}b {{y}}").render(Map.of("y", "Y"))).isEqualTo("a {{#if x}}b Y");
+        assertThat(PromptTemplate.compile("a {{/if}} b").render(Map.of())).isEqualTo("a {{/if}} b");
+        assertThat(PromptTemplate.compile("a {{unterminated").render(Map.of())).isEqualTo("a {{unterminated");
+    }
+
+    @Test
+    void largeRenderDoesNotLeakIntoTheNext() {
+        String large = "x".repeat(20_000);
+
+        assertThat(PromptTemplate.compile("{{v}}").render(Map.of("v", large))).hasSize(20_000);
+        assertThat(PromptTemplate.compile("{{v}}").render(Map.of("v", "small"))).isEqualTo("small");
+    }
+
+    @Test
+    void compiledPromptRendersEveryMessage() {
+        Map<String, Object> definition = Map.of(
+            "name", "send_sms",
+            "description", "Send an SMS",
+            "messages", List.of(
+                Map.of("role", "user", "content", Map.of("type", "text", "text", "Send {{message}} to {{toNumber}}")),
+                Map.of("role", "assistant", "content", Map.of("type", "text", "text", "Sending to {{toNumber}}"))));
+        CompiledPrompt prompt = CompiledPrompt.compile(definition);
+
+        Map<String, Object> rendered = prompt.render(Map.of("message", "hi", "toNumber", "9000000001"));
+
+        assertThat(rendered).containsEntry("name", "send_sms").containsEntry("description", "Send an SMS");
+        assertThat(rendered.get("messages")).isEqualTo(List.of(
+            Map.of("role", "user", "content", Map.of("type", "text", "text", "Send hi to 9000000001")),
+            Map.of("role", "assistant", "content", Map.of("type", "text", "text", "Sending to 9000000001"))));
+        assertThat(prompt.definition()).isEqualTo(definition);
+    }
+}
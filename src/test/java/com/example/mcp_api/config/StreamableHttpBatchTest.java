@@ -0,0 +1,146 @@
+package com.example.mcp_api.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.StringJoiner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StreamableHttpBatchTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private McpToolRegistry toolRegistry;
+
+    private final CountDownLatch secondStarted = new CountDownLatch(1);
+
+    @BeforeEach
+    void registerTools() throws Exception {
+        // "first" only finishes once "second" has started, so the batch completes only if entries run concurrently
+        McpToolRegistry.ToolBinding first = mock(McpToolRegistry.ToolBinding.class);
+        when(first.name()).thenReturn("first");
+        when(first.invoke(any())).thenAnswer(invocation ->
+            secondStarted.await(5, TimeUnit.SECONDS) ? "first done" : "ran alone");
+        McpToolRegistry.ToolBinding second = mock(McpToolRegistry.ToolBinding.class);
+        when(second.name()).thenReturn("second");
+        when(second.invoke(any())).thenAnswer(invocation -> {
+            secondStarted.countDown();
+            return "second done";
+        });
+        when(toolRegistry.find("first")).thenReturn(first);
+        when(toolRegistry.find("second")).thenReturn(second);
+    }
+
+    @Test
+    void toolCallsRunConcurrentlyAndAnswerInRequestOrder() throws Exception {
+        JsonNode responses = postBatch("""
+            [{"jsonrpc":"2.0","id":1,"method":"tools/call","params":{"name":"first"}},
+             {"jsonrpc":"2.0","id":2,"method":"tools/call","params":{"name":"second"}},
+             {"jsonrpc":"2.0","id":3,"method":"resources/templates/list"}]""");
+
+        assertThat(responses).hasSize(3);
+        assertThat(responses.get(0).path("id").asInt()).isEqualTo(1);
+        assertThat(responses.get(0).path("result").path("content").get(0).path("text").asText()).isEqualTo("first done");
+        assertThat(responses.get(1).path("id").asInt()).isEqualTo(2);
+        assertThat(responses.get(1).path("result").path("content").get(0).path("text").asText()).isEqualTo("second done");
+        assertThat(responses.get(2).path("id").asInt()).isEqualTo(3);
+        assertThat(responses.get(2).has("result")).isTrue();
+    }
+
+    @Test
+    void notificationsGetNoResponseEntry() throws Exception {
+        JsonNode responses = postBatch("""
+            [{"jsonrpc":"2.0","method":"notifications/initialized"},
+             {"jsonrpc":"2.0","id":"a","method":"resources/templates/list"},
+             {"jsonrpc":"2.0","method":"tools/call","params":{"name":"second"}}]""");
+
+        assertThat(responses).hasSize(1);
+        assertThat(responses.get(0).path("id").asText()).isEqualTo("a");
+    }
+
+    @Test
+    void batchOfOnlyNotificationsIsAccepted() throws Exception {
+        MvcResult result = mockMvc.perform(post("/mcp")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content("[{\"jsonrpc\":\"2.0\",\"method\":\"notifications/initialized\"}]"))
+            .andReturn();
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(202);
+        assertThat(result.getResponse().getContentAsString()).isEmpty();
+    }
+
+    @Test
+    void nonObjectEntriesAreInvalidRequests() throws Exception {
+        JsonNode responses = postBatch("""
+            [1, "tools/list", {"jsonrpc":"2.0","id":7,"method":"resources/templates/list"}, [2]]""");
+
+        assertThat(responses).hasSize(4);
+        for (int i : new int[] {0, 1, 3}) {
+            assertThat(responses.get(i).path("id").isNull()).isTrue();
+            assertThat(responses.get(i).path("error").path("message").asText()).startsWith("Invalid Request");
+        }
+        assertThat(responses.get(2).path("id").asInt()).isEqualTo(7);
+    }
+
+    @Test
+    void batchOverTheSizeLimitIsRejected() throws Exception {
+        assertThat(postBatch(pings(50))).hasSize(50);
+
+        MvcResult result = mockMvc.perform(post("/mcp")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(pings(51)))
+            .andReturn();
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(400);
+        assertThat(objectMapper.readTree(result.getResponse().getContentAsString()).path("error").path("message").asText())
+            .contains("exceeds limit of 50");
+    }
+
+    private static String pings(int count) {
+        StringJoiner batch = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < count; i++) {
+            batch.add("{\"jsonrpc\":\"2.0\",\"id\":" + i + ",\"method\":\"resources/templates/list\"}");
+        }
+        return batch.toString();
+    }
+
+    private JsonNode postBatch(String body) throws Exception {
+        MvcResult result = mockMvc.perform(post("/mcp")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(body))
+            .andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result.getAsyncResult(TimeUnit.SECONDS.toMillis(10));
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.mcp_api.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import com.example.mcp_api.service.CancellationToken;
+import com.example.mcp_api.service.ToolInvocationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StreamableHttpCancellationTest {
+
+    private static final String OWNER = "Bearer owner-credentials";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private McpToolRegistry toolRegistry;
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch aborted = new CountDownLatch(1);
+
+    @BeforeEach
+    void registerTool() throws Exception {
+        // Stands in for a tool waiting on Exotel: it returns once its in-flight exchange is aborted
+        McpToolRegistry.ToolBinding slow = mock(McpToolRegistry.ToolBinding.class);
+        when(slow.name()).thenReturn("slow");
+        when(slow.invoke(any())).thenAnswer(invocation -> {
+            CancellationToken token = ToolInvocationContext.cancellationToken();
+            token.onAbort(aborted::countDown);
+            started.countDown();
+            return aborted.await(5, TimeUnit.SECONDS) ? "aborted" : "finished";
+        });
+        when(toolRegistry.find("slow")).thenReturn(slow);
+    }
+
+    @Test
+    void cancelledNotificationAbortsTheInFlightCall() throws Exception {
+        CompletableFuture<String> call = callSlowTool(42);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(cancel(OWNER, 42).getResponse().getStatus()).isEqualTo(202);
+
+        assertThat(call.get(5, TimeUnit.SECONDS)).isEqualTo("aborted");
+    }
+
+    @Test
+    void anotherClientCannotCancelTheSameId() throws Exception {
+        CompletableFuture<String> call = callSlowTool(42);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        cancel("Bearer someone-else", 42);
+
+        assertThat(aborted.await(200, TimeUnit.MILLISECONDS)).isFalse();
+        cancel(OWNER, 42);
+        assertThat(call.get(5, TimeUnit.SECONDS)).isEqualTo("aborted");
+    }
+
+    @Test
+    void cancellationWithoutSessionOrCredentialsIsRefused() throws Exception {
+        MvcResult result = mockMvc.perform(post("/mcp")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(cancelledNotification(42)))
+            .andReturn();
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(400);
+    }
+
+    // tools/call on its own thread, since in inline mode the request thread runs the tool; completes with its text
+    private CompletableFuture<String> callSlowTool(int id) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                MvcResult result = mockMvc.perform(post("/mcp")
+                        .header(HttpHeaders.AUTHORIZATION, OWNER)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content("{\"jsonrpc\":\"2.0\",\"id\":" + id + ",\"method\":\"tools/call\",\"params\":{\"name\":\"slow\"}}"))
+                    .andReturn();
+                return objectMapper.readTree(result.getResponse().getContentAsString())
+                    .path("result").path("content").get(0).path("text").asText();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private MvcResult cancel(String authHeader, int id) throws Exception {
+        return mockMvc.perform(post("/mcp")
+                .header(HttpHeaders.AUTHORIZATION, authHeader)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(cancelledNotification(id)))
+            .andReturn();
+    }
+
+    private static String cancelledNotification(int id) {
+        return "{\"jsonrpc\":\"2.0\",\"method\":\"notifications/cancelled\",\"params\":{\"requestId\":" + id
+               + ",\"reason\":\"user stopped\"}}";
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.mcp_api.service;
+
+import org.junit.jupiter.api.Test;
+import com.example.mcp_api.dto.AuthData;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthDataCacheTest {
+
+    // Two different headers with the same 64-bit FNV-1a hash
+    private static final String HEADER = "Basic p\"k664>+J^";
+    private static final String COLLIDING_HEADER = "Basic X-pM$^Dj7S";
+
+    @Test
+    void collidingHeadersHashAlike() {
+        assertThat(HEADER).isNotEqualTo(COLLIDING_HEADER);
+        assertThat(AuthDataCache.hash(HEADER)).isEqualTo(AuthDataCache.hash(COLLIDING_HEADER));
+    }
+
+    @Test
+    void hashCollisionIsAMissNotAnotherAccountsCredentials() {
+        AuthDataCache cache = new AuthDataCache(Duration.ofMinutes(10), 100);
+        cache.put(HEADER, authData("acc1"));
+
+        assertThat(cache.get(COLLIDING_HEADER)).isNull();
+        assertThat(cache.get(HEADER).accountSid()).isEqualTo("acc1");
+    }
+
+    @Test
+    void collidingHeaderReplacesTheEntryInsteadOfSharingIt() {
+        AuthDataCache cache = new AuthDataCache(Duration.ofMinutes(10), 100);
+        cache.put(HEADER, authData("acc1"));
+
+        cache.put(COLLIDING_HEADER, authData("acc2"));
+
+        assertThat(cache.get(HEADER)).isNull();
+        assertThat(cache.get(COLLIDING_HEADER).accountSid()).isEqualTo("acc2");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredEntryIsAMissAndIsDropped() throws Exception {
+        AuthDataCache cache = new AuthDataCache(Duration.ofMillis(10), 100);
+        cache.put(HEADER, authData("acc1"));
+        Thread.sleep(30);
+
+        assertThat(cache.get(HEADER)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void fullCacheEvictsDownToNinetyPercent() {
+        AuthDataCache cache = new AuthDataCache(Duration.ofMinutes(10), 20);
+        for (int i = 0; i < 20; i++) {
+            cache.put("Basic header-" + i, authData("acc" + i));
+        }
+
+        cache.put("Basic header-20", authData("acc20"));
+
+        assertThat(cache.size()).isEqualTo(19);
+        assertThat(cache.get("Basic header-20").accountSid()).isEqualTo("acc20");
+    }
+
+    @Test
+    void disabledCacheKeepsNothing() {
+        AuthDataCache cache = new AuthDataCache(Duration.ZERO, 100);
+
+        cache.put(HEADER, authData("acc1"));
+
+        assertThat(cache.get(HEADER)).isNull();
+    }
+
+    private static AuthData authData(String accountSid) {
+        return new AuthData("token", "md5", "08000000000", "08000000001", "https://api.exotel.com", accountSid, "https://my.exotel.com");
+    }
+}
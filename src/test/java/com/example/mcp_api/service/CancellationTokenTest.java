@@ -0,0 +1,73 @@
+package com.example.mcp_api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CancellationTokenTest {
+
+    private final List<String> aborted = new ArrayList<>();
+
+    @Test
+    void cancelRunsEveryRegisteredAbortOnce() {
+        CancellationToken token = new CancellationToken();
+        token.onAbort(() -> aborted.add("exchange"));
+        token.onAbort(() -> aborted.add("hedge"));
+
+        token.cancel("client cancelled");
+        token.cancel("again");
+
+        assertThat(aborted).containsExactly("exchange", "hedge");
+        assertThatThrownBy(token::throwIfCancelled)
+            .isInstanceOf(CancellationException.class)
+            .hasMessageContaining("client cancelled");
+    }
+
+    @Test
+    void clearedAbortIsNotRunAndLeavesTheOthers() {
+        CancellationToken token = new CancellationToken();
+        Runnable finished = () -> aborted.add("finished");
+        token.onAbort(finished);
+        token.onAbort(() -> aborted.add("pending"));
+
+        token.clearAbort(finished);
+        token.cancel(null);
+
+        assertThat(aborted).containsExactly("pending");
+    }
+
+    @Test
+    void abortRegisteredAfterCancelRunsStraightAway() {
+        CancellationToken token = new CancellationToken();
+        token.cancel(null);
+
+        token.onAbort(() -> aborted.add("late"));
+
+        assertThat(aborted).containsExactly("late");
+    }
+
+    @Test
+    void sleepWakesUpOnCancel() throws Exception {
+        CancellationToken token = new CancellationToken();
+        new Thread(() -> token.cancel("stop")).start();
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> token.sleep(10_000)).isInstanceOf(CancellationException.class);
+        assertThat(System.nanoTime() - start).isLessThan(5_000_000_000L);
+    }
+
+    @Test
+    void noneIsNeverCancelled() {
+        CancellationToken.NONE.onAbort(() -> aborted.add("none"));
+
+        CancellationToken.NONE.cancel("ignored");
+
+        assertThat(CancellationToken.NONE.isCancelled()).isFalse();
+        assertThat(aborted).isEmpty();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.mcp_api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExotelBulkSmsSplitTest {
+
+    private final ExotelService service = new ExotelService(1, 1);
+
+    @AfterEach
+    void shutdown() {
+        service.shutdown();
+    }
+
+    @Test
+    void entriesAreMatchedOnToWhateverTheirOrder() {
+        String response = "[{\"SMSMessage\":{\"Sid\":\"s2\",\"To\":\"09000000002\"}},"
+                        + "{\"SMSMessage\":{\"Sid\":\"s1\",\"To\":\"+919000000001\"}}]";
+
+        List<String> split = service.splitBulkSmsResponse(response, List.of("9000000001", "9000000002"));
+
+        assertThat(split.get(0)).contains("\"s1\"");
+        assertThat(split.get(1)).contains("\"s2\"");
+    }
+
+    @Test
+    void recipientWithoutEntryGetsNullNotAnotherRecipientsEntry() {
+        String response = "[{\"SMSMessage\":{\"Sid\":\"s1\",\"To\":\"09000000001\"}},"
+                        + "{\"SMSMessage\":{\"Sid\":\"s3\",\"To\":\"09000000003\"}}]";
+
+        List<String> split = service.splitBulkSmsResponse(response, List.of("9000000001", "9000000002"));
+
+        assertThat(split.get(0)).contains("\"s1\"");
+        assertThat(split.get(1)).isNull();
+    }
+
+    @Test
+    void sameNumberTwiceUsesEachEntryOnce() {
+        String response = "[{\"SMSMessage\":{\"Sid\":\"s1\",\"To\":\"09000000001\"}}]";
+
+        List<String> split = service.splitBulkSmsResponse(response, List.of("9000000001", "9000000001"));
+
+        assertThat(split.get(0)).contains("\"s1\"");
+        assertThat(split.get(1)).isNull();
+    }
+
+    @Test
+    void entriesWithoutToAreMatchedByPosition() {
+        String response = "[{\"SMSMessage\":{\"Sid\":\"s1\"}},{\"SMSMessage\":{\"Sid\":\"s2\"}}]";
+
+        List<String> split = service.splitBulkSmsResponse(response, List.of("9000000001", "9000000002", "9000000003"));
+
+        assertThat(split.get(0)).contains("\"s1\"");
+        assertThat(split.get(1)).contains("\"s2\"");
+        assertThat(split.get(2)).isNull();
+    }
+
+    @Test
+    void unparsableResponseFailsTheWholeBatch() {
+        assertThatThrownBy(() -> service.splitBulkSmsResponse("not json", List.of("9000000001", "9000000002")))
+            .isInstanceOf(CompletionException.class);
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.mcp_api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExotelCircuitBreakersTest {
+
+    private static final String DOMAIN = "https://api.exotel.com";
+    private static final String SMS_URL = DOMAIN + "/v1/Accounts/acc1/Sms/send.json";
+    private static final String CALLS_URL = DOMAIN + "/v1/Accounts/acc1/Calls/connect.json";
+
+    // Window of 4 calls, trips at 50% failures, 2 probes
+    private ExotelCircuitBreakers breakers = breakers(Duration.ofSeconds(30));
+
+    @Test
+    void staysClosedBelowTheMinimumNumberOfCalls() {
+        fail(3);
+
+        assertAdmitted(SMS_URL);
+    }
+
+    @Test
+    void opensOnceTheFailureRateCrossesTheThreshold() {
+        succeed(2);
+        fail(2);
+
+        assertThatThrownBy(() -> breakers.acquire(DOMAIN, SMS_URL))
+            .isInstanceOfSatisfying(OutboundRejectedException.class, e -> {
+                assertThat(e.getReason()).isEqualTo("circuit_open");
+                assertThat(e.getRetryAfterMillis()).isPositive();
+            });
+    }
+
+    @Test
+    void oldCallsSlideOutOfTheWindow() {
+        fail(1);
+        succeed(4);
+        fail(1);
+
+        assertAdmitted(SMS_URL);
+    }
+
+    @Test
+    void breakersAreSeparatePerEndpointClass() {
+        fail(4);
+
+        assertThatThrownBy(() -> breakers.acquire(DOMAIN, SMS_URL)).isInstanceOf(OutboundRejectedException.class);
+        assertAdmitted(CALLS_URL);
+    }
+
+    @Test
+    void clientErrorsAndCancellationsDoNotCount() {
+        for (int i = 0; i < 4; i++) {
+            breakers.acquire(DOMAIN, SMS_URL).complete(new ExotelHttpException(404, "Not found", 0));
+            breakers.acquire(DOMAIN, SMS_URL).complete(new CancellationException("Request cancelled"));
+        }
+
+        assertAdmitted(SMS_URL);
+    }
+
+    @Test
+    void halfOpenAdmitsOnlyTheProbesAndClosesWhenTheyAllSucceed() throws Exception {
+        breakers = breakers(Duration.ofMillis(50));
+        fail(4);
+        Thread.sleep(80);
+
+        ExotelCircuitBreakers.Call first = breakers.acquire(DOMAIN, SMS_URL);
+        ExotelCircuitBreakers.Call second = breakers.acquire(DOMAIN, SMS_URL);
+        assertThatThrownBy(() -> breakers.acquire(DOMAIN, SMS_URL))
+            .isInstanceOfSatisfying(OutboundRejectedException.class,
+                                    e -> assertThat(e.getMessage()).contains("recovering"));
+
+        first.complete(null);
+        second.complete(null);
+
+        // Closed with a fresh window: one more failure is below the minimum number of calls
+        fail(1);
+        for (int i = 0; i < 5; i++) {
+            assertAdmitted(SMS_URL);
+        }
+    }
+
+    @Test
+    void failedProbeReopensTheBreaker() throws Exception {
+        breakers = breakers(Duration.ofMillis(50));
+        fail(4);
+        Thread.sleep(80);
+
+        breakers.acquire(DOMAIN, SMS_URL).complete(new IOException("Connection reset"));
+
+        assertThatThrownBy(() -> breakers.acquire(DOMAIN, SMS_URL))
+            .isInstanceOfSatisfying(OutboundRejectedException.class,
+                                    e -> assertThat(e.getMessage()).contains("paused"));
+    }
+
+    @Test
+    void slowCallsTripTheBreakerToo() {
+        ExotelCircuitBreakers slowSensitive = new ExotelCircuitBreakers(4, 4, 50, Duration.ZERO, 50,
+                                                                        Duration.ofSeconds(30), 2, 1000, Duration.ofMinutes(10));
+        for (int i = 0; i < 4; i++) {
+            slowSensitive.acquire(DOMAIN, SMS_URL).complete(null);
+        }
+
+        assertThatThrownBy(() -> slowSensitive.acquire(DOMAIN, SMS_URL)).isInstanceOf(OutboundRejectedException.class);
+    }
+
+    @Test
+    void idleBreakersMakeRoomForNewKeys() throws Exception {
+        breakers = new ExotelCircuitBreakers(4, 4, 50, Duration.ofSeconds(5), 80, Duration.ofSeconds(30), 2, 2, Duration.ofMillis(10));
+        assertAdmitted(SMS_URL);
+        assertAdmitted(CALLS_URL);
+        Thread.sleep(20);
+
+        breakers.acquire("https://api.in.exotel.com", SMS_URL).complete(null);
+
+        assertThat(breakers.trackedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void openBreakerIsKeptWhileItHoldsCallsOff() throws Exception {
+        breakers = new ExotelCircuitBreakers(4, 4, 50, Duration.ofSeconds(5), 80, Duration.ofSeconds(30), 2, 1, Duration.ofMillis(10));
+        fail(4);
+        Thread.sleep(20);
+
+        // No room for a new key: its calls go through without a breaker
+        for (int i = 0; i < 10; i++) {
+            breakers.acquire(DOMAIN, CALLS_URL).complete(new ExotelHttpException(503, "Service unavailable", 0));
+        }
+
+        assertAdmitted(CALLS_URL);
+        assertThat(breakers.trackedCount()).isEqualTo(1);
+        assertThatThrownBy(() -> breakers.acquire(DOMAIN, SMS_URL)).isInstanceOf(OutboundRejectedException.class);
+    }
+
+    @Test
+    void endpointClassIsTakenFromTheAccountPath() {
+        assertThat(ExotelCircuitBreakers.endpointClass(SMS_URL)).isEqualTo("Sms");
+        assertThat(ExotelCircuitBreakers.endpointClass(CALLS_URL)).isEqualTo("Calls");
+        assertThat(ExotelCircuitBreakers.endpointClass(DOMAIN + "/v1/status")).isEqualTo("other");
+    }
+
+    private static ExotelCircuitBreakers breakers(Duration openDuration) {
+        return new ExotelCircuitBreakers(4, 4, 50, Duration.ofSeconds(5), 80, openDuration, 2, 1000, Duration.ofMinutes(10));
+    }
+
+    private void succeed(int calls) {
+        for (int i = 0; i < calls; i++) {
+            breakers.acquire(DOMAIN, SMS_URL).complete(null);
+        }
+    }
+
+    private void fail(int calls) {
+        for (int i = 0; i < calls; i++) {
+            breakers.acquire(DOMAIN, SMS_URL).complete(new ExotelHttpException(503, "Service unavailable", 0));
+        }
+    }
+
+    private void assertAdmitted(String url) {
+        breakers.acquire(DOMAIN, url).complete(null);
+    }
+}
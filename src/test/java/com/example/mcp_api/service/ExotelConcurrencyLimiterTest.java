@@ -0,0 +1,132 @@
+package com.example.mcp_api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExotelConcurrencyLimiterTest {
+
+    private static final String DOMAIN = "https://api.exotel.com";
+
+    @Test
+    void callsOverTheLimitAreShed() {
+        ExotelConcurrencyLimiter limiter = new ExotelConcurrencyLimiter(4, 2, 10, 0.5, Duration.ofSeconds(3), 1000, Duration.ofMinutes(10));
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire(DOMAIN);
+        }
+
+        assertThatThrownBy(() -> limiter.acquire(DOMAIN))
+            .isInstanceOfSatisfying(OutboundRejectedException.class,
+                                    e -> assertThat(e.getReason()).isEqualTo("concurrency_limited"));
+        assertThat(capacity(limiter, "https://api.in.exotel.com")).isEqualTo(4);
+    }
+
+    @Test
+    void failureCutsTheLimitDownToTheMinimum() {
+        ExotelConcurrencyLimiter limiter = new ExotelConcurrencyLimiter(8, 2, 10, 0.5, Duration.ofSeconds(3), 1000, Duration.ofMinutes(10));
+
+        limiter.acquire(DOMAIN).complete(new ExotelHttpException(503, "Service unavailable", 0));
+        assertThat(capacity(limiter, DOMAIN)).isEqualTo(4);
+
+        limiter.acquire(DOMAIN).complete(new IOException("Connection reset"));
+        limiter.acquire(DOMAIN).complete(new ExotelHttpException(429, "Too many requests", 0));
+        assertThat(capacity(limiter, DOMAIN)).isEqualTo(2);
+    }
+
+    @Test
+    void callSlowerThanTheLatencyTargetCountsAsADrop() {
+        ExotelConcurrencyLimiter limiter = new ExotelConcurrencyLimiter(8, 2, 10, 0.5, Duration.ZERO, 1000, Duration.ofMinutes(10));
+
+        limiter.acquire(DOMAIN).complete(null);
+
+        assertThat(capacity(limiter, DOMAIN)).isEqualTo(4);
+    }
+
+    @Test
+    void clientErrorsAndCancellationsLeaveTheLimitAlone() {
+        ExotelConcurrencyLimiter limiter = new ExotelConcurrencyLimiter(4, 2, 10, 0.5, Duration.ofSeconds(3), 1000, Duration.ofMinutes(10));
+
+        limiter.acquire(DOMAIN).complete(new ExotelHttpException(400, "Bad request", 0));
+        limiter.acquire(DOMAIN).complete(new CancellationException("Request cancelled"));
+
+        assertThat(capacity(limiter, DOMAIN)).isEqualTo(4);
+    }
+
+    @Test
+    void limitGrowsWhileItIsInUseUpToTheMaximum() {
+        ExotelConcurrencyLimiter limiter = new ExotelConcurrencyLimiter(4, 2, 6, 0.5, Duration.ofSeconds(3), 1000, Duration.ofMinutes(10));
+        Deque<ExotelConcurrencyLimiter.Permit> held = new ArrayDeque<>();
+        for (int i = 0; i < 4; i++) {
+            held.add(limiter.acquire(DOMAIN));
+        }
+
+        // Keep the limit saturated: each success frees a slot that is taken again straight away
+        for (int i = 0; i < 100; i++) {
+            held.poll().complete(null);
+            held.add(limiter.acquire(DOMAIN));
+        }
+        held.forEach(permit -> permit.complete(new CancellationException("done")));
+
+        assertThat(capacity(limiter, DOMAIN)).isEqualTo(6);
+    }
+
+    @Test
+    void idleDomainDoesNotGrowItsLimit() {
+        ExotelConcurrencyLimiter limiter = new ExotelConcurrencyLimiter(4, 2, 10, 0.5, Duration.ofSeconds(3), 1000, Duration.ofMinutes(10));
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire(DOMAIN).complete(null);
+        }
+
+        assertThat(capacity(limiter, DOMAIN)).isEqualTo(4);
+    }
+
+    @Test
+    void idleLimitsMakeRoomForNewDomains() throws Exception {
+        ExotelConcurrencyLimiter limiter = new ExotelConcurrencyLimiter(4, 2, 10, 0.5, Duration.ofSeconds(3), 1, Duration.ofMillis(10));
+        limiter.acquire(DOMAIN).complete(null);
+        Thread.sleep(20);
+
+        limiter.acquire("https://api.in.exotel.com").complete(null);
+
+        assertThat(limiter.trackedCount()).isEqualTo(1);
+        assertThat(capacity(limiter, "https://api.in.exotel.com")).isEqualTo(4);
+    }
+
+    @Test
+    void limitWithCallsInFlightIsKept() throws Exception {
+        ExotelConcurrencyLimiter limiter = new ExotelConcurrencyLimiter(4, 2, 10, 0.5, Duration.ofSeconds(3), 1, Duration.ofMillis(10));
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire(DOMAIN);
+        }
+        Thread.sleep(20);
+
+        // No room for another domain: its calls are not limited here
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire("https://api.in.exotel.com");
+        }
+
+        assertThat(limiter.trackedCount()).isEqualTo(1);
+        assertThatThrownBy(() -> limiter.acquire(DOMAIN)).isInstanceOf(OutboundRejectedException.class);
+    }
+
+    // Current limit of the domain: how many calls are admitted at once, released again without affecting the limit
+    private static int capacity(ExotelConcurrencyLimiter limiter, String apiDomain) {
+        Deque<ExotelConcurrencyLimiter.Permit> held = new ArrayDeque<>();
+        try {
+            while (true) {
+                held.add(limiter.acquire(apiDomain));
+            }
+        } catch (OutboundRejectedException e) {
+            held.forEach(permit -> permit.complete(new CancellationException("probe")));
+            return held.size();
+        }
+    }
+}
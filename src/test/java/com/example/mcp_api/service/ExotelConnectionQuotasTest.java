@@ -0,0 +1,134 @@
+package com.example.mcp_api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExotelConnectionQuotasTest {
+
+    private static final String DOMAIN = "https://api.exotel.com";
+
+    private ExotelConnectionQuotas quotas;
+
+    @AfterEach
+    void shutdown() {
+        quotas.shutdown();
+    }
+
+    @Test
+    void partitionAtItsQuotaBorrowsFromTheReserveThenWaits() {
+        quotas = new ExotelConnectionQuotas(2, 1, "", Duration.ofSeconds(5), 25);
+        acquire("acc1");
+        acquire("acc1");
+
+        CompletableFuture<ExotelConnectionQuotas.Permit> borrowed = quotas.acquire(DOMAIN, "acc1", CancellationToken.NONE);
+        CompletableFuture<ExotelConnectionQuotas.Permit> waiting = quotas.acquire(DOMAIN, "acc1", CancellationToken.NONE);
+
+        assertThat(borrowed).isCompleted();
+        assertThat(waiting).isNotDone();
+        // Another account still has its own quota
+        assertThat(quotas.acquire(DOMAIN, "acc2", CancellationToken.NONE)).isCompleted();
+    }
+
+    @Test
+    void releasedSlotGoesStraightToAWaiterOfTheSamePartition() {
+        quotas = new ExotelConnectionQuotas(1, 0, "", Duration.ofSeconds(5), 25);
+        ExotelConnectionQuotas.Permit held = acquire("acc1");
+        acquire("acc2");
+        CompletableFuture<ExotelConnectionQuotas.Permit> acc2Waiting = quotas.acquire(DOMAIN, "acc2", CancellationToken.NONE);
+        CompletableFuture<ExotelConnectionQuotas.Permit> acc1Waiting = quotas.acquire(DOMAIN, "acc1", CancellationToken.NONE);
+
+        held.release();
+
+        assertThat(acc1Waiting).isCompleted();
+        assertThat(acc2Waiting).isNotDone();
+    }
+
+    @Test
+    void releasedReserveSlotGoesToTheOldestWaiterOfAnyPartition() {
+        quotas = new ExotelConnectionQuotas(1, 1, "", Duration.ofSeconds(5), 25);
+        acquire("acc1");
+        ExotelConnectionQuotas.Permit reserve = acquire("acc1");
+        acquire("acc2");
+        CompletableFuture<ExotelConnectionQuotas.Permit> oldest = quotas.acquire(DOMAIN, "acc2", CancellationToken.NONE);
+        CompletableFuture<ExotelConnectionQuotas.Permit> newer = quotas.acquire(DOMAIN, "acc1", CancellationToken.NONE);
+
+        reserve.release();
+
+        assertThat(oldest).isCompleted();
+        assertThat(newer).isNotDone();
+    }
+
+    @Test
+    void waiterIsRejectedAfterTheAcquireTimeout() {
+        quotas = new ExotelConnectionQuotas(1, 0, "", Duration.ofMillis(50), 25);
+        ExotelConnectionQuotas.Permit held = acquire("acc1");
+
+        CompletableFuture<ExotelConnectionQuotas.Permit> waiting = quotas.acquire(DOMAIN, "acc1", CancellationToken.NONE);
+
+        assertThatThrownBy(() -> waiting.get(5, TimeUnit.SECONDS)).cause()
+            .isInstanceOfSatisfying(OutboundRejectedException.class,
+                                    e -> assertThat(e.getReason()).isEqualTo("connection_quota_exceeded"));
+        held.release();
+        assertThat(quotas.partitionCount()).isZero();
+    }
+
+    @Test
+    void cancelledWaiterStopsWaitingAndGetsNoSlot() {
+        quotas = new ExotelConnectionQuotas(1, 0, "", Duration.ofSeconds(5), 25);
+        ExotelConnectionQuotas.Permit held = acquire("acc1");
+        CancellationToken cancellation = new CancellationToken();
+        CompletableFuture<ExotelConnectionQuotas.Permit> cancelled = quotas.acquire(DOMAIN, "acc1", cancellation);
+        CompletableFuture<ExotelConnectionQuotas.Permit> next = quotas.acquire(DOMAIN, "acc1", CancellationToken.NONE);
+
+        cancellation.cancel("client cancelled");
+        held.release();
+
+        assertThatThrownBy(cancelled::join).cause().isInstanceOf(CancellationException.class);
+        assertThat(next).isCompleted();
+    }
+
+    @Test
+    void weightScalesTheQuotaUpToWhatTheReserveLeaves() {
+        quotas = new ExotelConnectionQuotas(2, 2, "acc1=3,acc2=100", Duration.ofSeconds(5), 10);
+
+        // acc1: 2 x 3 of its own plus the 2 in reserve; acc2: capped at the 10 per route less the reserve
+        assertThat(slots("acc1")).isEqualTo(8);
+        assertThat(slots("acc2")).isEqualTo(8);
+    }
+
+    @Test
+    void idlePartitionsAreDropped() {
+        quotas = new ExotelConnectionQuotas(2, 0, "", Duration.ofSeconds(5), 25);
+        ExotelConnectionQuotas.Permit first = acquire("acc1");
+        ExotelConnectionQuotas.Permit second = acquire("acc2");
+        assertThat(quotas.partitionCount()).isEqualTo(2);
+
+        first.release();
+        second.release();
+
+        assertThat(quotas.partitionCount()).isZero();
+    }
+
+    private ExotelConnectionQuotas.Permit acquire(String accountSid) {
+        CompletableFuture<ExotelConnectionQuotas.Permit> permit = quotas.acquire(DOMAIN, accountSid, CancellationToken.NONE);
+        assertThat(permit).isCompleted();
+        return permit.join();
+    }
+
+    // Slots the partition gets before it has to wait, including any it borrows from the reserve
+    private int slots(String accountSid) {
+        int slots = 0;
+        while (quotas.acquire(DOMAIN, accountSid, CancellationToken.NONE).isDone()) {
+            slots++;
+        }
+        return slots;
+    }
+}
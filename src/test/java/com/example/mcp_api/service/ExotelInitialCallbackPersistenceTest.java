@@ -0,0 +1,133 @@
+package com.example.mcp_api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.example.mcp_api.entity.SmsCallback;
+import com.example.mcp_api.entity.VoiceCallback;
+import com.example.mcp_api.repository.SmsCallbackRepository;
+import com.example.mcp_api.repository.VoiceCallbackRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExotelInitialCallbackPersistenceTest {
+
+    private final ExotelService service = new ExotelService(1, 1);
+    private final SmsCallbackRepository smsRepository = mock(SmsCallbackRepository.class);
+    private final VoiceCallbackRepository voiceRepository = mock(VoiceCallbackRepository.class);
+
+    // saveAll is handed one reused batch list, so copy it as each batch is saved
+    private final List<List<SmsCallback>> smsBatches = new ArrayList<>();
+
+    @BeforeEach
+    void wire() {
+        ReflectionTestUtils.setField(service, "smsCallbackRepository", smsRepository);
+        ReflectionTestUtils.setField(service, "voiceCallbackRepository", voiceRepository);
+        when(smsRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            List<SmsCallback> batch = new ArrayList<>();
+            invocation.<Iterable<SmsCallback>>getArgument(0).forEach(batch::add);
+            smsBatches.add(batch);
+            return batch;
+        });
+    }
+
+    @AfterEach
+    void shutdown() {
+        service.shutdown();
+    }
+
+    @Test
+    void singleSmsEnvelopeIsBoundToOneRecord() {
+        service.saveInitialSmsCallback("{\"SMSMessage\":{\"Sid\":\"s1\",\"To\":\"+919000000001\",\"Status\":\"queued\","
+                                       + "\"SmsUnits\":\"1\",\"DateCreated\":\"2026-10-17 10:00:00\",\"Extra\":{\"x\":[1]}}}",
+                                       "user-1");
+
+        assertThat(smsBatches).hasSize(1);
+        SmsCallback saved = smsBatches.get(0).get(0);
+        assertThat(saved.getUserId()).isEqualTo("user-1");
+        assertThat(saved.getSmsSid()).isEqualTo("s1");
+        assertThat(saved.getToNumber()).isEqualTo("09000000001");
+        assertThat(saved.getStatus()).isEqualTo("queued");
+        assertThat(saved.getDateSent()).isEqualTo("2026-10-17 10:00:00");
+    }
+
+    @Test
+    void missingSmsFieldsBecomeEmptyStrings() {
+        service.saveInitialSmsCallback("{\"SMSMessage\":{\"Sid\":\"s1\"}}", "user-1");
+
+        SmsCallback saved = smsBatches.get(0).get(0);
+        assertThat(saved.getToNumber()).isEmpty();
+        assertThat(saved.getStatus()).isEmpty();
+        assertThat(saved.getDetailedStatus()).isEmpty();
+        assertThat(saved.getDetailedStatusCode()).isEmpty();
+        assertThat(saved.getSmsUnits()).isEmpty();
+    }
+
+    @Test
+    void bulkResponseIsSavedInBatchesOf500InOrder() {
+        StringJoiner response = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < 1201; i++) {
+            response.add("{\"SMSMessage\":{\"Sid\":\"s" + i + "\",\"To\":\"0900000" + String.format("%04d", i) + "\"}}");
+        }
+
+        service.saveInitialBulkSmsCallback(response.toString(), "user-1");
+
+        assertThat(smsBatches).extracting(List::size).isEqualTo(List.of(500, 500, 201));
+        assertThat(smsBatches.get(0).get(0).getSmsSid()).isEqualTo("s0");
+        assertThat(smsBatches.get(2).get(200).getSmsSid()).isEqualTo("s1200");
+        verify(smsRepository, never()).save(any());
+    }
+
+    @Test
+    void entriesWithoutTheEnvelopeAreSkipped() {
+        service.saveInitialBulkSmsCallback("[{\"RestException\":{\"Status\":400,\"Message\":\"Invalid To\"}},"
+                                           + "\"noise\", [1, 2],"
+                                           + "{\"SMSMessage\":{\"Sid\":\"s2\",\"To\":\"09000000002\"}}]", "user-1");
+
+        assertThat(smsBatches).hasSize(1);
+        assertThat(smsBatches.get(0)).extracting(SmsCallback::getSmsSid).isEqualTo(List.of("s2"));
+    }
+
+    @Test
+    void responseWithoutEnvelopesSavesNothing() {
+        service.saveInitialBulkSmsCallback("{\"RestException\":{\"Status\":401}}", "user-1");
+        service.saveInitialBulkSmsCallback("not json", "user-1");
+
+        verify(smsRepository, never()).saveAll(anyIterable());
+    }
+
+    @Test
+    void callEnvelopeIsBoundToAVoiceRecord() {
+        service.saveInitialVoiceCallback("{\"Call\":{\"Sid\":\"c1\",\"To\":\"9000000001\",\"From\":\"+919000000002\","
+                                         + "\"Status\":\"in-progress\",\"Direction\":\"outbound-api\",\"Unknown\":true}}",
+                                         "user-1");
+
+        ArgumentCaptor<VoiceCallback> saved = ArgumentCaptor.forClass(VoiceCallback.class);
+        verify(voiceRepository).save(saved.capture());
+        assertThat(saved.getValue().getCallSid()).isEqualTo("c1");
+        assertThat(saved.getValue().getToNumber()).isEqualTo("09000000001");
+        assertThat(saved.getValue().getFromNumber()).isEqualTo("09000000002");
+        assertThat(saved.getValue().getStatus()).isEqualTo("in-progress");
+        assertThat(saved.getValue().getDuration()).isEmpty();
+    }
+
+    @Test
+    void everyCallInAnArrayIsSaved() {
+        service.saveInitialVoiceCallback("[{\"Call\":{\"Sid\":\"c1\"}},{\"Call\":{\"Sid\":\"c2\"}}]", "user-1");
+
+        verify(voiceRepository, times(2)).save(any(VoiceCallback.class));
+    }
+}
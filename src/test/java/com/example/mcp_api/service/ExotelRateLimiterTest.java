@@ -0,0 +1,105 @@
+package com.example.mcp_api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExotelRateLimiterTest {
+
+    private static final String SMS_URL = "https://api.exotel.com/v1/Accounts/acc1/Sms/send.json";
+
+    private ExotelRateLimiter limiter;
+
+    @AfterEach
+    void shutdown() {
+        limiter.shutdown();
+    }
+
+    @Test
+    void burstIsAdmittedImmediately() {
+        limiter = new ExotelRateLimiter("Sms/send=5", Duration.ofSeconds(1), Duration.ZERO, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.acquire(SMS_URL)).isCompleted();
+        }
+    }
+
+    @Test
+    void requestOverTheLimitWaitsForTheNextToken() throws Exception {
+        limiter = new ExotelRateLimiter("Sms/send=10", Duration.ofMillis(100), Duration.ofSeconds(1), Duration.ofMinutes(1));
+        assertThat(limiter.acquire(SMS_URL)).isCompleted();
+
+        long start = System.nanoTime();
+        CompletableFuture<Void> next = limiter.acquire(SMS_URL);
+
+        assertThat(next).isNotDone();
+        next.get(5, TimeUnit.SECONDS);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(50);
+    }
+
+    @Test
+    void requestBeyondTheMaximumWaitIsRejected() {
+        limiter = new ExotelRateLimiter("Sms/send=1", Duration.ofSeconds(1), Duration.ofMillis(1500), Duration.ofMinutes(1));
+        limiter.acquire(SMS_URL);
+        limiter.acquire(SMS_URL);
+
+        CompletableFuture<Void> rejected = limiter.acquire(SMS_URL);
+
+        assertThatThrownBy(rejected::join).cause().isInstanceOfSatisfying(OutboundRejectedException.class, e -> {
+            assertThat(e.getReason()).isEqualTo("rate_limited");
+            assertThat(e.getRetryAfterMillis()).isGreaterThan(1500);
+        });
+    }
+
+    @Test
+    void bucketsArePerAccountAndEndpoint() {
+        limiter = new ExotelRateLimiter("Sms/send=1,Calls/connect=1", Duration.ofSeconds(1), Duration.ZERO, Duration.ofMinutes(1));
+        limiter.acquire(SMS_URL);
+
+        assertThat(limiter.acquire("https://api.exotel.com/v1/Accounts/acc2/Sms/send.json")).isCompleted();
+        assertThat(limiter.acquire("https://api.exotel.com/v1/Accounts/acc1/Calls/connect.json")).isCompleted();
+        assertThat(limiter.acquire(SMS_URL)).isCompletedExceptionally();
+    }
+
+    @Test
+    void accountRateOverridesTheEndpointDefault() {
+        limiter = new ExotelRateLimiter("Sms/send=1,acc1|Sms/send=3", Duration.ofSeconds(1), Duration.ZERO, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.acquire(SMS_URL)).isCompleted();
+        }
+        assertThat(limiter.acquire(SMS_URL)).isCompletedExceptionally();
+    }
+
+    @Test
+    void refilledBucketsAreRetiredAndBusyOnesKept() throws Exception {
+        limiter = new ExotelRateLimiter("Sms/send=100,Calls/connect=0.1", Duration.ofMillis(10), Duration.ZERO, Duration.ofMinutes(1));
+        limiter.acquire(SMS_URL);
+        limiter.acquire("https://api.exotel.com/v1/Accounts/acc2/Sms/send.json");
+        limiter.acquire("https://api.exotel.com/v1/Accounts/acc1/Calls/connect.json");
+        Thread.sleep(50);
+
+        limiter.retireIdleBuckets();
+
+        // The Sms/send buckets refill in 10ms, the Calls/connect one needs 10s
+        assertThat(limiter.bucketCount()).isEqualTo(1);
+        assertThat(limiter.acquire("https://api.exotel.com/v1/Accounts/acc1/Calls/connect.json")).isCompletedExceptionally();
+        assertThat(limiter.acquire(SMS_URL)).isCompleted();
+    }
+
+    @Test
+    void endpointsWithoutARateAreNotLimited() {
+        limiter = new ExotelRateLimiter("Sms/send=1", Duration.ofSeconds(1), Duration.ZERO, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.acquire("https://api.exotel.com/v1/Accounts/acc1/Calls/details.json?Sid=1")).isCompleted();
+            assertThat(limiter.acquire("https://api.exotel.com/v1/status")).isCompleted();
+        }
+    }
+}
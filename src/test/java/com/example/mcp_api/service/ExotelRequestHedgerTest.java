@@ -0,0 +1,157 @@
+package com.example.mcp_api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExotelRequestHedgerTest {
+
+    private static final String DOMAIN = "https://api.exotel.com";
+    private static final String URL = DOMAIN + "/v1/Accounts/acc1/Calls/details.json";
+
+    private ExotelRequestHedger hedger;
+
+    @AfterEach
+    void shutdown() {
+        hedger.shutdown();
+    }
+
+    @Test
+    void disabledHedgerRunsTheOperationOnceWithTheCallersToken() {
+        hedger = new ExotelRequestHedger(false, 95, 1, 1, 10);
+        Attempts attempts = new Attempts();
+        CancellationToken cancellation = new CancellationToken();
+
+        hedger.execute(DOMAIN, URL, attempts, cancellation);
+
+        assertThat(attempts.tokens).containsExactly(cancellation);
+    }
+
+    @Test
+    void noHedgeUntilEnoughLatenciesAreKnown() throws Exception {
+        hedger = new ExotelRequestHedger(true, 95, 3, 1, 10);
+        prime(2);
+        Attempts slow = new Attempts();
+
+        CompletableFuture<String> result = hedger.execute(DOMAIN, URL, slow, CancellationToken.NONE);
+        Thread.sleep(100);
+
+        assertThat(result).isNotDone();
+        assertThat(slow.tokens).hasSize(1);
+    }
+
+    @Test
+    void slowAttemptIsHedgedAndTheLoserCancelled() throws Exception {
+        hedger = new ExotelRequestHedger(true, 95, 3, 1, 10);
+        prime(3);
+        Attempts attempts = new Attempts();
+
+        CompletableFuture<String> result = hedger.execute(DOMAIN, URL, attempts, CancellationToken.NONE);
+        attempts.awaitCount(2);
+        attempts.calls.get(1).complete("hedge");
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("hedge");
+        assertThat(attempts.tokens.get(0).isCancelled()).isTrue();
+        assertThat(attempts.tokens.get(1).isCancelled()).isFalse();
+    }
+
+    @Test
+    void failedAttemptWaitsForTheOtherOneBeforeFailing() throws Exception {
+        hedger = new ExotelRequestHedger(true, 95, 3, 1, 10);
+        prime(3);
+        Attempts attempts = new Attempts();
+
+        CompletableFuture<String> result = hedger.execute(DOMAIN, URL, attempts, CancellationToken.NONE);
+        attempts.awaitCount(2);
+        attempts.calls.get(1).completeExceptionally(new IOException("Connection reset"));
+
+        assertThat(result).isNotDone();
+        attempts.calls.get(0).complete("primary");
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("primary");
+    }
+
+    @Test
+    void callerCancellationCancelsBothAttempts() throws Exception {
+        hedger = new ExotelRequestHedger(true, 95, 3, 1, 10);
+        prime(3);
+        Attempts attempts = new Attempts();
+        CancellationToken cancellation = new CancellationToken();
+
+        hedger.execute(DOMAIN, URL, attempts, cancellation);
+        attempts.awaitCount(2);
+        cancellation.cancel("client cancelled");
+
+        assertThat(attempts.tokens).allMatch(CancellationToken::isCancelled);
+    }
+
+    @Test
+    void hedgesStopOnceTheBudgetIsSpent() throws Exception {
+        // No deposit per request: only the initial balance of 10 hedges
+        hedger = new ExotelRequestHedger(true, 95, 3, 0, 10);
+        prime(3);
+        for (int i = 0; i < 10; i++) {
+            Attempts attempts = new Attempts();
+            CompletableFuture<String> result = hedger.execute(DOMAIN, URL, attempts, CancellationToken.NONE);
+            attempts.awaitCount(2);
+            attempts.calls.get(1).complete("hedge");
+            result.get(5, TimeUnit.SECONDS);
+        }
+        Attempts unhedged = new Attempts();
+
+        hedger.execute(DOMAIN, URL, unhedged, CancellationToken.NONE);
+        Thread.sleep(100);
+
+        assertThat(unhedged.tokens).hasSize(1);
+    }
+
+    @Test
+    void pairsBeyondTheTrackingCapAreNotHedged() {
+        hedger = new ExotelRequestHedger(true, 95, 1, 1, 1);
+        prime(1);
+        Attempts attempts = new Attempts();
+        CancellationToken cancellation = new CancellationToken();
+
+        hedger.execute("https://api.in.exotel.com", URL, attempts, cancellation);
+
+        assertThat(attempts.tokens).containsExactly(cancellation);
+    }
+
+    // Fast successful calls to DOMAIN/URL, so its hedge delay is known and tiny
+    private void prime(int calls) {
+        for (int i = 0; i < calls; i++) {
+            hedger.execute(DOMAIN, URL, token -> CompletableFuture.completedFuture("ok"), CancellationToken.NONE).join();
+        }
+    }
+
+    /**
+     * Attempts that stay pending until the test completes them
+     */
+    private static final class Attempts implements ExotelRetryExecutor.Attempt<String> {
+
+        private final List<CancellationToken> tokens = new CopyOnWriteArrayList<>();
+        private final List<CompletableFuture<String>> calls = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletableFuture<String> execute(CancellationToken cancellation) {
+            CompletableFuture<String> call = new CompletableFuture<>();
+            calls.add(call);
+            tokens.add(cancellation);
+            return call;
+        }
+
+        void awaitCount(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (calls.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertThat(calls).hasSizeGreaterThanOrEqualTo(count);
+        }
+    }
+}
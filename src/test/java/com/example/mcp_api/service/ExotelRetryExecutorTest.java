@@ -0,0 +1,135 @@
+package com.example.mcp_api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExotelRetryExecutorTest {
+
+    private ExotelRetryExecutor executor;
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void transientFailureIsRetriedUntilItSucceeds() throws Exception {
+        executor = new ExotelRetryExecutor(Duration.ofMillis(1), Duration.ofMillis(5), 0.2, 5);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = executor.execute(cancellation -> attempts.incrementAndGet() < 3
+            ? CompletableFuture.failedFuture(new IOException("Connection reset"))
+            : CompletableFuture.completedFuture("ok"), 3, CancellationToken.NONE).get(5, TimeUnit.SECONDS);
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void clientErrorIsNotRetried() {
+        executor = new ExotelRetryExecutor(Duration.ofMillis(1), Duration.ofMillis(5), 0.2, 5);
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<String> result = executor.execute(cancellation -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new ExotelHttpException(400, "Bad request", 0));
+        }, 3, CancellationToken.NONE);
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(ExotelHttpException.class);
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void retriesStopOnceTheBudgetIsSpent() {
+        // No time-based refill and no per-request deposit: only the initial balance of 10 retries
+        executor = new ExotelRetryExecutor(Duration.ofMillis(1), Duration.ofMillis(1), 0, 0);
+        AtomicInteger attempts = new AtomicInteger();
+        ExotelRetryExecutor.Attempt<String> failing = cancellation -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new ExotelHttpException(503, "Service unavailable", 0));
+        };
+
+        awaitFailure(executor.execute(failing, 100, CancellationToken.NONE));
+        assertThat(attempts).hasValue(11);
+
+        attempts.set(0);
+        awaitFailure(executor.execute(failing, 100, CancellationToken.NONE));
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void requestsEarnBackRetriesAtTheBudgetRatio() {
+        executor = new ExotelRetryExecutor(Duration.ofMillis(1), Duration.ofMillis(1), 0.5, 0);
+        AtomicInteger attempts = new AtomicInteger();
+        ExotelRetryExecutor.Attempt<String> failing = cancellation -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new ExotelHttpException(503, "Service unavailable", 0));
+        };
+        awaitFailure(executor.execute(failing, 100, CancellationToken.NONE));
+
+        for (int i = 0; i < 2; i++) {
+            executor.execute(cancellation -> CompletableFuture.completedFuture("ok"), 1, CancellationToken.NONE).join();
+        }
+        attempts.set(0);
+        awaitFailure(executor.execute(failing, 100, CancellationToken.NONE));
+
+        // Two successful requests and the failing one itself deposited 1.5 retries
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    void nonIdempotentSendIsNotRetriedAfterATimeout() {
+        executor = new ExotelRetryExecutor(Duration.ofMillis(1), Duration.ofMillis(5), 0.2, 5);
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<String> result = executor.execute(cancellation -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new SocketTimeoutException("Read timed out"));
+        }, 3, false, CancellationToken.NONE);
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(SocketTimeoutException.class);
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void nonIdempotentSendIsRetriedWhenItNeverConnected() throws Exception {
+        executor = new ExotelRetryExecutor(Duration.ofMillis(1), Duration.ofMillis(5), 0.2, 5);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = executor.execute(cancellation -> attempts.incrementAndGet() == 1
+            ? CompletableFuture.failedFuture(new ConnectException("Connection refused"))
+            : CompletableFuture.completedFuture("ok"), 3, false, CancellationToken.NONE).get(5, TimeUnit.SECONDS);
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    void cancellationWakesUpACallWaitingOutItsBackoff() {
+        executor = new ExotelRetryExecutor(Duration.ofMinutes(1), Duration.ofMinutes(1), 0.2, 5);
+        CancellationToken cancellation = new CancellationToken();
+
+        CompletableFuture<String> result = executor.execute(
+            token -> CompletableFuture.failedFuture(new IOException("Connection reset")), 3, cancellation);
+        cancellation.cancel("client cancelled");
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).isInstanceOf(CancellationException.class);
+    }
+
+    private static void awaitFailure(CompletableFuture<?> result) {
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.mcp_api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExotelSendDeduplicatorTest {
+
+    private static final String URL = "https://api.exotel.com/v1/Accounts/acc1/Sms/send.json";
+    private static final Map<String, String> SMS = Map.of("From", "EXOTEL", "To", "9000000001", "Body", "hello");
+
+    private final ExotelSendDeduplicator deduplicator = new ExotelSendDeduplicator(Duration.ofMinutes(2), 100);
+    private final List<String> keysSent = new ArrayList<>();
+
+    @Test
+    void identicalSendWithinTheWindowGetsTheOriginalResponse() {
+        ExotelSendDeduplicator.Sent first = deduplicator.execute("acc1", URL, SMS, respond("sid-1")).join();
+        ExotelSendDeduplicator.Sent second = deduplicator.execute("acc1", URL, SMS, respond("sid-2")).join();
+
+        assertThat(first).isEqualTo(new ExotelSendDeduplicator.Sent("sid-1", false));
+        assertThat(second).isEqualTo(new ExotelSendDeduplicator.Sent("sid-1", true));
+        assertThat(keysSent).hasSize(1);
+    }
+
+    @Test
+    void identicalSendWhileTheFirstIsInFlightWaitsForItsResponse() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<ExotelSendDeduplicator.Sent> first = deduplicator.execute("acc1", URL, SMS, key -> {
+            keysSent.add(key);
+            return pending;
+        });
+        CompletableFuture<ExotelSendDeduplicator.Sent> second = deduplicator.execute("acc1", URL, SMS, respond("sid-2"));
+
+        assertThat(second).isNotDone();
+        pending.complete("sid-1");
+        assertThat(first.join().duplicate()).isFalse();
+        assertThat(second.join()).isEqualTo(new ExotelSendDeduplicator.Sent("sid-1", true));
+        assertThat(keysSent).hasSize(1);
+    }
+
+    @Test
+    void differentAccountsOrFieldsAreNotDuplicates() {
+        deduplicator.execute("acc1", URL, SMS, respond("sid-1")).join();
+        deduplicator.execute("acc2", URL, SMS, respond("sid-2")).join();
+        deduplicator.execute("acc1", URL, Map.of("From", "EXOTEL", "To", "9000000001", "Body", "bye"), respond("sid-3")).join();
+
+        assertThat(keysSent).hasSize(3);
+    }
+
+    @Test
+    void timedOutSendIsRememberedSoARetryCannotSendItTwice() {
+        SocketTimeoutException timeout = new SocketTimeoutException("Read timed out");
+
+        CompletableFuture<ExotelSendDeduplicator.Sent> first = deduplicator.execute("acc1", URL, SMS, fail(timeout));
+        CompletableFuture<ExotelSendDeduplicator.Sent> retry = deduplicator.execute("acc1", URL, SMS, respond("sid-2"));
+
+        assertThatThrownBy(first::join).hasCause(timeout);
+        assertThatThrownBy(retry::join).hasCause(timeout);
+        assertThat(keysSent).hasSize(1);
+        assertThat(deduplicator.size()).isEqualTo(1);
+    }
+
+    @Test
+    void sendThatNeverLeftIsForgottenSoItCanBeRetried() {
+        CompletableFuture<ExotelSendDeduplicator.Sent> first =
+            deduplicator.execute("acc1", URL, SMS, fail(new ConnectException("Connection refused")));
+        ExotelSendDeduplicator.Sent retry = deduplicator.execute("acc1", URL, SMS, respond("sid-2")).join();
+
+        assertThatThrownBy(first::join).hasCauseInstanceOf(ConnectException.class);
+        assertThat(retry).isEqualTo(new ExotelSendDeduplicator.Sent("sid-2", false));
+        assertThat(keysSent).hasSize(2);
+    }
+
+    @Test
+    void eachSendGetsItsOwnRandomIdempotencyKey() {
+        deduplicator.execute("acc1", URL, SMS, fail(new ConnectException("Connection refused")));
+        deduplicator.execute("acc1", URL, SMS, respond("sid-2")).join();
+
+        assertThat(keysSent).hasSize(2).doesNotHaveDuplicates();
+        assertThat(keysSent).noneMatch(key -> key.equals(ExotelSendDeduplicator.idempotencyKey("acc1", URL, SMS)));
+    }
+
+    @Test
+    void disabledWindowSendsEveryTime() {
+        ExotelSendDeduplicator disabled = new ExotelSendDeduplicator(Duration.ZERO, 100);
+
+        disabled.execute("acc1", URL, SMS, respond("sid-1")).join();
+        ExotelSendDeduplicator.Sent second = disabled.execute("acc1", URL, SMS, respond("sid-2")).join();
+
+        assertThat(second).isEqualTo(new ExotelSendDeduplicator.Sent("sid-2", false));
+        assertThat(keysSent).hasSize(2);
+    }
+
+    @Test
+    void onlyFailuresAfterConnectingLeaveTheOutcomeUnknown() {
+        assertThat(ExotelRetryExecutor.mayHaveBeenProcessed(new SocketTimeoutException())).isTrue();
+        assertThat(ExotelRetryExecutor.mayHaveBeenProcessed(new IOException("Connection reset"))).isTrue();
+        assertThat(ExotelRetryExecutor.mayHaveBeenProcessed(new ConnectException())).isFalse();
+        assertThat(ExotelRetryExecutor.mayHaveBeenProcessed(new UnknownHostException())).isFalse();
+    }
+
+    private Function<String, CompletableFuture<String>> respond(String response) {
+        return key -> {
+            keysSent.add(key);
+            return CompletableFuture.completedFuture(response);
+        };
+    }
+
+    private Function<String, CompletableFuture<String>> fail(Throwable error) {
+        return key -> {
+            keysSent.add(key);
+            return CompletableFuture.failedFuture(error);
+        };
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.mcp_api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExotelSmsCoalescerTest {
+
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+    private ExotelSmsCoalescer coalescer;
+
+    @AfterEach
+    void shutdown() {
+        if (coalescer != null) {
+            coalescer.shutdown();
+        }
+    }
+
+    @Test
+    void concurrentSendsShareOneBatchAndEachGetsItsOwnResult() throws Exception {
+        coalescer = new ExotelSmsCoalescer(true, Duration.ofMillis(50), 100);
+
+        CompletableFuture<String> first = coalescer.submit("group", "9000000001", this::echo);
+        CompletableFuture<String> second = coalescer.submit("group", "9000000002", this::echo);
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("result-9000000001");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("result-9000000002");
+        assertThat(batches).containsExactly(List.of("9000000001", "9000000002"));
+    }
+
+    @Test
+    void differentGroupsAreNotCoalesced() throws Exception {
+        coalescer = new ExotelSmsCoalescer(true, Duration.ofMillis(20), 100);
+
+        CompletableFuture<String> first = coalescer.submit("body-a", "9000000001", this::echo);
+        CompletableFuture<String> second = coalescer.submit("body-b", "9000000002", this::echo);
+
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertThat(batches).containsExactlyInAnyOrder(List.of("9000000001"), List.of("9000000002"));
+    }
+
+    @Test
+    void fullBatchIsSentWithoutWaitingForTheWindow() {
+        coalescer = new ExotelSmsCoalescer(true, Duration.ofHours(1), 2);
+
+        CompletableFuture<String> first = coalescer.submit("group", "9000000001", this::echo);
+        CompletableFuture<String> second = coalescer.submit("group", "9000000002", this::echo);
+
+        assertThat(first).isCompletedWithValue("result-9000000001");
+        assertThat(second).isCompletedWithValue("result-9000000002");
+    }
+
+    @Test
+    void recipientWithoutResultFailsAloneInsteadOfTakingAnotherOne() {
+        coalescer = new ExotelSmsCoalescer(true, Duration.ofHours(1), 2);
+        ExotelSmsCoalescer.BatchSender sender = recipients -> {
+            batches.add(recipients);
+            return CompletableFuture.completedFuture(Arrays.asList("result-" + recipients.get(0), null));
+        };
+
+        CompletableFuture<String> first = coalescer.submit("group", "9000000001", sender);
+        CompletableFuture<String> second = coalescer.submit("group", "9000000002", sender);
+
+        assertThat(first).isCompletedWithValue("result-9000000001");
+        assertThatThrownBy(second::join).hasCauseInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("9000000002");
+    }
+
+    @Test
+    void batchFailureFailsEveryRecipientWithTheSameCause() {
+        coalescer = new ExotelSmsCoalescer(true, Duration.ofHours(1), 2);
+        IOException failure = new IOException("connection reset");
+        ExotelSmsCoalescer.BatchSender sender = recipients -> CompletableFuture.failedFuture(failure);
+
+        CompletableFuture<String> first = coalescer.submit("group", "9000000001", sender);
+        CompletableFuture<String> second = coalescer.submit("group", "9000000002", sender);
+
+        assertThatThrownBy(first::join).hasCause(failure);
+        assertThatThrownBy(second::join).hasCause(failure);
+    }
+
+    @Test
+    void withdrawnRecipientIsLeftOutOfTheBatchAndTheOthersStillGo() throws Exception {
+        coalescer = new ExotelSmsCoalescer(true, Duration.ofMillis(50), 100);
+
+        CompletableFuture<String> first = coalescer.submit("group", "9000000001", this::echo);
+        CompletableFuture<String> cancelled = coalescer.submit("group", "9000000002", this::echo);
+
+        assertThat(coalescer.withdraw("group", cancelled)).isTrue();
+        assertThatThrownBy(cancelled::join).isInstanceOf(CancellationException.class);
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("result-9000000001");
+        assertThat(batches).containsExactly(List.of("9000000001"));
+    }
+
+    @Test
+    void lastWithdrawnRecipientDropsTheBatch() throws Exception {
+        coalescer = new ExotelSmsCoalescer(true, Duration.ofMillis(20), 100);
+
+        CompletableFuture<String> only = coalescer.submit("group", "9000000001", this::echo);
+        assertThat(coalescer.withdraw("group", only)).isTrue();
+
+        Thread.sleep(100);
+        assertThat(batches).isEmpty();
+    }
+
+    @Test
+    void recipientCannotBeWithdrawnOnceItsBatchIsSent() {
+        coalescer = new ExotelSmsCoalescer(true, Duration.ofHours(1), 1);
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> sent = coalescer.submit("group", "9000000001", recipients -> pending.thenApply(List::of));
+
+        assertThat(coalescer.withdraw("group", sent)).isFalse();
+        pending.complete("result");
+        assertThat(sent).isCompletedWithValue("result");
+    }
+
+    private CompletableFuture<List<String>> echo(List<String> recipients) {
+        batches.add(recipients);
+        List<String> results = new ArrayList<>();
+        recipients.forEach(recipient -> results.add("result-" + recipient));
+        return CompletableFuture.completedFuture(results);
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.mcp_api.service;
+
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FormEntityProducerTest {
+
+    @Test
+    void bodyMatchesUrlEncoderAndTheDeclaredLength() throws Exception {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("From", "08047091234");
+        data.put("Body", "Hello world! 50% off & free*delivery ~ (today) +91 <a@b.c>");
+        data.put("Unicode", "नमस्ते, ¢ €, 😀 and ümlauts");
+        data.put("Empty", "");
+        data.put("Missing", null);
+        data.put("Number", 42);
+        data.put("Message[0][Body]", "brackets in the name");
+
+        assertEncodesLikeUrlEncoder(data, 7);
+    }
+
+    @Test
+    void bulkBodyLargerThanTheBufferIsEncodedAcrossManyWrites() throws Exception {
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            data.put("Message[" + i + "][To]", "+9190000" + String.format("%05d", i));
+            data.put("Message[" + i + "][Body]", "Your OTP is " + i + " — do not share it ✓");
+        }
+
+        assertEncodesLikeUrlEncoder(data, 1000);
+    }
+
+    @Test
+    void unpairedSurrogateIsEncodedAsQuestionMarkLikeUrlEncoder() throws Exception {
+        Map<String, Object> data = Map.of("Body", "a\uD83Db\uDE00");
+
+        assertEncodesLikeUrlEncoder(data, 3);
+    }
+
+    @Test
+    void bodyIsProducedAgainAfterReleasingResources() throws Exception {
+        FormEntityProducer producer = new FormEntityProducer(Map.of("To", "9000000001", "Body", "hello there"));
+
+        String first = produce(producer, 5);
+        producer.releaseResources();
+
+        assertThat(producer.isRepeatable()).isTrue();
+        assertThat(produce(producer, 64)).isEqualTo(first);
+    }
+
+    @Test
+    void bodyIsSentWithAContentLengthNotChunked() {
+        FormEntityProducer producer = new FormEntityProducer(Map.of("To", "9000000001"));
+
+        assertThat(producer.isChunked()).isFalse();
+        assertThat(producer.getContentLength()).isEqualTo("To=9000000001".length());
+        assertThat(producer.getContentType()).startsWith("application/x-www-form-urlencoded");
+    }
+
+    private static void assertEncodesLikeUrlEncoder(Map<String, ?> data, int writeSize) throws Exception {
+        FormEntityProducer producer = new FormEntityProducer(data);
+        String expected = data.entrySet().stream()
+            .map(entry -> URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8) + "="
+                          + URLEncoder.encode(entry.getValue() != null ? String.valueOf(entry.getValue()) : "", StandardCharsets.UTF_8))
+            .collect(Collectors.joining("&"));
+
+        String body = produce(producer, writeSize);
+
+        assertThat(body).isEqualTo(expected);
+        assertThat(producer.getContentLength()).isEqualTo(body.getBytes(StandardCharsets.US_ASCII).length);
+    }
+
+    // Drives the producer like the I/O reactor, with a channel taking at most writeSize bytes per produce() call
+    private static String produce(FormEntityProducer producer, int writeSize) throws Exception {
+        ThrottledChannel channel = new ThrottledChannel();
+        for (int calls = 0; !channel.ended; calls++) {
+            assertThat(calls).as("produce() calls").isLessThan(1_000_000);
+            channel.capacity = writeSize;
+            producer.produce(channel);
+        }
+        assertThat(producer.available()).isZero();
+        return channel.out.toString(StandardCharsets.US_ASCII);
+    }
+
+    private static final class ThrottledChannel implements DataStreamChannel {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private int capacity;
+        private boolean ended;
+
+        @Override
+        public int write(ByteBuffer src) {
+            assertThat(ended).as("write after endStream").isFalse();
+            int length = Math.min(capacity, src.remaining());
+            byte[] chunk = new byte[length];
+            src.get(chunk);
+            out.writeBytes(chunk);
+            capacity -= length;
+            return length;
+        }
+
+        @Override
+        public void requestOutput() {
+        }
+
+        @Override
+        public void endStream() {
+            ended = true;
+        }
+
+        @Override
+        public void endStream(List<? extends Header> trailers) {
+            ended = true;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.mcp_api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class McpSessionStoreTest {
+
+    private McpSessionStore store;
+
+    @AfterEach
+    void shutdown() {
+        store.shutdown();
+    }
+
+    @Test
+    void sessionIdlePastTheTtlIsGone() throws Exception {
+        store = new McpSessionStore(Duration.ofMillis(50), 100);
+        store.put("s1", "Basic a");
+        Thread.sleep(100);
+
+        assertThat(store.get("s1")).isNull();
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void accessKeepsTheSessionAlive() throws Exception {
+        store = new McpSessionStore(Duration.ofMillis(200), 100);
+        store.put("s1", "Basic a");
+
+        for (int i = 0; i < 5; i++) {
+            Thread.sleep(80);
+            assertThat(store.get("s1")).isEqualTo("Basic a");
+        }
+    }
+
+    @Test
+    void backgroundSweepEvictsIdleSessionsNobodyAsksFor() throws Exception {
+        store = new McpSessionStore(Duration.ofMillis(50), 100);
+        store.put("s1", "Basic a");
+        store.put("s2", "Basic b");
+
+        // The sweep runs at most once a second
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (store.size() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void fullStoreEvictsTheLeastRecentlyUsedSessions() throws Exception {
+        store = new McpSessionStore(Duration.ofMinutes(30), 10);
+        for (int i = 0; i < 10; i++) {
+            store.put("s" + i, "Basic " + i);
+            Thread.sleep(2);
+        }
+        store.get("s0");
+
+        store.put("s10", "Basic 10");
+
+        assertThat(store.size()).isEqualTo(10);
+        assertThat(store.get("s1")).isNull();
+        assertThat(store.get("s0")).isEqualTo("Basic 0");
+        assertThat(store.get("s10")).isEqualTo("Basic 10");
+    }
+
+    @Test
+    void newHeaderReplacesTheSessionsCredentials() {
+        store = new McpSessionStore(Duration.ofMinutes(30), 1);
+        store.put("s1", "Basic a");
+
+        store.put("s1", "Basic b");
+
+        assertThat(store.get("s1")).isEqualTo("Basic b");
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void removedOrUnknownSessionHasNoCredentials() {
+        store = new McpSessionStore(Duration.ofMinutes(30), 100);
+        store.put("s1", "Basic a");
+
+        store.remove("s1");
+
+        assertThat(store.get("s1")).isNull();
+        assertThat(store.get(null)).isNull();
+    }
+}